@@ -0,0 +1,126 @@
+package io.shrouded.okara.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.google.cloud.Timestamp;
+import io.shrouded.okara.dto.event.FeedEvent;
+import io.shrouded.okara.dto.event.FeedEventMetadata;
+import io.shrouded.okara.enums.FeedEventType;
+import io.shrouded.okara.enums.FeedType;
+import io.shrouded.okara.model.Feed;
+import io.shrouded.okara.model.FeedItem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sample posts, feed items and events shared by the benchmarks
+ */
+public final class BenchmarkData {
+
+    public static final String POST_CONTENT =
+            "Shipping the new #feed ranking today 🚀 thanks @alice and @bob_dev for the reviews! "
+            + "Numbers after a week: https://okara.example/blog/ranking #engineering #performance "
+            + "Café crowd in #München says hi to @zoë";
+
+    private static final long BASE_SECONDS = 1_700_000_000L;
+
+    private BenchmarkData() {
+    }
+
+    public static Feed post(int n) {
+        Feed post = new Feed("author-" + (n % 50), POST_CONTENT, FeedType.POST);
+        post.setId("post-" + n);
+        post.setAuthorDisplayName("Author " + (n % 50));
+        post.setAuthorProfileImageUrl("https://okara.example/avatars/" + (n % 50) + ".png");
+        post.setCreatedAt(timestamp(n));
+        post.setUpdatedAt(timestamp(n));
+        post.setLikesCount(n % 200);
+        post.setCommentsCount(n % 30);
+        post.setDistinctCommentersCount(n % 20);
+        post.setCommentScore((n % 20) * 2.5);
+        post.setHotScore(3.2 + n / 45_000.0);
+        post.setHashtags(List.of("feed", "engineering", "performance", "München"));
+        post.setMentions(List.of("alice", "bob_dev", "zoë"));
+        post.setChatroomIds(List.of("general", "engineering"));
+        return post;
+    }
+
+    /**
+     * Feed item for the n-th post; higher n means a newer post
+     */
+    public static FeedItem item(int n) {
+        FeedItem item = new FeedItem();
+        item.setPostId("post-" + n);
+        item.setAuthorId("author-" + (n % 50));
+        item.setChatroomId(n % 3 == 0 ? "general" : null);
+        item.setReasonShown(n % 3 == 0 ? "chatroom" : "following");
+        item.setCreatedAt(timestamp(n));
+        item.setAddedToFeedAt(timestamp(n));
+        item.setExpireAt(timestamp(n + 30 * 24 * 60 * 60));
+        return item;
+    }
+
+    public static List<FeedItem> items(int from, int count) {
+        List<FeedItem> items = new ArrayList<>(count);
+        for (int n = from; n < from + count; n++) {
+            items.add(item(n));
+        }
+        return items;
+    }
+
+    public static FeedEvent postCreatedEvent() {
+        Feed post = post(1);
+        return FeedEvent.builder()
+                        .eventId("kQ3xv9Zt2LmP0aBcDeFg")
+                        .eventType(FeedEventType.POST_CREATED)
+                        .postId(post.getId())
+                        .authorId(post.getAuthorId())
+                        .authorUsername(post.getAuthorDisplayName())
+                        .content(post.getContent())
+                        .createdAt(post.getCreatedAt().toString())
+                        .chatroomIds(post.getChatroomIds())
+                        .metadata(FeedEventMetadata.forPost(post.getType(), post.getLikesCount(),
+                                                            post.getCommentsCount(), post.getHashtags(),
+                                                            post.getMentions(), false, 0, false, false, null))
+                        .build();
+    }
+
+    public static FeedEvent userFollowedEvent() {
+        return FeedEvent.builder()
+                        .eventId("Hj7sQ2wE9rTy4uIo1pAs")
+                        .eventType(FeedEventType.USER_FOLLOWED)
+                        .metadata(FeedEventMetadata.forFollow("user-1", "user-2"))
+                        .build();
+    }
+
+    /**
+     * ObjectMapper configured like the application's, with Timestamps written as RFC 3339 strings
+     */
+    public static ObjectMapper objectMapper() {
+        SimpleModule timestamps = new SimpleModule()
+                .addSerializer(Timestamp.class, ToStringSerializer.instance)
+                .addDeserializer(Timestamp.class, new JsonDeserializer<>() {
+                    @Override
+                    public Timestamp deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                        return Timestamp.parseTimestamp(parser.getValueAsString());
+                    }
+                });
+        return JsonMapper.builder()
+                         .findAndAddModules()
+                         .addModule(timestamps)
+                         .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                         .build();
+    }
+
+    private static Timestamp timestamp(long offsetSeconds) {
+        return Timestamp.ofTimeSecondsAndNanos(BASE_SECONDS + offsetSeconds, 0);
+    }
+}
@@ -0,0 +1,60 @@
+package io.shrouded.okara.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.shrouded.okara.dto.event.FeedEvent;
+import io.shrouded.okara.model.Feed;
+import io.shrouded.okara.model.UserFeed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialize-then-parse of the payloads that cross process boundaries; the user feed
+ * carries a page of 50 items
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonRoundTripBenchmark {
+
+    private final ObjectMapper objectMapper = BenchmarkData.objectMapper();
+    private FeedEvent event;
+    private Feed post;
+    private UserFeed userFeed;
+
+    @Setup
+    public void setUp() {
+        event = BenchmarkData.postCreatedEvent();
+        post = BenchmarkData.post(42);
+        userFeed = new UserFeed("user-1");
+        userFeed.addItems(BenchmarkData.items(0, 50));
+    }
+
+    @Benchmark
+    public FeedEvent feedEvent() throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(event), FeedEvent.class);
+    }
+
+    @Benchmark
+    public Feed feed() throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(post), Feed.class);
+    }
+
+    @Benchmark
+    public UserFeed userFeed() throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(userFeed), UserFeed.class);
+    }
+}
@@ -0,0 +1,42 @@
+package io.shrouded.okara.mapper;
+
+import io.shrouded.okara.benchmark.BenchmarkData;
+import io.shrouded.okara.dto.feed.FeedDto;
+import io.shrouded.okara.enums.ReactionType;
+import io.shrouded.okara.model.Feed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Post to DTO mapping done for every post in a feed response
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedMapperBenchmark {
+
+    private final FeedMapper feedMapper = new FeedMapperImpl();
+    private final Feed post = BenchmarkData.post(42);
+
+    @Benchmark
+    public FeedDto toFeedDto() {
+        return feedMapper.toFeedDto(post);
+    }
+
+    @Benchmark
+    public FeedDto toFeedDtoWithReaction() {
+        return feedMapper.toFeedDto(post, ReactionType.LIKE);
+    }
+}
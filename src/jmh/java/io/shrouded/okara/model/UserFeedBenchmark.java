@@ -0,0 +1,72 @@
+package io.shrouded.okara.model;
+
+import io.shrouded.okara.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserFeed batch operations on a full 500 item feed. Inserted items are newer than everything in
+ * the feed, so each insert also evicts the oldest items; creating them is part of the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserFeedBenchmark {
+
+    private static final int FEED_SIZE = 500;
+
+    @Param({"20"})
+    private int batchSize;
+
+    /**
+     * Position of the sinceId item from the newest one
+     */
+    @Param({"10", "250", "490"})
+    private int sincePosition;
+
+    private UserFeed feed;
+    private int nextPost;
+    private String sinceId;
+
+    @Setup(Level.Iteration)
+    public void fillFeed() {
+        feed = new UserFeed("user-1");
+        feed.addItems(BenchmarkData.items(0, FEED_SIZE));
+        nextPost = FEED_SIZE;
+        sinceId = "post-" + (FEED_SIZE - 1 - sincePosition);
+    }
+
+    @Benchmark
+    public UserFeed addItem() {
+        feed.addItem(BenchmarkData.item(nextPost++));
+        return feed;
+    }
+
+    @Benchmark
+    public UserFeed addItems() {
+        feed.addItems(BenchmarkData.items(nextPost, batchSize));
+        nextPost += batchSize;
+        return feed;
+    }
+
+    @Benchmark
+    public List<FeedItem> getItemsSince() {
+        return feed.getItemsSince(sinceId, batchSize);
+    }
+}
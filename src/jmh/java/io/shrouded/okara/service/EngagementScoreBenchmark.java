@@ -0,0 +1,43 @@
+package io.shrouded.okara.service;
+
+import io.shrouded.okara.benchmark.BenchmarkData;
+import io.shrouded.okara.model.Feed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comment score delta applied on each comment and the hot score recomputed after it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngagementScoreBenchmark {
+
+    // hotScore does not touch the repository
+    private final EngagementScoreService engagementScoreService = new EngagementScoreService(null);
+    private final Feed post = BenchmarkData.post(42);
+    private long commenterComments = 3;
+
+    @Benchmark
+    public double commentScoreDelta() {
+        long before = commenterComments;
+        return EngagementScoreService.commenterScore(before + 1) - EngagementScoreService.commenterScore(before);
+    }
+
+    @Benchmark
+    public double hotScore() {
+        return engagementScoreService.hotScore(post);
+    }
+}
@@ -0,0 +1,79 @@
+package io.shrouded.okara.service;
+
+import io.shrouded.okara.benchmark.BenchmarkData;
+import io.shrouded.okara.config.FeedEventBusProperties;
+import io.shrouded.okara.dto.event.FeedEvent;
+import io.shrouded.okara.enums.FeedEventType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary against JSON feed event encoding. Encode benchmarks also report the message size as
+ * the messageBytes secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedEventCodecBenchmark {
+
+    @Param({"POST_CREATED", "USER_FOLLOWED"})
+    private FeedEventType eventType;
+
+    private FeedEventCodec codec;
+    private FeedEvent event;
+    private byte[] binary;
+    private byte[] json;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+        public int messageBytes;
+    }
+
+    @Setup
+    public void setUp() {
+        codec = new FeedEventCodec(BenchmarkData.objectMapper(), new FeedEventBusProperties());
+        event = eventType == FeedEventType.USER_FOLLOWED ? BenchmarkData.userFollowedEvent() : BenchmarkData.postCreatedEvent();
+        binary = codec.encodeBinary(event);
+        json = codec.encodeJson(event);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary(WireSize size) {
+        byte[] bytes = codec.encodeBinary(event);
+        size.messageBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] encodeJson(WireSize size) {
+        byte[] bytes = codec.encodeJson(event);
+        size.messageBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public FeedEvent decodeBinary() {
+        return codec.decode(binary);
+    }
+
+    @Benchmark
+    public FeedEvent decodeJson() {
+        return codec.decode(json);
+    }
+}
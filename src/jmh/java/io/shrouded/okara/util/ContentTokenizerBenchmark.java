@@ -0,0 +1,64 @@
+package io.shrouded.okara.util;
+
+import io.shrouded.okara.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ContentTokenizer against the regex extraction it replaced, which compiled both patterns on
+ * every call and scanned the content once per pattern
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentTokenizerBenchmark {
+
+    /**
+     * Copies of the sample post joined together
+     */
+    @Param({"1", "8"})
+    private int copies;
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        content = String.join(" ", Collections.nCopies(copies, BenchmarkData.POST_CONTENT));
+    }
+
+    @Benchmark
+    public ContentTokenizer.Tokens tokenizer() {
+        return ContentTokenizer.tokenize(content);
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        blackhole.consume(extract(content, "#\\w+"));
+        blackhole.consume(extract(content, "@\\w+"));
+    }
+
+    private static List<String> extract(String content, String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        Matcher matcher = pattern.matcher(content);
+        return matcher.results().map(m -> m.group().substring(1)).toList();
+    }
+}
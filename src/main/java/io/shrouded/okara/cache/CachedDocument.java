@@ -0,0 +1,21 @@
+package io.shrouded.okara.cache;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A cached document: its ID, the time it was last updated and its fields as returned by
+ * DocumentSnapshot.getData(). Never modified once cached; DocumentCache.toObject maps it to a
+ * fresh entity on every read.
+ */
+public record CachedDocument(String id, Timestamp updateTime, Map<String, Object> data) {
+
+    public static CachedDocument of(DocumentSnapshot snapshot) {
+        Map<String, Object> data = snapshot.getData();
+        return new CachedDocument(snapshot.getId(), snapshot.getUpdateTime(),
+                                  data != null ? Collections.unmodifiableMap(data) : Map.of());
+    }
+}
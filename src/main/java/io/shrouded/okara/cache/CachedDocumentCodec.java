@@ -0,0 +1,80 @@
+package io.shrouded.okara.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.cloud.Timestamp;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+/**
+ * Encoding of cached documents for the shared cache and their mapping to entities.
+ * <p>
+ * A cached document is stored as a format version byte followed by the document as JSON, with
+ * timestamps written as RFC 3339 strings. Fields are mapped to entities with Jackson, which reads
+ * such strings back into Timestamp properties, so a document reads the same whether it was cached
+ * in this instance or decoded from Redis. Unknown fields are ignored like on Firestore reads.
+ */
+@Component
+public class CachedDocumentCodec {
+
+    private static final byte VERSION = 2;
+
+    private final ObjectMapper objectMapper;
+
+    public CachedDocumentCodec(ObjectMapper objectMapper) {
+        SimpleModule timestamps = new SimpleModule("FirestoreTimestamps")
+                .addSerializer(Timestamp.class, new JsonSerializer<>() {
+                    @Override
+                    public void serialize(Timestamp value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                        gen.writeString(value.toString());
+                    }
+                })
+                .addDeserializer(Timestamp.class, new JsonDeserializer<>() {
+                    @Override
+                    public Timestamp deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                        return Timestamp.parseTimestamp(parser.getValueAsString());
+                    }
+                });
+        this.objectMapper = objectMapper.copy()
+                                        .registerModule(timestamps)
+                                        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public byte[] encode(CachedDocument document) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(document);
+            byte[] bytes = new byte[json.length + 1];
+            bytes[0] = VERSION;
+            System.arraycopy(json, 0, bytes, 1, json.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to encode cached document " + document.id(), e);
+        }
+    }
+
+    public CachedDocument decode(byte[] bytes) {
+        if (bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported cached document version " + bytes[0]);
+        }
+        try {
+            return objectMapper.readValue(bytes, 1, bytes.length - 1, CachedDocument.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt cached document", e);
+        }
+    }
+
+    public <T> T toObject(CachedDocument document, Class<T> entityClass, BiConsumer<T, String> idSetter) {
+        T entity = objectMapper.convertValue(document.data(), entityClass);
+        idSetter.accept(entity, document.id());
+        return entity;
+    }
+}
@@ -0,0 +1,197 @@
+package io.shrouded.okara.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.cloud.firestore.DocumentSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.shrouded.okara.config.DocumentCacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process read-through cache of documents, one Caffeine cache per collection.
+ * <p>
+ * Documents are cached as immutable CachedDocument values holding the snapshot's ID, update time and
+ * fields, so every hit is mapped to a fresh entity with toObject and callers may modify what they get. Concurrent misses for the same document share a single load. When the Redis tier is
+ * enabled a local miss is served from Redis before falling back to Firestore, and evictions are
+ * broadcast so every instance drops its local copy; otherwise writes from other instances become
+ * visible when the entry expires. Hit, miss and eviction counts are published as the standard
+ * cache.* meters tagged with the collection name.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentCache {
+
+    private final DocumentCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<RedisDocumentCache> redisCacheProvider;
+    private final CachedDocumentCodec codec;
+
+    private final Map<String, AsyncCache<String, CachedDocument>> caches = new ConcurrentHashMap<>();
+
+    private RedisDocumentCache redisCache;
+    private Disposable invalidationSubscription;
+
+    @PostConstruct
+    public void start() {
+        redisCache = redisCacheProvider.getIfAvailable();
+        if (redisCache != null) {
+            invalidationSubscription = redisCache.invalidations()
+                                                 .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                                                                 .maxBackoff(Duration.ofSeconds(30)))
+                                                 .subscribe(invalidation -> evictLocal(invalidation.collectionName(),
+                                                                                       invalidation.id()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+    }
+
+    /**
+     * Cached copy of the document, loaded with the loader on a miss. Missing documents are not cached.
+     */
+    public Mono<CachedDocument> get(String collectionName, String id, Supplier<Mono<DocumentSnapshot>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get().map(CachedDocument::of);
+        }
+        // The shared load must not be cancelled when one of the waiting subscribers goes away
+        return Mono.fromFuture(() -> cacheFor(collectionName).get(id, (key, executor) ->
+                load(collectionName, key, loader).toFuture()), true);
+    }
+
+    /**
+     * Cached copies of the documents, keyed by ID. All misses are loaded together with a single
+     * call to the loader, which returns the snapshots of the documents that exist; missing
+     * documents are left out of the result and not cached.
+     */
+    public Mono<Map<String, CachedDocument>> getAll(String collectionName, Collection<String> ids,
+                                                      Function<List<String>, Mono<List<DocumentSnapshot>>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.apply(List.copyOf(ids)).map(DocumentCache::byId);
+        }
+        return Mono.fromFuture(() -> cacheFor(collectionName).getAll(ids, (keys, executor) ->
+                loadAll(collectionName, List.copyOf(keys), loader).toFuture()), true);
+    }
+
+    /**
+     * Map a cached document to a new entity
+     */
+    public <T> T toObject(CachedDocument document, Class<T> entityClass, BiConsumer<T, String> idSetter) {
+        return codec.toObject(document, entityClass, idSetter);
+    }
+
+    /**
+     * Drop the document from the shared tier and from every instance's local cache
+     */
+    public Mono<Void> evict(String collectionName, String id) {
+        if (id == null) {
+            return Mono.empty();
+        }
+        // Local eviction goes last so a concurrent local miss cannot refill it from Redis
+        Mono<Void> shared = redisCache != null ? redisCache.evict(collectionName, id) : Mono.empty();
+        return shared.then(Mono.fromRunnable(() -> evictLocal(collectionName, id)));
+    }
+
+    public Mono<Void> evictAll(String collectionName, Collection<String> ids) {
+        return Flux.fromIterable(ids)
+                   .flatMap(id -> evict(collectionName, id))
+                   .then();
+    }
+
+    /**
+     * Evict the document once the write terminates, before downstream operators see the result,
+     * so a read chained after the write never serves the old version
+     */
+    public <T> Mono<T> evictAfter(String collectionName, String id, Mono<T> write) {
+        Mono<Void> eviction = Mono.defer(() -> evict(collectionName, id));
+        return write.onErrorResume(e -> eviction.then(Mono.error(e)))
+                    .flatMap(result -> eviction.thenReturn(result))
+                    .switchIfEmpty(eviction.then(Mono.empty()));
+    }
+
+    private Mono<CachedDocument> load(String collectionName, String id, Supplier<Mono<DocumentSnapshot>> loader) {
+        if (redisCache == null) {
+            return loader.get().map(CachedDocument::of);
+        }
+        return redisCache.get(collectionName, id)
+                         .switchIfEmpty(Mono.defer(() -> loader.get()
+                                                               .map(CachedDocument::of)
+                                                               .flatMap(doc -> redisCache.put(collectionName, id, doc)
+                                                                                         .thenReturn(doc))));
+    }
+
+    private Mono<Map<String, CachedDocument>> loadAll(String collectionName, List<String> ids,
+                                                        Function<List<String>, Mono<List<DocumentSnapshot>>> loader) {
+        if (redisCache == null) {
+            return loader.apply(ids).map(DocumentCache::byId);
+        }
+        return Flux.fromIterable(ids)
+                   .flatMap(id -> redisCache.get(collectionName, id))
+                   .collectMap(CachedDocument::id)
+                   .flatMap(shared -> {
+                       List<String> misses = ids.stream().filter(id -> !shared.containsKey(id)).toList();
+                       if (misses.isEmpty()) {
+                           return Mono.just(shared);
+                       }
+                       return loader.apply(misses)
+                                    .flatMapIterable(docs -> docs)
+                                    .map(CachedDocument::of)
+                                    .concatMap(doc -> redisCache.put(collectionName, doc.id(), doc).thenReturn(doc))
+                                    .collectMap(CachedDocument::id)
+                                    .map(loaded -> {
+                                        Map<String, CachedDocument> all = new HashMap<>(shared);
+                                        all.putAll(loaded);
+                                        return all;
+                                    });
+                   });
+    }
+
+    private static Map<String, CachedDocument> byId(List<DocumentSnapshot> docs) {
+        Map<String, CachedDocument> byId = new HashMap<>(docs.size() * 2);
+        docs.forEach(doc -> byId.put(doc.getId(), CachedDocument.of(doc)));
+        return byId;
+    }
+
+    private void evictLocal(String collectionName, String id) {
+        AsyncCache<String, CachedDocument> cache = caches.get(collectionName);
+        if (cache != null) {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    private AsyncCache<String, CachedDocument> cacheFor(String collectionName) {
+        return caches.computeIfAbsent(collectionName, name -> {
+            AsyncCache<String, CachedDocument> cache = Caffeine.newBuilder()
+                                                                 .maximumSize(properties.getMaximumSize())
+                                                                 .expireAfterWrite(properties.expireAfterWrite(name))
+                                                                 .recordStats()
+                                                                 .buildAsync();
+            log.debug("Created document cache for collection {}", name);
+            return CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        });
+    }
+}
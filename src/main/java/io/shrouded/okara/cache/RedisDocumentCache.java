@@ -0,0 +1,133 @@
+package io.shrouded.okara.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.shrouded.okara.config.RedisDocumentCacheProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Shared second-level document cache in Redis, consulted by DocumentCache on a local miss.
+ * <p>
+ * Eviction replaces the entry with a short-lived tombstone and puts only succeed on absent keys,
+ * so a read that loaded the old version before a write cannot re-cache it. Every eviction is also
+ * broadcast on the invalidation channel, and each instance drops the document from its local cache.
+ * Redis failures are logged and treated as misses; Firestore stays the source of truth.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cache.documents.redis", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisDocumentCache {
+
+    private static final byte[] TOMBSTONE = new byte[0];
+    private static final String SEPARATOR = "\n";
+
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final CachedDocumentCodec codec;
+    private final RedisDocumentCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private ReactiveRedisTemplate<String, byte[]> documents;
+    private ReactiveStringRedisTemplate messages;
+    private Counter hits;
+    private Counter misses;
+    private Counter errors;
+
+    public record Invalidation(String collectionName, String id) {
+    }
+
+    @PostConstruct
+    public void start() {
+        documents = new ReactiveRedisTemplate<>(connectionFactory,
+                RedisSerializationContext.<String, byte[]>newSerializationContext(RedisSerializer.string())
+                                         .value(RedisSerializer.byteArray())
+                                         .build());
+        messages = new ReactiveStringRedisTemplate(connectionFactory);
+        hits = meterRegistry.counter("okara.cache.redis.gets", "result", "hit");
+        misses = meterRegistry.counter("okara.cache.redis.gets", "result", "miss");
+        errors = meterRegistry.counter("okara.cache.redis.errors");
+    }
+
+    public Mono<CachedDocument> get(String collectionName, String id) {
+        return documents.opsForValue()
+                        .get(key(collectionName, id))
+                        .filter(bytes -> bytes.length > 0)
+                        .map(codec::decode)
+                        .doOnNext(doc -> hits.increment())
+                        .switchIfEmpty(Mono.fromRunnable(misses::increment))
+                        .onErrorResume(e -> {
+                            errors.increment();
+                            log.warn("Failed to read {}/{} from Redis: {}", collectionName, id, e.getMessage());
+                            return Mono.empty();
+                        });
+    }
+
+    public Mono<Void> put(String collectionName, String id, CachedDocument document) {
+        return Mono.fromCallable(() -> codec.encode(document))
+                   .flatMap(bytes -> documents.opsForValue()
+                                              .setIfAbsent(key(collectionName, id), bytes, properties.ttl(collectionName)))
+                   .then()
+                   .onErrorResume(e -> {
+                       errors.increment();
+                       log.warn("Failed to cache {}/{} in Redis: {}", collectionName, id, e.getMessage());
+                       return Mono.empty();
+                   });
+    }
+
+    /**
+     * Tombstone the shared entry and tell every other instance to drop its local copy
+     */
+    public Mono<Void> evict(String collectionName, String id) {
+        return documents.opsForValue()
+                        .set(key(collectionName, id), TOMBSTONE, properties.getTombstoneTtl())
+                        .then(messages.convertAndSend(properties.getInvalidationChannel(),
+                                                      String.join(SEPARATOR, instanceId, collectionName, id)))
+                        .then()
+                        .onErrorResume(e -> {
+                            errors.increment();
+                            log.warn("Failed to evict {}/{} from Redis: {}", collectionName, id, e.getMessage());
+                            return Mono.empty();
+                        });
+    }
+
+    /**
+     * Invalidations broadcast by other instances
+     */
+    public Flux<Invalidation> invalidations() {
+        return messages.listenToChannel(properties.getInvalidationChannel())
+                       .map(ReactiveSubscription.Message::getMessage)
+                       .mapNotNull(this::parseInvalidation);
+    }
+
+    private Invalidation parseInvalidation(String message) {
+        String[] parts = message.split(SEPARATOR, 3);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed cache invalidation: {}", message);
+            return null;
+        }
+        if (instanceId.equals(parts[0])) {
+            return null;
+        }
+        return new Invalidation(parts[1], parts[2]);
+    }
+
+    private String key(String collectionName, String id) {
+        return properties.getKeyPrefix() + collectionName + ":" + id;
+    }
+}
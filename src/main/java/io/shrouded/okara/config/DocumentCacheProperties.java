@@ -0,0 +1,41 @@
+package io.shrouded.okara.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.documents")
+public class DocumentCacheProperties {
+
+    /**
+     * Set to false to read every document straight from Firestore
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of documents kept per collection
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a cached document is served before it is read again; bounds staleness from
+     * writes made by other instances. Cached reads must not be written back whole; updates apply
+     * their fields to the stored document instead, in a transaction when they depend on it
+     */
+    private Duration expireAfterWrite = Duration.ofSeconds(30);
+
+    /**
+     * Per-collection overrides of expireAfterWrite, keyed by collection name
+     */
+    private Map<String, Duration> collectionExpireAfterWrite = new HashMap<>();
+
+    public Duration expireAfterWrite(String collectionName) {
+        return collectionExpireAfterWrite.getOrDefault(collectionName, expireAfterWrite);
+    }
+}
@@ -0,0 +1,39 @@
+package io.shrouded.okara.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "feed.counters")
+public class FeedCounterProperties {
+
+    /**
+     * Number of counter shards a hot post spreads its increments over
+     */
+    private int shards = 10;
+
+    /**
+     * Counter writes to one post within a hot window after which further writes go to shards
+     */
+    private int hotThreshold = 20;
+
+    /**
+     * Window over which counter writes per post are counted to detect hot posts
+     */
+    private Duration hotWindow = Duration.ofSeconds(10);
+
+    /**
+     * How often sharded counters are rolled up into the post's display fields
+     */
+    private Duration rollupInterval = Duration.ofSeconds(5);
+
+    /**
+     * How often shards flagged as dirty by any instance are swept and rolled up; catches
+     * increments whose instance stopped before rolling them up
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+}
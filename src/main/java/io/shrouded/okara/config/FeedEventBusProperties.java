@@ -0,0 +1,34 @@
+package io.shrouded.okara.config;
+
+import io.shrouded.okara.enums.FeedEventEncoding;
+import io.shrouded.okara.enums.FeedEventTransportType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "feed.events")
+public class FeedEventBusProperties {
+
+    /**
+     * How feed events reach the fanout consumer: PUBSUB, or MEMORY to keep them inside this JVM.
+     * With MEMORY, spring.cloud.gcp.pubsub.enabled can be set to false.
+     */
+    private FeedEventTransportType transport = FeedEventTransportType.PUBSUB;
+
+    /**
+     * Events waiting for an in-memory consumer before senders are held back
+     */
+    private int memoryQueueCapacity = 10_000;
+
+    /**
+     * Events processed at once by the in-memory transport
+     */
+    private int memoryConsumers = 16;
+
+    /**
+     * Format new events are written in; JSON keeps them readable by instances that predate BINARY
+     */
+    private FeedEventEncoding encoding = FeedEventEncoding.BINARY;
+}
@@ -0,0 +1,27 @@
+package io.shrouded.okara.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "feed.fanout")
+public class FeedFanoutProperties {
+
+    /**
+     * Number of members whose feed items are written in one bulk commit during fanout
+     */
+    private int writeBatchSize = 200;
+
+    /**
+     * Chatrooms with at least this many participants are not fanned out; members pull their
+     * recent posts when reading their feed instead
+     */
+    private int pullThreshold = 1000;
+
+    /**
+     * Maximum number of pulled chatrooms merged into one feed read
+     */
+    private int maxPulledChatrooms = 20;
+}
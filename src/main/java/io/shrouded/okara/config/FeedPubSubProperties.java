@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "feed.pubsub")
@@ -18,4 +20,69 @@ public class FeedPubSubProperties {
      * The Pub/Sub subscription name for feed fanout processing
      */
     private String subscription = "feed-fanout-subscription";
-}
\ No newline at end of file
+
+    /**
+     * Serial lanes for consumed events; events with the same post or target user share a lane
+     */
+    private int consumerLanes = 16;
+
+    /**
+     * Messages the subscriber holds unacknowledged before it stops pulling
+     */
+    private long maxOutstandingMessages = 1000;
+
+    /**
+     * Payload bytes the subscriber holds unacknowledged before it stops pulling
+     */
+    private long maxOutstandingBytes = 100L * 1024 * 1024;
+
+    /**
+     * Events waiting in memory to be published; when full, events wait in the outbox for the sweeper
+     */
+    private int publishQueueCapacity = 10_000;
+
+    /**
+     * Publishes awaiting a Pub/Sub response at once
+     */
+    private int maxInFlightPublishes = 64;
+
+    /**
+     * Messages collected into one publish request
+     */
+    private long publishBatchMaxMessages = 100;
+
+    /**
+     * Payload bytes collected into one publish request
+     */
+    private long publishBatchMaxBytes = 1_000_000;
+
+    /**
+     * Seconds a publish request waits to fill up before it is sent
+     */
+    private long publishBatchDelaySeconds = 1;
+
+    /**
+     * How often the outbox is swept for events that were never published
+     */
+    private Duration outboxSweepInterval = Duration.ofSeconds(30);
+
+    /**
+     * Age after which an outbox event is considered lost and published by the sweeper
+     */
+    private Duration outboxSweepAge = Duration.ofMinutes(1);
+
+    /**
+     * Outbox events republished per sweep
+     */
+    private int outboxSweepBatchSize = 100;
+
+    /**
+     * How long processed event IDs are remembered; should cover the subscription's message retention
+     */
+    private Duration processedEventTtl = Duration.ofDays(7);
+
+    /**
+     * Processed event IDs remembered in memory in front of the processed event store
+     */
+    private long processedEventCacheSize = 100_000;
+}
@@ -0,0 +1,23 @@
+package io.shrouded.okara.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "feed.ranking")
+public class FeedRankingProperties {
+
+    /**
+     * How often posts whose engagement changed get their stored hot score recomputed
+     */
+    private Duration recomputeInterval = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of posts read and updated per recompute batch
+     */
+    private int recomputeBatchSize = 100;
+}
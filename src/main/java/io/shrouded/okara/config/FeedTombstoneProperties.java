@@ -0,0 +1,43 @@
+package io.shrouded.okara.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "feed.tombstones")
+public class FeedTombstoneProperties {
+
+    /**
+     * Number of deleted posts the in-memory filter is sized for
+     */
+    private long expectedDeletions = 1_000_000;
+
+    /**
+     * Share of live posts the filter wrongly reports as possibly deleted; those are confirmed against the store
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * How long a tombstone is kept; feed items expire after 30 days, so older tombstones match nothing
+     */
+    private Duration ttl = Duration.ofDays(30);
+
+    /**
+     * How often tombstones written by other instances are loaded into the filter
+     */
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    /**
+     * How often the filter is rebuilt from the store so expired tombstones drop out of it
+     */
+    private Duration rebuildInterval = Duration.ofHours(6);
+
+    /**
+     * Users whose deleted feed items are remembered until their feed is next written
+     */
+    private long maxPendingRemovalUsers = 10_000;
+}
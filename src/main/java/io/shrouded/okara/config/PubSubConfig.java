@@ -3,33 +3,30 @@ package io.shrouded.okara.config;
 import com.google.cloud.spring.pubsub.core.PubSubTemplate;
 import com.google.cloud.spring.pubsub.integration.AckMode;
 import com.google.cloud.spring.pubsub.integration.inbound.PubSubInboundChannelAdapter;
-import com.google.cloud.spring.pubsub.integration.outbound.PubSubMessageHandler;
 import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
 import com.google.cloud.spring.pubsub.support.GcpPubSubHeaders;
-import io.shrouded.okara.service.FeedFanoutService;
+import io.shrouded.okara.service.FeedEventConsumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
 
 @Configuration
+@ConditionalOnProperty(prefix = "feed.events", name = "transport", havingValue = "pubsub", matchIfMissing = true)
+@PropertySource("classpath:pubsub-defaults.properties")
 @RequiredArgsConstructor
 @Slf4j
 public class PubSubConfig {
 
     private final FeedPubSubProperties pubSubProperties;
-    private final FeedFanoutService feedFanoutService;
-
-    // Output channel for publishing feed events
-    @Bean(name = "feedEventsOutputChannel")
-    public MessageChannel feedEventsOutputChannel() {
-        return new DirectChannel();
-    }
+    private final FeedEventConsumer feedEventConsumer;
 
     // Input channel for receiving feed events
     @Bean(name = "feedEventsInputChannel")
@@ -37,19 +34,6 @@ public class PubSubConfig {
         return new DirectChannel();
     }
 
-    // Outbound message handler for publishing to Pub/Sub
-    @Bean
-    @ServiceActivator(inputChannel = "feedEventsOutputChannel")
-    public MessageHandler messageSender(PubSubTemplate pubsubTemplate) {
-        log.info("Configuring Pub/Sub message sender for topic: {}", pubSubProperties.getTopic());
-        PubSubMessageHandler handler = new PubSubMessageHandler(pubsubTemplate, pubSubProperties.getTopic());
-        handler.setSuccessCallback((ackId, message) ->
-                                           log.debug("Feed event published successfully: {}", ackId));
-        handler.setFailureCallback((cause, message) ->
-                                           log.error("Failed to publish feed event: {}", cause.getMessage()));
-        return handler;
-    }
-
     // Inbound channel adapter for receiving from Pub/Sub
     @Bean
     public PubSubInboundChannelAdapter messageChannelAdapter(
@@ -61,7 +45,7 @@ public class PubSubConfig {
                 pubSubTemplate, pubSubProperties.getSubscription());
         adapter.setOutputChannel(inputChannel);
         adapter.setAckMode(AckMode.MANUAL);
-        adapter.setPayloadType(String.class);
+        adapter.setPayloadType(byte[].class);
         return adapter;
     }
 
@@ -70,16 +54,16 @@ public class PubSubConfig {
     @ServiceActivator(inputChannel = "feedEventsInputChannel")
     public MessageHandler feedEventReceiver() {
         return message -> {
-            String payload = (String) message.getPayload();
+            byte[] payload = (byte[]) message.getPayload();
             BasicAcknowledgeablePubsubMessage originalMessage =
                     message.getHeaders().get(GcpPubSubHeaders.ORIGINAL_MESSAGE,
                                              BasicAcknowledgeablePubsubMessage.class);
 
             try {
-                // Process the feed event using FeedFanoutService
-                log.debug("Processing feed event: {}", payload);
+                // Hand the event to its key's lane; the message stays outstanding until it is processed
+                log.debug("Processing feed event of {} bytes", payload.length);
 
-                feedFanoutService.processFeedEvent(payload)
+                feedEventConsumer.consume(payload)
                                  .doOnSuccess(v -> {
                                      log.debug("Feed event processed successfully");
                                      // Acknowledge the message after successful processing
@@ -94,7 +78,7 @@ public class PubSubConfig {
                                          originalMessage.nack();
                                      }
                                  })
-                                 .subscribe();
+                                 .subscribe(v -> { }, error -> { });
 
             } catch (Exception e) {
                 log.error("Error processing feed event: {}", e.getMessage(), e);
@@ -0,0 +1,53 @@
+package io.shrouded.okara.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.documents.redis")
+public class RedisDocumentCacheProperties {
+
+    /**
+     * Enables the shared Redis tier behind the in-process document cache
+     */
+    private boolean enabled = false;
+
+    /**
+     * Prefix of the Redis keys holding cached documents
+     */
+    private String keyPrefix = "okara:doc:";
+
+    /**
+     * Pub/sub channel on which writes broadcast document invalidations to every instance
+     */
+    private String invalidationChannel = "okara:doc-invalidations";
+
+    /**
+     * Time to live of documents in Redis when the collection has no entry in collectionTtl
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * Time to live per collection, keyed by collection name
+     */
+    private Map<String, Duration> collectionTtl = new HashMap<>(Map.of(
+            "feeds", Duration.ofMinutes(2),
+            "users", Duration.ofMinutes(10),
+            "chatrooms", Duration.ofMinutes(30)));
+
+    /**
+     * How long an evicted document stays blocked from being cached again, so a read that
+     * started before the write cannot put the old version back
+     */
+    private Duration tombstoneTtl = Duration.ofSeconds(5);
+
+    public Duration ttl(String collectionName) {
+        return collectionTtl.getOrDefault(collectionName, ttl);
+    }
+}
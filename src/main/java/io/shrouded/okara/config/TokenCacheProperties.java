@@ -0,0 +1,28 @@
+package io.shrouded.okara.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.token-cache")
+public class TokenCacheProperties {
+
+    /**
+     * Set to false to verify the signature of every request's ID token
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of verified tokens kept
+     */
+    private long maximumSize = 50_000;
+
+    /**
+     * Verified tokens are dropped this long before their exp claim
+     */
+    private Duration expiryMargin = Duration.ofSeconds(30);
+}
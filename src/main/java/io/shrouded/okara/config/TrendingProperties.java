@@ -0,0 +1,71 @@
+package io.shrouded.okara.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "feed.trending")
+public class TrendingProperties {
+
+    /**
+     * Period hashtag uses are counted over
+     */
+    private Duration window = Duration.ofHours(1);
+
+    /**
+     * Granularity the window slides by; each bucket is counted in its own sketch
+     */
+    private Duration bucketDuration = Duration.ofMinutes(5);
+
+    /**
+     * Most hashtags served per ranking
+     */
+    private int topK = 20;
+
+    /**
+     * Hashtags tracked per ranking; more than topK so tags just below the cut can overtake
+     */
+    private int candidatesPerScope = 50;
+
+    /**
+     * Rows of each count-min sketch; more rows make large overcounts less likely
+     */
+    private int sketchDepth = 4;
+
+    /**
+     * Counters per sketch row; overcounts stay below about 2 * uses in the window / width, and
+     * hashtags ranked from the sketch that are estimated at no more than uses in the window / width
+     * are left out
+     */
+    private int sketchWidth = 2048;
+
+    /**
+     * Distinct hashtags of a chatroom counted exactly per bucket; busier chatrooms are ranked from
+     * the sketch while that bucket is in the window
+     */
+    private int exactHashtagsPerChatroom = 100;
+
+    /**
+     * Exact chatroom counts kept per bucket across all chatrooms, bounding memory and checkpoint size
+     */
+    private int exactCountsPerBucket = 5_000;
+
+    /**
+     * Chatrooms that get their own ranking; uses in further chatrooms still count globally
+     */
+    private int maxChatrooms = 10_000;
+
+    /**
+     * How often the window slides and the served rankings are rebuilt
+     */
+    private Duration refreshInterval = Duration.ofSeconds(10);
+
+    /**
+     * How often this instance checkpoints its counts and loads those of other instances
+     */
+    private Duration checkpointInterval = Duration.ofSeconds(30);
+}
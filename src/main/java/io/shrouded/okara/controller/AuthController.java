@@ -1,10 +1,13 @@
 package io.shrouded.okara.controller;
 
+import io.shrouded.okara.dto.common.CursorPage;
+import io.shrouded.okara.dto.user.FollowListResponse;
 import io.shrouded.okara.dto.user.LoginRequest;
 import io.shrouded.okara.dto.user.UserDto;
 import io.shrouded.okara.dto.user.MergeAccountsRequest;
 import io.shrouded.okara.exception.OkaraException;
 import io.shrouded.okara.mapper.UserMapper;
+import io.shrouded.okara.model.User;
 import io.shrouded.okara.service.CurrentUserService;
 import io.shrouded.okara.service.UserService;
 import io.shrouded.okara.service.UserDeleteService;
@@ -19,6 +22,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
@@ -118,9 +122,9 @@ public class AuthController {
     public Mono<UserDto> followUser(
             @Parameter(description = "ID of the user to follow", required = true)
             @PathVariable String userId) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser -> userService.followUser(
-                                                                            currentUser.getId(),
+        return currentUserService.getCurrentUserIdEnsuringUser()
+                                 .flatMap(currentUserId -> userService.followUser(
+                                                                            currentUserId,
                                                                             userId)
                                                                     .map(userMapper::toUserDto));
     }
@@ -139,13 +143,68 @@ public class AuthController {
     public Mono<UserDto> unfollowUser(
             @Parameter(description = "ID of the user to unfollow", required = true)
             @PathVariable String userId) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser -> userService.unfollowUser(
-                                                                            currentUser.getId(),
+        return currentUserService.getCurrentUserIdEnsuringUser()
+                                 .flatMap(currentUserId -> userService.unfollowUser(
+                                                                            currentUserId,
                                                                             userId)
                                                                     .map(userMapper::toUserDto));
     }
 
+    @GetMapping("/follow/{userId}")
+    @Operation(summary = "Check follow", description = "Whether the authenticated user follows the given user")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Follow state retrieved successfully"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized",
+                content = @Content)
+    })
+    public Mono<Boolean> isFollowing(
+            @Parameter(description = "ID of the other user", required = true)
+            @PathVariable String userId) {
+        return currentUserService.getCurrentUserId()
+                                 .flatMap(currentUserId -> userService.isFollowing(currentUserId, userId));
+    }
+
+    @GetMapping("/users/{userId}/followers")
+    @Operation(summary = "Get followers", description = "Lists the users following a user, most recent first")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Followers retrieved successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = FollowListResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized",
+                content = @Content)
+    })
+    public Mono<FollowListResponse> getFollowers(
+            @Parameter(description = "ID of the user", required = true)
+            @PathVariable String userId,
+            @Parameter(description = "Maximum number of users to return", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Cursor for pagination")
+            @RequestParam(required = false) String cursor) {
+        return userService.getFollowers(userId, limit, cursor)
+                          .map(this::toFollowListResponse);
+    }
+
+    @GetMapping("/users/{userId}/following")
+    @Operation(summary = "Get following", description = "Lists the users a user follows, most recent first")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Followed users retrieved successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = FollowListResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized",
+                content = @Content)
+    })
+    public Mono<FollowListResponse> getFollowing(
+            @Parameter(description = "ID of the user", required = true)
+            @PathVariable String userId,
+            @Parameter(description = "Maximum number of users to return", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Cursor for pagination")
+            @RequestParam(required = false) String cursor) {
+        return userService.getFollowing(userId, limit, cursor)
+                          .map(this::toFollowListResponse);
+    }
+
     @PutMapping("/profile")
     @Operation(summary = "Update user profile", description = "Update the authenticated user's profile information")
     @SecurityRequirement(name = "bearerAuth")
@@ -160,9 +219,9 @@ public class AuthController {
     public Mono<UserDto> updateProfile(
             @Parameter(description = "Profile data to update", required = true)
             @RequestBody Map<String, String> profileData) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser -> userService.updateProfile(
-                                                                            currentUser.getId(),
+        return currentUserService.getCurrentUserIdEnsuringUser()
+                                 .flatMap(currentUserId -> userService.updateProfile(
+                                                                            currentUserId,
                                                                             profileData.get("displayName"),
                                                                             profileData.get("bio"),
                                                                             profileData.get("location"),
@@ -214,4 +273,8 @@ public class AuthController {
                               return OkaraException.badRequest("Account merge failed: " + e.getMessage());
                           });
     }
-}
\ No newline at end of file
+
+    private FollowListResponse toFollowListResponse(CursorPage<User> page) {
+        return FollowListResponse.of(page.items().stream().map(userMapper::toUserDto).toList(), page.nextCursor());
+    }
+}
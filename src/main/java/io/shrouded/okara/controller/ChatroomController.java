@@ -49,8 +49,8 @@ public class ChatroomController {
         
         log.info("🏠 GET CHATROOMS ENDPOINT HIT! limit={}, cursor={}", limit, cursor);
         
-        return currentUserService.getCurrentUser()
-                .flatMap(user -> chatroomService.getUserChatrooms(user.getId(), limit, cursor))
+        return currentUserService.getCurrentUserIdEnsuringUser()
+                .flatMap(currentUserId -> chatroomService.getUserChatrooms(currentUserId, limit, cursor))
                 .doOnSuccess(response -> log.info("🏠 Successfully retrieved {} chatrooms", 
                         response.chatrooms().size()));
     }
@@ -70,8 +70,8 @@ public class ChatroomController {
             @RequestBody CreateChatroomRequest request) {
         log.info("🏠 CREATE CHATROOM ENDPOINT HIT! name={}, type={}", request.name(), request.type());
         
-        return currentUserService.getCurrentUser()
-                .flatMap(user -> chatroomService.createChatroom(user.getId(), request))
+        return currentUserService.getCurrentUserIdEnsuringUser()
+                .flatMap(currentUserId -> chatroomService.createChatroom(currentUserId, request))
                 .doOnSuccess(chatroom -> log.info("🏠 Successfully created chatroom: {}", chatroom.name()));
     }
 
@@ -111,8 +111,8 @@ public class ChatroomController {
             @PathVariable String chatroomId) {
         log.info("🏠 JOIN CHATROOM ENDPOINT HIT! chatroomId={}", chatroomId);
         
-        return currentUserService.getCurrentUser()
-                .flatMap(user -> chatroomService.joinChatroom(user.getId(), chatroomId))
+        return currentUserService.getCurrentUserIdEnsuringUser()
+                .flatMap(currentUserId -> chatroomService.joinChatroom(currentUserId, chatroomId))
                 .doOnSuccess(chatroom -> log.info("🏠 Successfully joined chatroom: {}", chatroom.name()));
     }
 
@@ -130,8 +130,8 @@ public class ChatroomController {
             @PathVariable String chatroomId) {
         log.info("🏠 LEAVE CHATROOM ENDPOINT HIT! chatroomId={}", chatroomId);
         
-        return currentUserService.getCurrentUser()
-                .flatMap(user -> chatroomService.leaveChatroom(user.getId(), chatroomId))
+        return currentUserService.getCurrentUserIdEnsuringUser()
+                .flatMap(currentUserId -> chatroomService.leaveChatroom(currentUserId, chatroomId))
                 .doOnSuccess(v -> log.info("🏠 Successfully left chatroom: {}", chatroomId));
     }
 
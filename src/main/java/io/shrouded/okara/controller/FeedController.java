@@ -1,15 +1,20 @@
 package io.shrouded.okara.controller;
 
+import io.shrouded.okara.dto.common.CursorPage;
 import io.shrouded.okara.dto.feed.CreateCommentRequest;
 import io.shrouded.okara.dto.feed.CreatePostRequest;
 import io.shrouded.okara.dto.feed.CrossPostRequest;
 import io.shrouded.okara.dto.feed.FeedDto;
+import io.shrouded.okara.dto.feed.FeedPageResponse;
 import io.shrouded.okara.dto.feed.QuoteRetweetRequest;
+import io.shrouded.okara.enums.ReactionType;
 import io.shrouded.okara.exception.OkaraException;
 import io.shrouded.okara.mapper.FeedMapper;
+import io.shrouded.okara.model.Feed;
 import io.shrouded.okara.service.CurrentUserService;
 import io.shrouded.okara.service.FeedService;
 import io.shrouded.okara.service.PersonalFeedService;
+import io.shrouded.okara.service.PostReactionService;
 import io.shrouded.okara.service.ChatroomService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,7 +38,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
-import java.util.Collections;
 import java.util.List;
 
 @RestController
@@ -49,6 +53,7 @@ public class FeedController {
     private final PersonalFeedService personalFeedService;
     private final FeedMapper feedMapper;
     private final ChatroomService chatroomService;
+    private final PostReactionService postReactionService;
 
     @PostMapping("/post")
     @Operation(summary = "Create post", description = "Creates a new post in the feed with optional media attachments")
@@ -63,11 +68,11 @@ public class FeedController {
     public Mono<FeedDto> createPost(
             @Parameter(description = "Post creation request", required = true)
             @Valid @RequestBody CreatePostRequest request) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser -> {
+        return currentUserService.getCurrentUserIdEnsuringUser()
+                                 .flatMap(currentUserId -> {
                                      // Validate that all chatrooms exist
                                      return chatroomService.validateChatroomsExist(request.chatroomIds())
-                                             .then(feedService.createPost(currentUser.getId(),
+                                             .then(feedService.createPost(currentUserId,
                                                                           request.content(),
                                                                           request.imageUrls(),
                                                                           request.videoUrl(),
@@ -93,11 +98,11 @@ public class FeedController {
             @PathVariable String postId,
             @Parameter(description = "Cross-post request with chatroom IDs", required = true)
             @Valid @RequestBody CrossPostRequest request) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser -> {
+        return currentUserService.getCurrentUserId()
+                                 .flatMap(currentUserId -> {
                                      // Validate that all chatrooms exist
                                      return chatroomService.validateChatroomsExist(request.chatroomIds())
-                                             .then(feedService.crossPost(currentUser.getId(),
+                                             .then(feedService.crossPost(currentUserId,
                                                                          postId,
                                                                          request.chatroomIds()))
                                              .map(feedMapper::toFeedDto);
@@ -121,9 +126,9 @@ public class FeedController {
             @PathVariable String postId,
             @Parameter(description = "Comment creation request", required = true)
             @RequestBody CreateCommentRequest request) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser ->
-                                                  feedService.createComment(currentUser.getId(),
+        return currentUserService.getCurrentUserIdEnsuringUser()
+                                 .flatMap(currentUserId ->
+                                                  feedService.createComment(currentUserId,
                                                                             postId,
                                                                             request.content())
                                                              .map(feedMapper::toFeedDto)
@@ -143,10 +148,10 @@ public class FeedController {
     public Mono<FeedDto> likePost(
             @Parameter(description = "ID of the post to like", required = true)
             @PathVariable String postId) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser ->
-                                                  feedService.likePost(currentUser.getId(), postId)
-                                                             .map(feedMapper::toFeedDto)
+        return currentUserService.getCurrentUserId()
+                                 .flatMap(currentUserId ->
+                                                  feedService.likePost(currentUserId, postId)
+                                                             .map(post -> feedMapper.toFeedDto(post, ReactionType.LIKE))
                                  );
     }
 
@@ -163,10 +168,10 @@ public class FeedController {
     public Mono<FeedDto> dislikePost(
             @Parameter(description = "ID of the post to dislike", required = true)
             @PathVariable String postId) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser ->
-                                                  feedService.dislikePost(currentUser.getId(), postId)
-                                                             .map(feedMapper::toFeedDto)
+        return currentUserService.getCurrentUserId()
+                                 .flatMap(currentUserId ->
+                                                  feedService.dislikePost(currentUserId, postId)
+                                                             .map(post -> feedMapper.toFeedDto(post, ReactionType.DISLIKE))
                                  );
     }
 
@@ -183,9 +188,9 @@ public class FeedController {
     public Mono<FeedDto> retweet(
             @Parameter(description = "ID of the post to retweet", required = true)
             @PathVariable String postId) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser ->
-                                                  feedService.retweetPost(currentUser.getId(), postId)
+        return currentUserService.getCurrentUserId()
+                                 .flatMap(currentUserId ->
+                                                  feedService.retweetPost(currentUserId, postId)
                                                              .map(feedMapper::toFeedDto)
                                  );
     }
@@ -205,9 +210,9 @@ public class FeedController {
             @PathVariable String postId,
             @Parameter(description = "Quote retweet request with comment", required = true)
             @RequestBody QuoteRetweetRequest request) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser ->
-                                                  feedService.quoteRetweet(currentUser.getId(),
+        return currentUserService.getCurrentUserIdEnsuringUser()
+                                 .flatMap(currentUserId ->
+                                                  feedService.quoteRetweet(currentUserId,
                                                                            postId,
                                                                            request.comment())
                                                              .map(feedMapper::toFeedDto)
@@ -218,34 +223,29 @@ public class FeedController {
     @Operation(summary = "Get main feed", description = "Retrieves the user's main feed with posts from followed users and joined chatrooms")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Feed retrieved successfully",
-                content = @Content(mediaType = "application/json", schema = @Schema(type = "array", implementation = FeedDto.class))),
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = FeedPageResponse.class))),
         @ApiResponse(responseCode = "401", description = "Unauthorized",
                 content = @Content)
     })
-    public Mono<List<FeedDto>> getMainFeed(
+    public Mono<FeedPageResponse> getMainFeed(
             @Parameter(description = "Maximum number of posts to return", example = "20")
             @RequestParam(defaultValue = "20") int limit,
-            @Parameter(description = "ID of the last post from previous page for pagination")
-            @RequestParam(required = false) String sinceId) {
-        log.info("🎯 Main feed request - limit: {}, sinceId: {}", limit, sinceId);
+            @Parameter(description = "nextCursor of the previous page for pagination")
+            @RequestParam(required = false) String cursor) {
+        log.info("🎯 Main feed request - limit: {}, cursor: {}", limit, cursor);
 
-        return currentUserService.getCurrentUser()
-                                 .doOnNext(user -> log.info("🎯 Got current user: {}", user.getId()))
-                                 .flatMap(currentUser -> {
+        return currentUserService.getCurrentUserId()
+                                 .doOnNext(currentUserId -> log.info("🎯 Got current user: {}", currentUserId))
+                                 .flatMap(currentUserId -> {
                                      // Get user's personal feed (simple chronological)
                                      log.info("🎯 Getting user's personal feed");
-                                     return personalFeedService.getPersonalFeed(currentUser.getId(), limit, sinceId)
-                                                               .doOnNext(feedItems -> log.info(
+                                     return personalFeedService.getPersonalFeed(currentUserId, limit, cursor)
+                                                               .doOnNext(page -> log.info(
                                                                        "🎯 Found {} items in personal feed",
-                                                                       feedItems.size()))
-                                                               .map(feedItems -> {
-                                                                   List<FeedDto> feedDtos = feedItems.stream()
-                                                                                                     .map(feedMapper::convertToFeed)
-                                                                                                     .map(feedMapper::toFeedDto)
-                                                                                                     .toList();
-                                                                   log.info("🎯 Converted to {} DTOs", feedDtos.size());
-                                                                   return feedDtos;
-                                                               });
+                                                                       page.items().size()))
+                                                               .flatMap(page -> toFeedPage(currentUserId, page))
+                                                               .doOnNext(response -> log.info("🎯 Converted to {} DTOs",
+                                                                                              response.posts().size()));
                                  })
                                  .doOnError(e -> log.error("🎯 Error in main feed chain: {}", e.getMessage(), e))
                                  .doFinally(signal -> log.info("🎯 Main feed request completed with signal: {}",
@@ -256,64 +256,84 @@ public class FeedController {
     @Operation(summary = "Get chatroom feed", description = "Retrieves posts from a specific chatroom")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Chatroom feed retrieved successfully",
-                content = @Content(mediaType = "application/json", schema = @Schema(type = "array", implementation = FeedDto.class))),
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = FeedPageResponse.class))),
         @ApiResponse(responseCode = "404", description = "Chatroom not found",
                 content = @Content),
         @ApiResponse(responseCode = "401", description = "Unauthorized",
                 content = @Content)
     })
-    public Mono<List<FeedDto>> getChatroomFeed(
+    public Mono<FeedPageResponse> getChatroomFeed(
             @Parameter(description = "ID of the chatroom", required = true)
             @PathVariable String chatroomId,
             @Parameter(description = "Maximum number of posts to return", example = "20")
             @RequestParam(defaultValue = "20") int limit,
-            @Parameter(description = "ID of the last post from previous page for pagination")
-            @RequestParam(required = false) String sinceId) {
-        log.info("🎯 Chatroom feed request - chatroomId: {}, limit: {}, sinceId: {}", chatroomId, limit, sinceId);
+            @Parameter(description = "nextCursor of the previous page for pagination")
+            @RequestParam(required = false) String cursor) {
+        log.info("🎯 Chatroom feed request - chatroomId: {}, limit: {}, cursor: {}", chatroomId, limit, cursor);
 
-        return feedService.getChatroomFeed(chatroomId, limit, sinceId)
-                          .doOnNext(feeds -> log.info("🎯 Found {} feeds in chatroom {}", feeds.size(), chatroomId))
-                          .map(feeds -> feeds.stream()
-                                             .map(feedMapper::toFeedDto)
-                                             .toList())
+        return feedService.getChatroomFeed(chatroomId, limit, cursor)
+                          .doOnNext(page -> log.info("🎯 Found {} feeds in chatroom {}", page.items().size(), chatroomId))
+                          .flatMap(this::toFeedPage)
                           .doOnError(e -> log.error("🎯 Error in chatroom feed chain: {}", e.getMessage(), e))
                           .doFinally(signal -> log.info("🎯 Chatroom feed request completed with signal: {}", signal));
     }
 
+    @GetMapping("/trending")
+    @Operation(summary = "Get trending feed", description = "Retrieves posts ranked by hot score, which weighs engagement against age")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trending feed retrieved successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = FeedPageResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized",
+                content = @Content)
+    })
+    public Mono<FeedPageResponse> getTrendingFeed(
+            @Parameter(description = "Maximum number of posts to return", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "nextCursor of the previous page for pagination")
+            @RequestParam(required = false) String cursor) {
+        return feedService.getTrending(limit, cursor)
+                          .flatMap(this::toFeedPage);
+    }
+
+    @GetMapping("/chatroom/{chatroomId}/top")
+    @Operation(summary = "Get top chatroom posts", description = "Retrieves posts from a specific chatroom ranked by hot score")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Top chatroom posts retrieved successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = FeedPageResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized",
+                content = @Content)
+    })
+    public Mono<FeedPageResponse> getChatroomTop(
+            @Parameter(description = "ID of the chatroom", required = true)
+            @PathVariable String chatroomId,
+            @Parameter(description = "Maximum number of posts to return", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "nextCursor of the previous page for pagination")
+            @RequestParam(required = false) String cursor) {
+        return feedService.getChatroomTop(chatroomId, limit, cursor)
+                          .flatMap(this::toFeedPage);
+    }
+
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get user feed", description = "Retrieves posts from a specific user's profile")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User feed retrieved successfully",
-                content = @Content(mediaType = "application/json", schema = @Schema(type = "array", implementation = FeedDto.class))),
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = FeedPageResponse.class))),
         @ApiResponse(responseCode = "404", description = "User not found",
                 content = @Content),
         @ApiResponse(responseCode = "401", description = "Unauthorized",
                 content = @Content)
     })
-    public Mono<List<FeedDto>> getUserFeed(
+    public Mono<FeedPageResponse> getUserFeed(
             @Parameter(description = "ID of the user", required = true)
             @PathVariable String userId,
-            @Parameter(description = "Page number for pagination", example = "0")
-            @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Number of posts per page", example = "20")
-            @RequestParam(defaultValue = "20") int size) {
-
-        return feedService.getUserFeed(userId)
-                          .collectList()
-                          .map(userFeed -> {
-                              // Apply pagination manually since we're using the old method
-                              int fromIndex = page * size;
-                              int toIndex = Math.min(fromIndex + size, userFeed.size());
-
-                              if (fromIndex >= userFeed.size()) {
-                                  return Collections.emptyList();
-                              }
+            @Parameter(description = "Maximum number of posts to return", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "nextCursor of the previous page for pagination")
+            @RequestParam(required = false) String cursor) {
 
-                              return userFeed.subList(fromIndex, toIndex)
-                                            .stream()
-                                            .map(feedMapper::toFeedDto)
-                                            .toList();
-                          });
+        return feedService.getUserFeed(userId, limit, cursor)
+                          .flatMap(this::toFeedPage);
     }
 
     @GetMapping("/{postId}")
@@ -330,28 +350,30 @@ public class FeedController {
             @Parameter(description = "ID of the post", required = true)
             @PathVariable String postId) {
         return feedService.findById(postId)
-                          .map(feedMapper::toFeedDto)
-                          .switchIfEmpty(Mono.error(OkaraException.notFound("post")));
+                          .switchIfEmpty(Mono.error(OkaraException.notFound("post")))
+                          .flatMap(post -> toFeedDtos(List.of(post)))
+                          .map(dtos -> dtos.get(0));
     }
 
     @GetMapping("/{postId}/comments")
-    @Operation(summary = "Get post comments", description = "Retrieves all comments for a specific post")
+    @Operation(summary = "Get post comments", description = "Retrieves comments for a specific post, oldest first")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Comments retrieved successfully",
-                content = @Content(mediaType = "application/json", schema = @Schema(type = "array", implementation = FeedDto.class))),
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = FeedPageResponse.class))),
         @ApiResponse(responseCode = "404", description = "Post not found",
                 content = @Content),
         @ApiResponse(responseCode = "401", description = "Unauthorized",
                 content = @Content)
     })
-    public Mono<List<FeedDto>> getComments(
+    public Mono<FeedPageResponse> getComments(
             @Parameter(description = "ID of the post", required = true)
-            @PathVariable String postId) {
-        return feedService.getComments(postId)
-                          .collectList()
-                          .map(comments -> comments.stream()
-                                                  .map(feedMapper::toFeedDto)
-                                                  .toList());
+            @PathVariable String postId,
+            @Parameter(description = "Maximum number of comments to return", example = "50")
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "nextCursor of the previous page for pagination")
+            @RequestParam(required = false) String cursor) {
+        return feedService.getComments(postId, limit, cursor)
+                          .flatMap(this::toFeedPage);
     }
 
     @DeleteMapping("/{postId}")
@@ -369,11 +391,38 @@ public class FeedController {
     public Mono<FeedDto> deletePost(
             @Parameter(description = "ID of the post to delete", required = true)
             @PathVariable String postId) {
-        return currentUserService.getCurrentUser()
-                                 .flatMap(currentUser ->
-                                                  feedService.deletePost(currentUser.getId(), postId)
+        return currentUserService.getCurrentUserId()
+                                 .flatMap(currentUserId ->
+                                                  feedService.deletePost(currentUserId, postId)
                                                              .map(feedMapper::toFeedDto)
                                  );
     }
 
-}
\ No newline at end of file
+    /**
+     * Map a page of posts to DTOs carrying the current user's reaction, keeping its cursor
+     */
+    private Mono<FeedPageResponse> toFeedPage(CursorPage<Feed> page) {
+        return currentUserService.getCurrentUserId()
+                                 .flatMap(viewerId -> toFeedPage(viewerId, page));
+    }
+
+    private Mono<FeedPageResponse> toFeedPage(String viewerId, CursorPage<Feed> page) {
+        return toFeedDtos(viewerId, page.items())
+                .map(dtos -> FeedPageResponse.of(dtos, page.nextCursor()));
+    }
+
+    /**
+     * Map posts to DTOs carrying the current user's reaction, looked up in one batch
+     */
+    private Mono<List<FeedDto>> toFeedDtos(List<Feed> posts) {
+        return currentUserService.getCurrentUserId()
+                                 .flatMap(viewerId -> toFeedDtos(viewerId, posts));
+    }
+
+    private Mono<List<FeedDto>> toFeedDtos(String viewerId, List<Feed> posts) {
+        return postReactionService.findViewerReactions(viewerId, posts.stream().map(Feed::getId).toList())
+                                  .map(reactions -> posts.stream()
+                                                         .map(post -> feedMapper.toFeedDto(post, reactions.get(post.getId())))
+                                                         .toList());
+    }
+}
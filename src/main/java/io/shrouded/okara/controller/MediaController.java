@@ -48,9 +48,9 @@ public class MediaController {
             @RequestPart("file") FilePart filePart) {
         log.info("Received file upload request: {}", filePart.filename());
         
-        return currentUserService.getCurrentUser()
-                .doOnNext(user -> log.info("User {} uploading file: {}", user.getId(), filePart.filename()))
-                .flatMap(user -> cloudStorageService.uploadFile(filePart))
+        return currentUserService.getCurrentUserId()
+                .doOnNext(currentUserId -> log.info("User {} uploading file: {}", currentUserId, filePart.filename()))
+                .flatMap(currentUserId -> cloudStorageService.uploadFile(filePart))
                 .doOnSuccess(response -> log.info("File upload completed successfully"))
                 .doOnError(error -> log.error("File upload failed: {}", error.getMessage()));
     }
@@ -53,10 +53,10 @@ public class MessageController {
     public Mono<MessageDto> sendMessage(
             @Parameter(description = "Encrypted message request", required = true)
             @RequestBody SendMessageRequest request) {
-        return currentUserService.getCurrentUser()
-                .flatMap(currentUser ->
+        return currentUserService.getCurrentUserId()
+                .flatMap(currentUserId ->
                         messageService.sendMessage(
-                                currentUser.getId(),
+                                currentUserId,
                                 request.receiverId(),
                                 request.encryptedContent(),
                                 request.signalPreKeyId(),
@@ -84,9 +84,9 @@ public class MessageController {
             @Parameter(description = "ID of the last message for pagination")
             @RequestParam(required = false) String lastMessageId) {
 
-        return currentUserService.getCurrentUser()
-                .flatMap(currentUser ->
-                        messageService.getConversation(currentUser.getId(), userId, limit, lastMessageId)
+        return currentUserService.getCurrentUserId()
+                .flatMap(currentUserId ->
+                        messageService.getConversation(currentUserId, userId, limit, lastMessageId)
                                 .map(MessageDto::fromMessage)
                                 .collectList()
                 );
@@ -105,9 +105,9 @@ public class MessageController {
     public Mono<MessageDto> markAsDelivered(
             @Parameter(description = "ID of the message", required = true)
             @PathVariable String messageId) {
-        return currentUserService.getCurrentUser()
-                .flatMap(currentUser ->
-                        messageService.markAsDelivered(messageId, currentUser.getId())
+        return currentUserService.getCurrentUserId()
+                .flatMap(currentUserId ->
+                        messageService.markAsDelivered(messageId, currentUserId)
                                 .map(MessageDto::fromMessage)
                 );
     }
@@ -125,9 +125,9 @@ public class MessageController {
     public Mono<MessageDto> markAsRead(
             @Parameter(description = "ID of the message", required = true)
             @PathVariable String messageId) {
-        return currentUserService.getCurrentUser()
-                .flatMap(currentUser ->
-                        messageService.markAsRead(messageId, currentUser.getId())
+        return currentUserService.getCurrentUserId()
+                .flatMap(currentUserId ->
+                        messageService.markAsRead(messageId, currentUserId)
                                 .map(MessageDto::fromMessage)
                 );
     }
@@ -144,9 +144,9 @@ public class MessageController {
             @Parameter(description = "Maximum number of conversations to return", example = "20")
             @RequestParam(defaultValue = "20") int limit) {
         
-        return currentUserService.getCurrentUser()
-                .flatMap(currentUser ->
-                        messageService.getRecentConversations(currentUser.getId(), limit)
+        return currentUserService.getCurrentUserId()
+                .flatMap(currentUserId ->
+                        messageService.getRecentConversations(currentUserId, limit)
                                 .collectList()
                 );
     }
@@ -160,9 +160,9 @@ public class MessageController {
                 content = @Content)
     })
     public Mono<Long> getUnreadCount() {
-        return currentUserService.getCurrentUser()
-                .flatMap(currentUser ->
-                        messageService.getUnreadCount(currentUser.getId())
+        return currentUserService.getCurrentUserId()
+                .flatMap(currentUserId ->
+                        messageService.getUnreadCount(currentUserId)
                 );
     }
 }
\ No newline at end of file
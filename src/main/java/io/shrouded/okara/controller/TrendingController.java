@@ -0,0 +1,49 @@
+package io.shrouded.okara.controller;
+
+import io.shrouded.okara.dto.trending.TrendingHashtagDto;
+import io.shrouded.okara.service.TrendingHashtagService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/trending")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Trending", description = "Trending hashtag endpoints")
+@SecurityRequirement(name = "bearerAuth")
+public class TrendingController {
+
+    private final TrendingHashtagService trendingHashtagService;
+
+    @GetMapping("/hashtags")
+    @Operation(summary = "Get trending hashtags", description = "Retrieves the most used hashtags of recent posts, across all chatrooms or in one chatroom")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trending hashtags retrieved successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(type = "array", implementation = TrendingHashtagDto.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized",
+                content = @Content)
+    })
+    public Mono<List<TrendingHashtagDto>> getTrendingHashtags(
+            @Parameter(description = "Only count posts in this chatroom")
+            @RequestParam(required = false) String chatroomId,
+            @Parameter(description = "Maximum number of hashtags to return", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        return Mono.just(trendingHashtagService.getTrending(chatroomId, limit));
+    }
+}
@@ -54,7 +54,7 @@ public class ViewTrackingController {
     public Mono<ViewResponse> recordView(
             @Parameter(description = "View tracking request", required = true)
             @RequestBody final ViewRequest request) {
-        return currentUserService.getCurrentUserId()
+        return currentUserService.getCurrentUserIdEnsuringUser()
                                  .flatMap(userId -> viewTrackingService.recordFeedItemView(
                                          userId,
                                          request.postId(),
@@ -0,0 +1,26 @@
+package io.shrouded.okara.dto.common;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query. nextCursor is an opaque token that continues after the
+ * last item of the page and is null once there are no more results.
+ */
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor
+) {
+
+    public static <T> CursorPage<T> empty() {
+        return new CursorPage<>(List.of(), null);
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    // Same cursor with different items, e.g. after hydrating or filtering the page
+    public <R> CursorPage<R> withItems(List<R> newItems) {
+        return new CursorPage<>(newItems, nextCursor);
+    }
+}
@@ -3,12 +3,15 @@ package io.shrouded.okara.dto.event;
 import io.shrouded.okara.enums.FeedEventType;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 
 import java.util.List;
 
 @Getter
 @Builder
+@Jacksonized
 public class FeedEvent {
+    private String eventId; // Unique per published event, redeliveries carry the same ID
     private FeedEventType eventType;
     private String postId;
     private String authorId;
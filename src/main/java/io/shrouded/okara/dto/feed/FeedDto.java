@@ -2,6 +2,7 @@ package io.shrouded.okara.dto.feed;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import io.shrouded.okara.enums.FeedType;
+import io.shrouded.okara.enums.ReactionType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 
@@ -36,10 +37,8 @@ public record FeedDto(
         Instant createdAt,
         @Schema(description = "Last update timestamp")
         Instant updatedAt,
-        @Schema(description = "List of user IDs who liked this post")
-        List<String> likedBy,
-        @Schema(description = "List of user IDs who disliked this post")
-        List<String> dislikedBy,
+        @Schema(description = "The requesting user's reaction to this post, absent when they have not reacted")
+        ReactionType viewerReaction,
         @Schema(description = "Total number of likes", example = "42")
         Integer likesCount,
         @Schema(description = "Total number of dislikes", example = "2")
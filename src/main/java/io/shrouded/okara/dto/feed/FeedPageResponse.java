@@ -0,0 +1,14 @@
+package io.shrouded.okara.dto.feed;
+
+import java.util.List;
+
+public record FeedPageResponse(
+        List<FeedDto> posts,
+        Boolean hasMore,
+        String nextCursor
+) {
+
+    public static FeedPageResponse of(List<FeedDto> posts, String nextCursor) {
+        return new FeedPageResponse(posts, nextCursor != null, nextCursor);
+    }
+}
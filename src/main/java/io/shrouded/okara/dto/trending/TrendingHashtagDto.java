@@ -0,0 +1,7 @@
+package io.shrouded.okara.dto.trending;
+
+/**
+ * A trending hashtag, lower-cased, with its estimated uses in the trending window
+ */
+public record TrendingHashtagDto(String hashtag, long count) {
+}
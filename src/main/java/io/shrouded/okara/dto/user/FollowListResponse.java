@@ -0,0 +1,14 @@
+package io.shrouded.okara.dto.user;
+
+import java.util.List;
+
+public record FollowListResponse(
+        List<UserDto> users,
+        Boolean hasMore,
+        String nextCursor
+) {
+
+    public static FollowListResponse of(List<UserDto> users, String nextCursor) {
+        return new FollowListResponse(users, nextCursor != null, nextCursor);
+    }
+}
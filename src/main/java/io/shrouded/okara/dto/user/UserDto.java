@@ -5,7 +5,6 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 
 import java.time.Instant;
-import java.util.List;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @Builder
@@ -33,10 +32,6 @@ public record UserDto(
         Instant createdAt,
         @Schema(description = "Last update timestamp")
         Instant updatedAt,
-        @Schema(description = "List of user IDs that this user follows")
-        List<String> following,
-        @Schema(description = "List of user IDs that follow this user")
-        List<String> followers,
         @Schema(description = "Number of users being followed", example = "150")
         Integer followingCount,
         @Schema(description = "Number of followers", example = "200")
@@ -0,0 +1,21 @@
+package io.shrouded.okara.enums;
+
+/**
+ * Counters kept on a Feed document, mapped to the field holding their display value
+ */
+public enum FeedCounter {
+    LIKES("likesCount"),
+    DISLIKES("dislikesCount"),
+    COMMENTS("commentsCount"),
+    VIEWS("viewsCount");
+
+    private final String fieldName;
+
+    FeedCounter(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+}
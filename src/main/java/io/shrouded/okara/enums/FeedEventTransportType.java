@@ -0,0 +1,6 @@
+package io.shrouded.okara.enums;
+
+public enum FeedEventTransportType {
+    PUBSUB,
+    MEMORY
+}
@@ -4,6 +4,7 @@ public enum FeedEventType {
     POST_CREATED,
     POST_UPDATED,
     POST_DELETED,
+    POST_CROSS_POSTED, // An existing post added to more chatrooms; carries only the added ones
     USER_FOLLOWED,
     USER_UNFOLLOWED
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package io.shrouded.okara.enums;
+
+public enum ReactionType {
+    LIKE,
+    DISLIKE
+}
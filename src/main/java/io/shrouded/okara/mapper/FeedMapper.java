@@ -1,8 +1,8 @@
 package io.shrouded.okara.mapper;
 
 import io.shrouded.okara.dto.feed.FeedDto;
+import io.shrouded.okara.enums.ReactionType;
 import io.shrouded.okara.model.Feed;
-import io.shrouded.okara.model.FeedItem;
 import io.shrouded.okara.util.TimestampUtils;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -12,30 +12,10 @@ public interface FeedMapper {
 
     @Mapping(target = "createdAt", expression = "java(TimestampUtils.toInstant(feed.getCreatedAt()))")
     @Mapping(target = "updatedAt", expression = "java(TimestampUtils.toInstant(feed.getUpdatedAt()))")
+    @Mapping(target = "viewerReaction", ignore = true)
     FeedDto toFeedDto(Feed feed);
 
-    @Mapping(target = "id", source = "postId")
-    @Mapping(target = "type", source = "postType")
-    @Mapping(target = "updatedAt", source = "createdAt")
-    @Mapping(target = "viewsCount", constant = "0")
-    @Mapping(target = "likedBy", expression = "java(new ArrayList<>())")
-    @Mapping(target = "dislikedBy", expression = "java(new ArrayList<>())")
-    @Mapping(target = "parentId", ignore = true)
-    @Mapping(target = "rootId", ignore = true)
-    @Mapping(target = "hashtags", expression = "java(new ArrayList<>())")
-    @Mapping(target = "mentions", expression = "java(new ArrayList<>())")
-    @Mapping(target = "dislikesCount", constant = "0")
-    @Mapping(target = "imageUrls", expression = "java(feedItem.getImageUrls() != null ? feedItem.getImageUrls() : new ArrayList<>())")
-    @Mapping(target = "distinctCommentersCount", constant = "0")
-    @Mapping(target = "niches", expression = "java(new ArrayList<>())")
-    @Mapping(target = "likesCount", source = "likesCount")
-    @Mapping(target = "commentsCount", source = "commentsCount")
-    @Mapping(target = "originalPostId", source = "originalPostId")
-    @Mapping(target = "authorDisplayName", source = "authorDisplayName")
-    @Mapping(target = "authorProfileImageUrl", source = "authorProfileImageUrl")
-    @Mapping(target = "content", source = "content")
-    @Mapping(target = "videoUrl", source = "videoUrl")
-    @Mapping(target = "chatroomIds", expression = "java(new ArrayList<>())")
-    @Mapping(target = "authorId", source = "authorId")
-    Feed convertToFeed(FeedItem feedItem);
-}
\ No newline at end of file
+    @Mapping(target = "createdAt", expression = "java(TimestampUtils.toInstant(feed.getCreatedAt()))")
+    @Mapping(target = "updatedAt", expression = "java(TimestampUtils.toInstant(feed.getUpdatedAt()))")
+    FeedDto toFeedDto(Feed feed, ReactionType viewerReaction);
+}
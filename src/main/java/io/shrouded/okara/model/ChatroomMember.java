@@ -0,0 +1,26 @@
+package io.shrouded.okara.model;
+
+import com.google.cloud.Timestamp;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ChatroomMember {
+
+    private String id; // Format: {chatroomId}_{userId}
+    private String chatroomId;
+    private String userId;
+    private Timestamp joinedAt;
+
+    public ChatroomMember(String chatroomId, String userId) {
+        this.id = documentId(chatroomId, userId);
+        this.chatroomId = chatroomId;
+        this.userId = userId;
+        this.joinedAt = Timestamp.now();
+    }
+
+    public static String documentId(String chatroomId, String userId) {
+        return chatroomId + "_" + userId;
+    }
+}
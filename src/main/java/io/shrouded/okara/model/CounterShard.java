@@ -0,0 +1,34 @@
+package io.shrouded.okara.model;
+
+import io.shrouded.okara.enums.FeedCounter;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One shard of a hot post's counters, stored at feeds/{postId}/counter_shards/{shardIndex}.
+ * Shard values are deltas that have not yet been rolled up into the post's display fields;
+ * dirty is set by every increment and cleared by the roll-up, so shards left behind by a crashed
+ * instance can be found with a collection group query.
+ */
+@Data
+@NoArgsConstructor
+public class CounterShard {
+
+    private String id;
+    private String postId;
+    private boolean dirty;
+
+    private long likesCount;
+    private long dislikesCount;
+    private long commentsCount;
+    private long viewsCount;
+
+    public long valueOf(FeedCounter counter) {
+        return switch (counter) {
+            case LIKES -> likesCount;
+            case DISLIKES -> dislikesCount;
+            case COMMENTS -> commentsCount;
+            case VIEWS -> viewsCount;
+        };
+    }
+}
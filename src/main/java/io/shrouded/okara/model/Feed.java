@@ -1,6 +1,7 @@
 package io.shrouded.okara.model;
 
 import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
 import io.shrouded.okara.enums.FeedType;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,6 +11,7 @@ import java.util.List;
 
 @Data
 @NoArgsConstructor
+@IgnoreExtraProperties
 public class Feed {
 
     private String id;
@@ -30,23 +32,30 @@ public class Feed {
     private Timestamp createdAt;
     private Timestamp updatedAt;
 
-    private List<String> likedBy;
-    private List<String> dislikedBy;
-
     private Integer likesCount;
     private Integer dislikesCount;
     private Integer commentsCount;
     private Integer viewsCount;
 
     private Integer distinctCommentersCount;
+    private Double commentScore; // Running sum of per-commenter scores, see EngagementScoreService
+    private Double hotScore; // Time-independent rank of top-level posts, absent on comments
+    private Boolean hotScoreDirty; // Set by engagement changes until hotScore is recomputed, see HotScoreService
     private List<String> niches;
 
     private String originalPostId;
 
     private List<String> hashtags;
     private List<String> mentions;
+    private List<String> links;
+    private List<String> searchTerms; // Lower-cased words for array-contains search, see ContentTokenizer
     private List<String> chatroomIds;
 
+    // Legacy reaction lists of older posts, kept so full saves do not erase them before
+    // PostReactionImporter has moved them into post_reactions; never read otherwise
+    private List<String> likedBy;
+    private List<String> dislikedBy;
+
     public Feed(String authorId, String content, FeedType type) {
         this.authorId = authorId;
         this.content = content;
@@ -57,12 +66,11 @@ public class Feed {
         this.dislikesCount = 0;
         this.commentsCount = 0;
         this.viewsCount = 0;
-        this.likedBy = new ArrayList<>();
-        this.dislikedBy = new ArrayList<>();
         this.imageUrls = new ArrayList<>();
         this.hashtags = new ArrayList<>();
         this.mentions = new ArrayList<>();
         this.distinctCommentersCount = 0;
+        this.commentScore = 0.0;
         this.niches = new ArrayList<>();
         chatroomIds = new ArrayList<>();
     }
@@ -1,56 +1,37 @@
 package io.shrouded.okara.model;
 
 import com.google.cloud.Timestamp;
-import io.shrouded.okara.enums.FeedType;
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * Reference to a post in a user's feed. Post content, author details and counts are not copied;
+ * readers hydrate the current post, so post updates never rewrite feed items.
+ */
 @Data
 @NoArgsConstructor
+@IgnoreExtraProperties // older items still carry a snapshot of the post
 public class FeedItem {
-    private String postId;
-    private String authorId;
-    private String authorDisplayName;
-    private String authorProfileImageUrl;
 
-    private String content;
-    private List<String> imageUrls;
-    private String videoUrl;
-
-    private FeedType postType;
-    private Timestamp createdAt;
-    private Timestamp addedToFeedAt;
+    // Items expire through a Firestore TTL policy on expireAt instead of trimming the feed on write
+    private static final long FEED_ITEM_TTL_SECONDS = 30L * 24 * 60 * 60;
 
-    private Integer likesCount;
-    private Integer commentsCount;
-
-    private List<String> relevanceTags;
-    private String reasonShown;
+    private String postId;
+    private String authorId; // Lets an unfollow remove the author's items
     private String chatroomId; // Which chatroom this feed item came from
+    private String reasonShown;
 
-    private String originalPostId;
+    private Timestamp createdAt; // Creation time of the post, feeds are ordered by it
+    private Timestamp addedToFeedAt;
+    private Timestamp expireAt;
 
     public FeedItem(Feed post) {
         this.postId = post.getId();
         this.authorId = post.getAuthorId();
-        this.authorDisplayName = post.getAuthorDisplayName();
-        this.authorProfileImageUrl = post.getAuthorProfileImageUrl();
-
-        this.content = post.getContent();
-        this.imageUrls = post.getImageUrls() != null ? post.getImageUrls() : new ArrayList<>();
-        this.videoUrl = post.getVideoUrl();
-        this.relevanceTags = new ArrayList<>();
-        this.postType = post.getType();
         this.createdAt = post.getCreatedAt();
         this.addedToFeedAt = Timestamp.now();
-
-        this.likesCount = post.getLikesCount();
-        this.commentsCount = post.getCommentsCount();
-
-        this.originalPostId = post.getOriginalPostId();
+        this.expireAt = expiryOf(this.addedToFeedAt);
         this.chatroomId = null; // Will be set when creating specific chatroom feed items
     }
 
@@ -58,4 +39,9 @@ public class FeedItem {
         this(post);
         this.chatroomId = chatroomId;
     }
-}
\ No newline at end of file
+
+    // When an item added to a feed at the given time expires
+    public static Timestamp expiryOf(Timestamp addedToFeedAt) {
+        return Timestamp.ofTimeSecondsAndNanos(addedToFeedAt.getSeconds() + FEED_ITEM_TTL_SECONDS, 0);
+    }
+}
@@ -0,0 +1,26 @@
+package io.shrouded.okara.model;
+
+import com.google.cloud.Timestamp;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class Follow {
+
+    private String id; // Format: {followerId}_{followeeId}
+    private String followerId;
+    private String followeeId;
+    private Timestamp createdAt;
+
+    public Follow(String followerId, String followeeId) {
+        this.id = documentId(followerId, followeeId);
+        this.followerId = followerId;
+        this.followeeId = followeeId;
+        this.createdAt = Timestamp.now();
+    }
+
+    public static String documentId(String followerId, String followeeId) {
+        return followerId + "_" + followeeId;
+    }
+}
@@ -0,0 +1,39 @@
+package io.shrouded.okara.model;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.Blob;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A serialized feed event waiting to be published. It is written together with the change that
+ * produced it and deleted once Pub/Sub has accepted the message.
+ */
+@Data
+@NoArgsConstructor
+public class OutboxEvent {
+
+    private String id;
+    private String eventType;
+    private String postId;
+    private String authorId;
+    private Blob data; // Encoded FeedEvent
+    private String payload; // JSON FeedEvent of entries written before data
+    private Timestamp createdAt;
+
+    public OutboxEvent(String id, String eventType, String postId, String authorId, byte[] data) {
+        this.id = id;
+        this.eventType = eventType;
+        this.postId = postId;
+        this.authorId = authorId;
+        this.data = Blob.fromBytes(data);
+        this.createdAt = Timestamp.now();
+    }
+
+    // The encoded event as sent to the transport
+    public byte[] body() {
+        return data != null ? data.toBytes() : payload.getBytes(StandardCharsets.UTF_8);
+    }
+}
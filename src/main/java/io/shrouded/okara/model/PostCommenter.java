@@ -0,0 +1,23 @@
+package io.shrouded.okara.model;
+
+import com.google.cloud.Timestamp;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of comments one user has left on a post, stored at feeds/{postId}/commenters/{userId}
+ */
+@Data
+@NoArgsConstructor
+public class PostCommenter {
+
+    private String id; // The commenter's user ID
+    private long commentCount;
+    private Timestamp updatedAt;
+
+    public PostCommenter(String userId, long commentCount) {
+        this.id = userId;
+        this.commentCount = commentCount;
+        this.updatedAt = Timestamp.now();
+    }
+}
@@ -0,0 +1,30 @@
+package io.shrouded.okara.model;
+
+import com.google.cloud.Timestamp;
+import io.shrouded.okara.enums.ReactionType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class PostReaction {
+
+    private String id; // Format: {postId}_{userId}
+    private String postId;
+    private String userId;
+    private ReactionType type;
+    private Timestamp reactedAt;
+    private boolean imported; // Copied from the post's legacy likedBy/dislikedBy lists, see PostReactionImporter
+
+    public PostReaction(String postId, String userId, ReactionType type) {
+        this.id = documentId(postId, userId);
+        this.postId = postId;
+        this.userId = userId;
+        this.type = type;
+        this.reactedAt = Timestamp.now();
+    }
+
+    public static String documentId(String postId, String userId) {
+        return postId + "_" + userId;
+    }
+}
@@ -0,0 +1,26 @@
+package io.shrouded.okara.model;
+
+import com.google.cloud.Timestamp;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Marks a deleted post, keyed by post ID, so feed reads can skip items that still reference it.
+ * Tombstones expire through a Firestore TTL policy on expireAt.
+ */
+@Data
+@NoArgsConstructor
+public class PostTombstone {
+
+    private String id; // The deleted post's ID
+    private Timestamp deletedAt;
+    private Timestamp expireAt;
+
+    public PostTombstone(String postId, Duration ttl) {
+        this.id = postId;
+        this.deletedAt = Timestamp.now();
+        this.expireAt = Timestamp.ofTimeSecondsAndNanos(this.deletedAt.getSeconds() + ttl.toSeconds(), 0);
+    }
+}
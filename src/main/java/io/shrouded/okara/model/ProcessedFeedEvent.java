@@ -0,0 +1,28 @@
+package io.shrouded.okara.model;
+
+import com.google.cloud.Timestamp;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Marker for a feed event that has been fully processed, keyed by event ID.
+ * Markers expire through a Firestore TTL policy on expireAt.
+ */
+@Data
+@NoArgsConstructor
+public class ProcessedFeedEvent {
+
+    private String id; // The event ID
+    private String eventType;
+    private Timestamp processedAt;
+    private Timestamp expireAt;
+
+    public ProcessedFeedEvent(String id, String eventType, Duration ttl) {
+        this.id = id;
+        this.eventType = eventType;
+        this.processedAt = Timestamp.now();
+        this.expireAt = Timestamp.ofTimeSecondsAndNanos(this.processedAt.getSeconds() + ttl.toSeconds(), 0);
+    }
+}
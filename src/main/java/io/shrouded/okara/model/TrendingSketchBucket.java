@@ -0,0 +1,43 @@
+package io.shrouded.okara.model;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.Blob;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashtag counts one instance saw during one window bucket, keyed by {nodeId}_{bucketStart}.
+ * Instances load each other's buckets, so rankings cover every instance and survive restarts.
+ * Buckets expire through a Firestore TTL policy on expireAt.
+ */
+@Data
+@NoArgsConstructor
+public class TrendingSketchBucket {
+
+    private String id;
+    private String nodeId; // Random per process
+    private Timestamp bucketStart;
+    private Timestamp updatedAt;
+    private Timestamp expireAt;
+    private Blob sketch; // Serialized CountMinSketch
+    private List<String> candidates; // "{chatroomId} {hashtag}", empty chatroomId for the global ranking
+    private Map<String, Long> exactCounts; // "{chatroomId} {hashtag}" of chatrooms counted exactly; absent on older buckets
+    private List<String> overflowedChatrooms; // Chatrooms with too many hashtags to count exactly in this bucket
+
+    public TrendingSketchBucket(String nodeId, Timestamp bucketStart, Timestamp expireAt, byte[] sketch,
+                                List<String> candidates, Map<String, Long> exactCounts,
+                                List<String> overflowedChatrooms) {
+        this.id = nodeId + "_" + bucketStart.getSeconds();
+        this.nodeId = nodeId;
+        this.bucketStart = bucketStart;
+        this.updatedAt = Timestamp.now();
+        this.expireAt = expireAt;
+        this.sketch = Blob.fromBytes(sketch);
+        this.candidates = candidates;
+        this.exactCounts = exactCounts;
+        this.overflowedChatrooms = overflowedChatrooms;
+    }
+}
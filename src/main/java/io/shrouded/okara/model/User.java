@@ -1,6 +1,7 @@
 package io.shrouded.okara.model;
 
 import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -9,6 +10,7 @@ import java.util.ArrayList;
 
 @Data
 @NoArgsConstructor
+@IgnoreExtraProperties // older users still carry the followers/following lists until imported into follows
 public class User {
 
     private String id;
@@ -24,8 +26,6 @@ public class User {
     private Timestamp createdAt;
     private Timestamp updatedAt;
 
-    private List<String> following = new ArrayList<>();
-    private List<String> followers = new ArrayList<>();
 
     private Integer followingCount = 0;
     private Integer followersCount = 0;
@@ -1,13 +1,25 @@
 package io.shrouded.okara.model;
 
 import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.annotation.Exclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Header document of a user's personal feed, stored at user_feeds/{userId}.
+ * <p>
+ * Feed items are not embedded in this document: each one is its own document under
+ * user_feeds/{userId}/items/{postId}, so a fanout insert writes only the new item and reads
+ * page through the subcollection. {@link #items} only holds an in-memory batch or page of
+ * items and is never persisted.
+ */
 @Data
 @NoArgsConstructor
 public class UserFeed {
@@ -23,6 +35,7 @@ public class UserFeed {
     private Timestamp createdAt;
 
     public UserFeed(String userId) {
+        this.id = userId;
         this.userId = userId;
         this.items = new LinkedList<>();
         this.createdAt = Timestamp.now();
@@ -31,12 +44,13 @@ public class UserFeed {
     }
 
 
-    // Firestore compatibility: Ensure getter returns List interface
+    // Items live in the items subcollection, never in the header document
+    @Exclude
     public List<FeedItem> getItems() {
         return items;
     }
 
-    // Firestore compatibility: Ensure setter accepts List interface
+    @Exclude
     public void setItems(List<FeedItem> items) {
         if (items instanceof LinkedList) {
             this.items = (LinkedList<FeedItem>) items;
@@ -46,6 +60,8 @@ public class UserFeed {
     }
 
     public void addItem(FeedItem item) {
+        // A post is held at most once; a repeated item replaces the earlier one
+        this.items.removeIf(existing -> Objects.equals(existing.getPostId(), item.getPostId()));
         this.items.addFirst(item);
         this.lastUpdated = Timestamp.now();
 
@@ -58,11 +74,19 @@ public class UserFeed {
     }
 
     public void addItems(List<FeedItem> newItems) {
+        // A post is held at most once; the last item for a post wins
+        Map<String, FeedItem> byPostId = new LinkedHashMap<>();
+        for (FeedItem item : newItems) {
+            byPostId.put(item.getPostId(), item);
+        }
+        this.items.removeIf(existing -> byPostId.containsKey(existing.getPostId()));
+
         // Sort new items by creation time (newest first)
-        newItems.sort((a, b) -> b.getCreatedAt().toDate().compareTo(a.getCreatedAt().toDate()));
+        List<FeedItem> uniqueItems = new ArrayList<>(byPostId.values());
+        uniqueItems.sort((a, b) -> b.getCreatedAt().toDate().compareTo(a.getCreatedAt().toDate()));
 
         // Add all new items to the front
-        for (FeedItem item : newItems) {
+        for (FeedItem item : uniqueItems) {
             this.items.addFirst(item);
         }
 
@@ -97,7 +121,7 @@ public class UserFeed {
 
         int startIndex = 0;
         for (int i = 0; i < this.items.size(); i++) {
-            if (this.items.get(i).getPostId().equals(sinceId)) {
+            if (sinceId.equals(this.items.get(i).getPostId())) {
                 startIndex = i + 1;
                 break;
             }
@@ -0,0 +1,62 @@
+package io.shrouded.okara.repository;
+
+import io.shrouded.okara.model.ChatroomMember;
+import io.shrouded.okara.service.ReactiveFirestoreService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Membership index (chatroomId -> userIds) so fanout only touches the members of the
+ * target chatrooms instead of scanning every user document.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ChatroomMemberRepository {
+
+    private final ReactiveFirestoreService firestoreService;
+    private static final String COLLECTION_NAME = "chatroom_members";
+    private static final int MEMBER_PAGE_SIZE = 200;
+
+    public Mono<ChatroomMember> addMember(String chatroomId, String userId) {
+        ChatroomMember member = new ChatroomMember(chatroomId, userId);
+        return firestoreService.save(COLLECTION_NAME, member,
+            member.getId(), ChatroomMember::setId);
+    }
+
+    public Flux<ChatroomMember> addMembers(String chatroomId, Collection<String> userIds) {
+        return firestoreService.saveAll(COLLECTION_NAME,
+            Flux.fromIterable(userIds).map(userId -> new ChatroomMember(chatroomId, userId)),
+            ChatroomMember::getId, ChatroomMember::setId);
+    }
+
+    public Mono<Void> saveAll(Flux<ChatroomMember> members) {
+        return firestoreService.saveAll(COLLECTION_NAME, members, ChatroomMember::getId, ChatroomMember::setId)
+                               .then();
+    }
+
+    public Mono<Void> removeMember(String chatroomId, String userId) {
+        return firestoreService.deleteById(COLLECTION_NAME, ChatroomMember.documentId(chatroomId, userId));
+    }
+
+    // Streams members page by page, the next page is only fetched once the previous one is consumed;
+    // a failed page fails the flux instead of ending it early
+    public Flux<ChatroomMember> findByChatroomId(String chatroomId) {
+        return firestoreService.findByFieldPaged(COLLECTION_NAME, "chatroomId", chatroomId,
+            MEMBER_PAGE_SIZE, ChatroomMember.class, ChatroomMember::setId);
+    }
+
+    public Flux<ChatroomMember> findByUserId(String userId) {
+        return firestoreService.findByField(COLLECTION_NAME, "userId", userId,
+            ChatroomMember.class, ChatroomMember::setId);
+    }
+
+    public Mono<Void> deleteByUserId(String userId) {
+        return firestoreService.deleteByField(COLLECTION_NAME, "userId", userId);
+    }
+}
@@ -1,6 +1,10 @@
 package io.shrouded.okara.repository;
 
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Query;
+import io.shrouded.okara.cache.DocumentCache;
 import io.shrouded.okara.model.Chatroom;
 import io.shrouded.okara.service.ReactiveFirestoreService;
 import lombok.RequiredArgsConstructor;
@@ -9,7 +13,10 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 @Repository
 @RequiredArgsConstructor
@@ -17,16 +24,59 @@ import java.util.List;
 public class ChatroomRepository {
 
     private final ReactiveFirestoreService firestoreService;
+    private final DocumentCache documentCache;
     private static final String COLLECTION_NAME = "chatrooms";
 
     public Mono<Chatroom> save(Chatroom chatroom) {
         return firestoreService.save(COLLECTION_NAME, chatroom, 
-            chatroom.getId(), (c, id) -> c.setId(id));
+            chatroom.getId(), (c, id) -> c.setId(id))
+            .flatMap(saved -> documentCache.evict(COLLECTION_NAME, saved.getId()).thenReturn(saved));
+    }
+
+    public Flux<Chatroom> saveAll(Flux<Chatroom> chatrooms) {
+        return firestoreService.saveAll(COLLECTION_NAME, chatrooms, Chatroom::getId, Chatroom::setId)
+            .concatMap(saved -> documentCache.evict(COLLECTION_NAME, saved.getId()).thenReturn(saved));
+    }
+
+    // Adds the user to the participants unless they are there already. Reads and writes the stored
+    // document in a transaction, so concurrent joins cannot overwrite each other's participants or
+    // participantCount the way saving a cached copy would. Returns the chatroom as written, empty
+    // when the chatroom does not exist.
+    public Mono<Chatroom> addParticipant(String id, String userId) {
+        return updateParticipants(id, participants -> !participants.contains(userId) && participants.add(userId));
+    }
+
+    // Removes the user from the participants, transactionally like addParticipant
+    public Mono<Chatroom> removeParticipant(String id, String userId) {
+        return updateParticipants(id, participants -> participants.remove(userId));
+    }
+
+    private Mono<Chatroom> updateParticipants(String id, Predicate<List<String>> change) {
+        DocumentReference chatroomRef = firestoreService.document(COLLECTION_NAME, id);
+        return documentCache.evictAfter(COLLECTION_NAME, id, firestoreService.runTransaction(transaction -> {
+            DocumentSnapshot doc = transaction.get(chatroomRef).get();
+            if (!doc.exists()) {
+                return null;
+            }
+            Chatroom chatroom = firestoreService.mapDocument(doc, Chatroom.class, Chatroom::setId);
+            if (chatroom.getParticipants() == null) {
+                chatroom.setParticipants(new ArrayList<>());
+            }
+            if (change.test(chatroom.getParticipants())) {
+                chatroom.setParticipantCount(chatroom.getParticipants().size());
+                chatroom.setLastActivity(Timestamp.now());
+                transaction.update(chatroomRef, Map.of(
+                    "participants", chatroom.getParticipants(),
+                    "participantCount", chatroom.getParticipantCount(),
+                    "lastActivity", chatroom.getLastActivity()));
+            }
+            return chatroom;
+        }));
     }
 
     public Mono<Chatroom> findById(String id) {
-        return firestoreService.findById(COLLECTION_NAME, id, 
-            Chatroom.class, (c, docId) -> c.setId(docId));
+        return documentCache.get(COLLECTION_NAME, id, () -> firestoreService.findSnapshotById(COLLECTION_NAME, id))
+            .map(doc -> documentCache.toObject(doc, Chatroom.class, Chatroom::setId));
     }
 
     public Flux<Chatroom> findByNameIgnoreCase(String name) {
@@ -76,7 +126,8 @@ public class ChatroomRepository {
     }
 
     public Mono<Void> delete(Chatroom chatroom) {
-        return firestoreService.deleteById(COLLECTION_NAME, chatroom.getId());
+        return documentCache.evictAfter(COLLECTION_NAME, chatroom.getId(),
+            firestoreService.deleteById(COLLECTION_NAME, chatroom.getId()));
     }
 
 }
\ No newline at end of file
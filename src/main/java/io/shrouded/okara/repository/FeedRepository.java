@@ -1,15 +1,37 @@
 package io.shrouded.okara.repository;
 
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
 import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import io.shrouded.okara.cache.DocumentCache;
+import io.shrouded.okara.dto.common.CursorPage;
+import io.shrouded.okara.enums.FeedCounter;
+import io.shrouded.okara.model.CounterShard;
 import io.shrouded.okara.model.Feed;
+import io.shrouded.okara.model.PostCommenter;
 import io.shrouded.okara.service.ReactiveFirestoreService;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.ToDoubleFunction;
 
 @Repository
 @RequiredArgsConstructor
@@ -17,16 +39,54 @@ import java.util.List;
 public class FeedRepository {
 
     private final ReactiveFirestoreService firestoreService;
+    private final DocumentCache documentCache;
     private static final String COLLECTION_NAME = "feeds";
+    private static final String COUNTER_SHARDS_SUBCOLLECTION = "counter_shards";
+    private static final String COMMENTERS_SUBCOLLECTION = "commenters";
+    private static final String HOT_SCORE_DIRTY = "hotScoreDirty";
 
     public Mono<Feed> save(Feed feed) {
         return firestoreService.save(COLLECTION_NAME, feed, 
-            feed.getId(), (f, id) -> f.setId(id));
+            feed.getId(), (f, id) -> f.setId(id))
+            .flatMap(saved -> documentCache.evict(COLLECTION_NAME, saved.getId()).thenReturn(saved));
+    }
+
+    // Saves the post and the other write in one atomic batch; the post needs an ID, see assignId
+    public Mono<Feed> saveWith(Feed feed, WriteOp alongside) {
+        return documentCache.evictAfter(COLLECTION_NAME, feed.getId(),
+            firestoreService.commitAtomically(List.of(WriteOp.set(COLLECTION_NAME, feed.getId(), feed), alongside)))
+            .thenReturn(feed);
+    }
+
+    public Feed assignId(Feed feed) {
+        if (feed.getId() == null) {
+            feed.setId(firestoreService.newDocumentId(COLLECTION_NAME));
+        }
+        return feed;
+    }
+
+    public Flux<Feed> saveAll(Flux<Feed> feeds) {
+        return firestoreService.saveAll(COLLECTION_NAME, feeds, Feed::getId, Feed::setId)
+            .concatMap(saved -> documentCache.evict(COLLECTION_NAME, saved.getId()).thenReturn(saved));
+    }
+
+    public Flux<Feed> findAllById(List<String> ids) {
+        return firestoreService.findByIdsIn(COLLECTION_NAME, ids, Feed.class, Feed::setId);
+    }
+
+    // Posts by ID through the document cache, with all misses read in one batched get; missing posts are left out
+    public Mono<Map<String, Feed>> findAllByIdCached(List<String> ids) {
+        return documentCache.getAll(COLLECTION_NAME, ids, misses -> firestoreService.findSnapshotsByIds(COLLECTION_NAME, misses))
+            .map(docs -> {
+                Map<String, Feed> posts = new HashMap<>(docs.size() * 2);
+                docs.forEach((id, doc) -> posts.put(id, documentCache.toObject(doc, Feed.class, Feed::setId)));
+                return posts;
+            });
     }
 
     public Mono<Feed> findById(String id) {
-        return firestoreService.findById(COLLECTION_NAME, id, 
-            Feed.class, (f, docId) -> f.setId(docId));
+        return documentCache.get(COLLECTION_NAME, id, () -> firestoreService.findSnapshotById(COLLECTION_NAME, id))
+            .map(doc -> documentCache.toObject(doc, Feed.class, Feed::setId));
     }
 
     // User's posts (no parent)
@@ -42,6 +102,41 @@ public class FeedRepository {
             "createdAt", Query.Direction.ASCENDING, Feed.class, (f, docId) -> f.setId(docId));
     }
 
+    // Keyset page of a user's posts (no parent), newest first
+    public Mono<CursorPage<Feed>> findPageByAuthorId(String authorId, String cursor, int limit) {
+        return firestoreService.findPage(COLLECTION_NAME,
+            query -> query.whereEqualTo("authorId", authorId).whereEqualTo("parentId", null),
+            "createdAt", Query.Direction.DESCENDING, cursor, limit, Feed.class, Feed::setId);
+    }
+
+    // Keyset page of comments for a post, oldest first
+    public Mono<CursorPage<Feed>> findPageByParentId(String parentId, String cursor, int limit) {
+        return firestoreService.findPage(COLLECTION_NAME,
+            query -> query.whereEqualTo("parentId", parentId),
+            "createdAt", Query.Direction.ASCENDING, cursor, limit, Feed.class, Feed::setId);
+    }
+
+    // Keyset page of posts in a chatroom, newest first
+    public Mono<CursorPage<Feed>> findPageByChatroomId(String chatroomId, String cursor, int limit) {
+        return firestoreService.findPage(COLLECTION_NAME,
+            query -> query.whereArrayContains("chatroomIds", chatroomId),
+            "createdAt", Query.Direction.DESCENDING, cursor, limit, Feed.class, Feed::setId);
+    }
+
+    // Keyset page of all ranked posts (no parent), highest hot score first. Comments are stored with
+    // an explicit null hot score, which Firestore still orders, so they are filtered out.
+    public Mono<CursorPage<Feed>> findPageByHotScore(String cursor, int limit) {
+        return firestoreService.findPage(COLLECTION_NAME, query -> query.whereEqualTo("parentId", null),
+            "hotScore", Query.Direction.DESCENDING, cursor, limit, Feed.class, Feed::setId);
+    }
+
+    // Keyset page of ranked posts (no parent) in a chatroom, highest hot score first
+    public Mono<CursorPage<Feed>> findPageByChatroomIdOrderByHotScore(String chatroomId, String cursor, int limit) {
+        return firestoreService.findPage(COLLECTION_NAME,
+            query -> query.whereArrayContains("chatroomIds", chatroomId).whereEqualTo("parentId", null),
+            "hotScore", Query.Direction.DESCENDING, cursor, limit, Feed.class, Feed::setId);
+    }
+
     // Find feeds containing specific chatroom ID
     public Flux<Feed> findByChatroomIdsContaining(String chatroomId) {
         return firestoreService.findByArrayContainsOrderBy(COLLECTION_NAME, "chatroomIds", chatroomId, 
@@ -50,10 +145,272 @@ public class FeedRepository {
 
 
     public Mono<Void> delete(Feed feed) {
-        return firestoreService.deleteById(COLLECTION_NAME, feed.getId());
+        return deleteById(feed.getId());
     }
 
     public Mono<Void> deleteById(String id) {
-        return firestoreService.deleteById(COLLECTION_NAME, id);
+        return documentCache.evictAfter(COLLECTION_NAME, id, firestoreService.deleteById(COLLECTION_NAME, id));
+    }
+
+    // Deletes the post and applies the other writes in one atomic batch
+    public Mono<Void> deleteByIdWith(String id, WriteOp... alongside) {
+        List<WriteOp> ops = new ArrayList<>(alongside.length + 1);
+        ops.add(WriteOp.delete(COLLECTION_NAME, id));
+        ops.addAll(List.of(alongside));
+        return documentCache.evictAfter(COLLECTION_NAME, id, firestoreService.commitAtomically(ops));
+    }
+
+    public Mono<Void> deleteAllById(Flux<String> ids) {
+        Set<String> deleted = ConcurrentHashMap.newKeySet();
+        Mono<Void> eviction = Mono.defer(() -> documentCache.evictAll(COLLECTION_NAME, deleted));
+        return firestoreService.deleteAll(COLLECTION_NAME, ids.doOnNext(deleted::add))
+            .onErrorResume(e -> eviction.then(Mono.error(e)))
+            .then(eviction);
+    }
+
+    // Partial update of an existing post, leaving every other field untouched
+    public Mono<Void> updateFields(String id, Map<String, Object> fields) {
+        return documentCache.evictAfter(COLLECTION_NAME, id, firestoreService.updateFields(COLLECTION_NAME, id, fields));
+    }
+
+    // Partial update of an existing post and the other write in one atomic batch
+    public Mono<Void> updateFieldsWith(String id, Map<String, Object> fields, WriteOp alongside) {
+        return documentCache.evictAfter(COLLECTION_NAME, id,
+            firestoreService.commitAtomically(List.of(WriteOp.update(COLLECTION_NAME, id, fields), alongside)));
+    }
+
+    // IDs of posts whose engagement changed since their hot score was last computed, across all instances
+    public Flux<String> findIdsWithDirtyHotScore(int pageSize) {
+        return firestoreService.stream(COLLECTION_NAME, query -> query.whereEqualTo(HOT_SCORE_DIRTY, true),
+                                       null, null, pageSize, Feed.class, Feed::setId)
+                               .map(Feed::getId);
+    }
+
+    // Writes the hot score of each post and clears its dirty flag in one transaction, so engagement
+    // changing meanwhile retries the batch instead of being cleared with it. Posts deleted meanwhile
+    // are skipped; comments only have the flag cleared.
+    public Mono<Void> recomputeHotScores(List<String> ids, ToDoubleFunction<Feed> hotScore) {
+        DocumentReference[] postRefs = ids.stream()
+                                          .map(id -> firestoreService.document(COLLECTION_NAME, id))
+                                          .toArray(DocumentReference[]::new);
+        return firestoreService.runTransaction(transaction -> {
+                                   for (DocumentSnapshot doc : transaction.getAll(postRefs).get()) {
+                                       if (!doc.exists()) {
+                                           continue;
+                                       }
+                                       Feed post = doc.toObject(Feed.class);
+                                       Map<String, Object> fields = new HashMap<>();
+                                       fields.put(HOT_SCORE_DIRTY, FieldValue.delete());
+                                       if (post.getParentId() == null) {
+                                           fields.put("hotScore", hotScore.applyAsDouble(post));
+                                       }
+                                       transaction.update(doc.getReference(), fields);
+                                   }
+                                   return null;
+                               })
+                               .then(documentCache.evictAll(COLLECTION_NAME, ids));
+    }
+
+    // Server side increment of the post's display counters
+    public Mono<Void> incrementCounters(String id, Map<FeedCounter, Long> deltas) {
+        return documentCache.evictAfter(COLLECTION_NAME, id,
+            firestoreService.updateFields(COLLECTION_NAME, id, postIncrements(deltas)));
+    }
+
+    // Server side increment of one counter shard, creating the shard on first use and flagging it for roll-up
+    public Mono<Void> incrementCounterShard(String id, int shard, Map<FeedCounter, Long> deltas) {
+        return firestoreService.mergeFields(counterShardsCollection(id), String.valueOf(shard), shardIncrements(id, deltas));
+    }
+
+    // The increment of the post's display counters, or of one of its shards when shard is given, as a
+    // write for callers committing it together with other writes; evict the post once it is committed
+    public WriteOp counterIncrement(String id, Integer shard, Map<FeedCounter, Long> deltas) {
+        return shard == null
+            ? WriteOp.update(COLLECTION_NAME, id, postIncrements(deltas))
+            : WriteOp.merge(counterShardsCollection(id), String.valueOf(shard), shardIncrements(id, deltas));
+    }
+
+    public Mono<Void> evictCached(String id) {
+        return documentCache.evict(COLLECTION_NAME, id);
+    }
+
+    // Removes fields that are no longer part of Feed from the stored document
+    public Mono<Void> deleteFields(String id, List<String> fieldNames) {
+        Map<String, Object> fields = new HashMap<>();
+        fieldNames.forEach(fieldName -> fields.put(fieldName, FieldValue.delete()));
+        return documentCache.evictAfter(COLLECTION_NAME, id, firestoreService.updateFields(COLLECTION_NAME, id, fields));
+    }
+
+    // IDs of posts with shard values not yet rolled up, across all instances
+    public Flux<String> findPostIdsWithDirtyCounterShards() {
+        return firestoreService.streamCollectionGroup(COUNTER_SHARDS_SUBCOLLECTION,
+                                   query -> query.whereEqualTo("dirty", true),
+                                   ReactiveFirestoreService.DEFAULT_STREAM_PAGE_SIZE,
+                                   CounterShard.class, CounterShard::setId)
+                               .map(CounterShard::getPostId)
+                               .distinct();
+    }
+
+    // Moves the shard values into the display fields and clears the shards in one transaction, so an
+    // increment landing on a shard meanwhile retries the roll-up instead of being cleared with it.
+    // The shards of a post that no longer exists are deleted.
+    public Mono<Void> rollUpCounterShards(String id) {
+        DocumentReference postRef = firestoreService.document(COLLECTION_NAME, id);
+        Query shardsQuery = firestoreService.collection(counterShardsCollection(id));
+        return documentCache.evictAfter(COLLECTION_NAME, id, firestoreService.runTransaction(transaction -> {
+            DocumentSnapshot post = transaction.get(postRef).get();
+            QuerySnapshot shards = transaction.get(shardsQuery).get();
+            if (!post.exists()) {
+                shards.getDocuments().forEach(shard -> transaction.delete(shard.getReference()));
+                return null;
+            }
+
+            Map<FeedCounter, Long> totals = new EnumMap<>(FeedCounter.class);
+            for (QueryDocumentSnapshot doc : shards.getDocuments()) {
+                CounterShard shard = doc.toObject(CounterShard.class);
+                Map<FeedCounter, Long> values = new EnumMap<>(FeedCounter.class);
+                for (FeedCounter counter : FeedCounter.values()) {
+                    long value = shard.valueOf(counter);
+                    if (value != 0) {
+                        values.put(counter, value);
+                        totals.merge(counter, value, Long::sum);
+                    }
+                }
+                if (!values.isEmpty() || shard.isDirty()) {
+                    Map<String, Object> fields = increments(values, -1);
+                    fields.put("dirty", false);
+                    transaction.set(doc.getReference(), fields, SetOptions.merge());
+                }
+            }
+            if (!totals.isEmpty()) {
+                transaction.update(postRef, postIncrements(totals));
+            }
+            return null;
+        })).then();
+    }
+
+    // Deletes every shard document, including any left from a larger earlier shard count
+    public Mono<Void> deleteCounterShards(String id) {
+        String counterShardsCollection = counterShardsCollection(id);
+        return firestoreService.deleteAll(counterShardsCollection,
+            firestoreService.findAll(counterShardsCollection, CounterShard.class, CounterShard::setId)
+                            .map(CounterShard::getId));
+    }
+
+    /**
+     * Changes the user's comment count on the post by delta and, in the same transaction, moves the
+     * post's commentScore and distinctCommentersCount by the difference between the counts before
+     * and after. Returns the count before the change.
+     * <p>
+     * Posts from before commenter counts were kept have no commentScore and no commenter documents;
+     * for those all counts are rebuilt from the post's comments instead, with the created comment
+     * counted or the deleted one left out whether or not its own write has landed yet.
+     * <p>
+     * The other writes are committed in the same transaction.
+     */
+    public Mono<Long> updateCommenterCount(String id, String userId, String commentId, long delta,
+                                           LongToDoubleFunction commenterScore, WriteOp... alongside) {
+        return documentCache.evictAfter(COLLECTION_NAME, id, firestoreService.runTransaction(transaction -> {
+            long before = changeCommenterCount(transaction, id, userId, commentId, delta, commenterScore);
+            for (WriteOp op : alongside) {
+                firestoreService.addToTransaction(transaction, op);
+            }
+            return before;
+        }));
+    }
+
+    private long changeCommenterCount(Transaction transaction, String id, String userId, String commentId, long delta,
+                                      LongToDoubleFunction commenterScore) throws Exception {
+        DocumentReference commenterRef = firestoreService.document(commentersCollection(id), userId);
+        DocumentReference postRef = firestoreService.document(COLLECTION_NAME, id);
+        DocumentSnapshot post = transaction.get(postRef).get();
+        if (post.exists() && post.get("commentScore") == null) {
+            Query comments = firestoreService.collection(COLLECTION_NAME).whereEqualTo("parentId", id).select("authorId");
+            Map<String, Long> counts = new HashMap<>();
+            for (QueryDocumentSnapshot comment : transaction.get(comments).get().getDocuments()) {
+                String authorId = comment.getString("authorId");
+                if (authorId != null && !comment.getId().equals(commentId)) {
+                    counts.merge(authorId, 1L, Long::sum);
+                }
+            }
+            long before = counts.getOrDefault(userId, 0L);
+            if (delta > 0) {
+                counts.merge(userId, delta, Long::sum);
+            }
+            rebuildCommenters(transaction, id, postRef, counts, commenterScore);
+            return before;
+        }
+
+        DocumentSnapshot snapshot = transaction.get(commenterRef).get();
+        Long stored = snapshot.exists() ? snapshot.getLong("commentCount") : null;
+        long before = stored != null ? stored : 0L;
+        long after = Math.max(0L, before + delta);
+        if (after == before) {
+            return before;
+        }
+
+        if (after == 0) {
+            transaction.delete(commenterRef);
+        } else {
+            transaction.set(commenterRef, new PostCommenter(userId, after));
+        }
+        long distinctDelta = (after > 0 ? 1 : 0) - (before > 0 ? 1 : 0);
+        transaction.update(postRef, Map.of(
+            "commentScore", FieldValue.increment(commenterScore.applyAsDouble(after) - commenterScore.applyAsDouble(before)),
+            "distinctCommentersCount", FieldValue.increment(distinctDelta),
+            HOT_SCORE_DIRTY, true,
+            "updatedAt", Timestamp.now()));
+        return before;
+    }
+
+    private void rebuildCommenters(Transaction transaction, String id, DocumentReference postRef,
+                                   Map<String, Long> counts, LongToDoubleFunction commenterScore) {
+        double commentScore = 0.0;
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            transaction.set(firestoreService.document(commentersCollection(id), count.getKey()),
+                            new PostCommenter(count.getKey(), count.getValue()));
+            commentScore += commenterScore.applyAsDouble(count.getValue());
+        }
+        transaction.update(postRef, Map.of(
+            "commentScore", commentScore,
+            "distinctCommentersCount", counts.size(),
+            HOT_SCORE_DIRTY, true,
+            "updatedAt", Timestamp.now()));
+        log.info("Rebuilt comment score of post {} from {} commenters", id, counts.size());
+    }
+
+    public Mono<Void> deleteCommenters(String id) {
+        String commentersCollection = commentersCollection(id);
+        return firestoreService.deleteAll(commentersCollection,
+            firestoreService.findAll(commentersCollection, PostCommenter.class, PostCommenter::setId)
+                            .map(PostCommenter::getId));
+    }
+
+    private Map<String, Object> increments(Map<FeedCounter, Long> deltas, int sign) {
+        Map<String, Object> fields = new HashMap<>();
+        deltas.forEach((counter, delta) -> fields.put(counter.getFieldName(), FieldValue.increment(sign * delta)));
+        return fields;
+    }
+
+    // Counter changes move the post's engagement, so they flag its hot score for recomputation
+    private Map<String, Object> postIncrements(Map<FeedCounter, Long> deltas) {
+        Map<String, Object> fields = increments(deltas, 1);
+        fields.put(HOT_SCORE_DIRTY, true);
+        return fields;
+    }
+
+    private Map<String, Object> shardIncrements(String id, Map<FeedCounter, Long> deltas) {
+        Map<String, Object> fields = increments(deltas, 1);
+        fields.put("postId", id);
+        fields.put("dirty", true);
+        return fields;
+    }
+
+    private String commentersCollection(String id) {
+        return COLLECTION_NAME + "/" + id + "/" + COMMENTERS_SUBCOLLECTION;
+    }
+
+    private String counterShardsCollection(String id) {
+        return COLLECTION_NAME + "/" + id + "/" + COUNTER_SHARDS_SUBCOLLECTION;
     }
 }
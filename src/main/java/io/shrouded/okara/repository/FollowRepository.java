@@ -0,0 +1,116 @@
+package io.shrouded.okara.repository;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Query;
+import io.shrouded.okara.cache.DocumentCache;
+import io.shrouded.okara.dto.common.CursorPage;
+import io.shrouded.okara.model.Follow;
+import io.shrouded.okara.service.ReactiveFirestoreService;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Follow edges keyed by {followerId}_{followeeId}, so "does A follow B" is a point read and
+ * user documents only carry the follower and following counts.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class FollowRepository {
+
+    private final ReactiveFirestoreService firestoreService;
+    private final DocumentCache documentCache;
+    private static final String COLLECTION_NAME = "follows";
+
+    /**
+     * Creates the edge and increments both users' counts in one transaction, together with the
+     * other writes. Returns false without writing when the edge already exists.
+     */
+    public Mono<Boolean> follow(String followerId, String followeeId, WriteOp... alongside) {
+        return changeEdge(followerId, followeeId, true, alongside);
+    }
+
+    /**
+     * Removes the edge and decrements both users' counts in one transaction, together with the
+     * other writes. Returns false without writing when there is no edge.
+     */
+    public Mono<Boolean> unfollow(String followerId, String followeeId, WriteOp... alongside) {
+        return changeEdge(followerId, followeeId, false, alongside);
+    }
+
+    public Mono<Boolean> exists(String followerId, String followeeId) {
+        return firestoreService.findSnapshotById(COLLECTION_NAME, Follow.documentId(followerId, followeeId))
+                               .hasElement();
+    }
+
+    // Keyset page of the user's followers, most recent first
+    public Mono<CursorPage<Follow>> findPageByFolloweeId(String followeeId, String cursor, int limit) {
+        return firestoreService.findPage(COLLECTION_NAME,
+            query -> query.whereEqualTo("followeeId", followeeId),
+            "createdAt", Query.Direction.DESCENDING, cursor, limit, Follow.class, Follow::setId);
+    }
+
+    // Keyset page of the users the user follows, most recent first
+    public Mono<CursorPage<Follow>> findPageByFollowerId(String followerId, String cursor, int limit) {
+        return firestoreService.findPage(COLLECTION_NAME,
+            query -> query.whereEqualTo("followerId", followerId),
+            "createdAt", Query.Direction.DESCENDING, cursor, limit, Follow.class, Follow::setId);
+    }
+
+    public Flux<Follow> findByFollowerId(String followerId) {
+        return firestoreService.stream(COLLECTION_NAME, query -> query.whereEqualTo("followerId", followerId),
+            null, null, ReactiveFirestoreService.DEFAULT_STREAM_PAGE_SIZE, Follow.class, Follow::setId);
+    }
+
+    public Flux<Follow> findByFolloweeId(String followeeId) {
+        return firestoreService.stream(COLLECTION_NAME, query -> query.whereEqualTo("followeeId", followeeId),
+            null, null, ReactiveFirestoreService.DEFAULT_STREAM_PAGE_SIZE, Follow.class, Follow::setId);
+    }
+
+    // Writes edges without touching the users' counts; used when importing existing relationships.
+    // Fails once all writes are done when any of them failed.
+    public Mono<Void> saveAll(Flux<Follow> follows) {
+        return firestoreService.bulkWrite(follows.map(follow -> WriteOp.set(COLLECTION_NAME, follow.getId(), follow)))
+                               .filter(outcome -> !outcome.succeeded())
+                               .collectList()
+                               .flatMap(failed -> failed.isEmpty()
+                                   ? Mono.<Void>empty()
+                                   : Mono.error(new RuntimeException("Failed to write " + failed.size() + " follow edges, first "
+                                                                     + failed.get(0).op().id(), failed.get(0).error())));
+    }
+
+    private Mono<Boolean> changeEdge(String followerId, String followeeId, boolean create, WriteOp... alongside) {
+        DocumentReference edgeRef = firestoreService.document(COLLECTION_NAME, Follow.documentId(followerId, followeeId));
+        DocumentReference followerRef = firestoreService.document(UserRepository.COLLECTION_NAME, followerId);
+        DocumentReference followeeRef = firestoreService.document(UserRepository.COLLECTION_NAME, followeeId);
+        Mono<Boolean> transaction = firestoreService.runTransaction(tx -> {
+            boolean exists = tx.get(edgeRef).get().exists();
+            if (exists == create) {
+                return false;
+            }
+            long delta = create ? 1 : -1;
+            Timestamp now = Timestamp.now();
+            if (create) {
+                tx.create(edgeRef, new Follow(followerId, followeeId));
+            } else {
+                tx.delete(edgeRef);
+            }
+            tx.update(followerRef, Map.of("followingCount", FieldValue.increment(delta), "updatedAt", now));
+            tx.update(followeeRef, Map.of("followersCount", FieldValue.increment(delta), "updatedAt", now));
+            for (WriteOp op : alongside) {
+                firestoreService.addToTransaction(tx, op);
+            }
+            return true;
+        });
+        return documentCache.evictAfter(UserRepository.COLLECTION_NAME, followerId,
+            documentCache.evictAfter(UserRepository.COLLECTION_NAME, followeeId, transaction));
+    }
+}
@@ -58,4 +58,8 @@ public class MessageRepository {
         return firestoreService.deleteById(COLLECTION_NAME, message.getId());
     }
 
+    public Mono<Void> deleteAll(Flux<Message> messages) {
+        return firestoreService.deleteAll(COLLECTION_NAME, messages.map(Message::getId));
+    }
+
 }
\ No newline at end of file
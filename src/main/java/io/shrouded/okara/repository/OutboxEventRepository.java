@@ -0,0 +1,48 @@
+package io.shrouded.okara.repository;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.Query;
+import io.shrouded.okara.dto.common.CursorPage;
+import io.shrouded.okara.model.OutboxEvent;
+import io.shrouded.okara.service.ReactiveFirestoreService;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxEventRepository {
+
+    private final ReactiveFirestoreService firestoreService;
+    private static final String COLLECTION_NAME = "feed_event_outbox";
+
+    public String newId() {
+        return firestoreService.newDocumentId(COLLECTION_NAME);
+    }
+
+    public Mono<OutboxEvent> save(OutboxEvent event) {
+        return firestoreService.save(COLLECTION_NAME, event, event.getId(), OutboxEvent::setId);
+    }
+
+    // Write that stores the event, for committing atomically with the change that produced it
+    public WriteOp saveOp(OutboxEvent event) {
+        return WriteOp.set(COLLECTION_NAME, event.getId(), event);
+    }
+
+    public Mono<Void> deleteById(String id) {
+        return firestoreService.deleteById(COLLECTION_NAME, id);
+    }
+
+    // Oldest first events created strictly before the given time
+    public Mono<List<OutboxEvent>> findCreatedBefore(Timestamp before, int limit) {
+        return firestoreService.findPage(COLLECTION_NAME,
+            query -> query.whereLessThan("createdAt", before),
+            "createdAt", Query.Direction.ASCENDING, null, limit, OutboxEvent.class, OutboxEvent::setId)
+            .map(CursorPage::items);
+    }
+}
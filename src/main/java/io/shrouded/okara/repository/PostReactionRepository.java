@@ -0,0 +1,77 @@
+package io.shrouded.okara.repository;
+
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import io.shrouded.okara.enums.ReactionType;
+import io.shrouded.okara.model.PostReaction;
+import io.shrouded.okara.service.ReactiveFirestoreService;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Reaction index keyed by {postId}_{userId}, so checking a viewer's reaction is a point read
+ * and posts no longer embed the IDs of everyone who reacted.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class PostReactionRepository {
+
+    private final ReactiveFirestoreService firestoreService;
+    private static final String COLLECTION_NAME = "post_reactions";
+    private static final int LOOKUP_BATCH_SIZE = 100;
+
+    /**
+     * Sets the user's reaction on a post in a transaction and returns the reaction it replaced.
+     * Nothing is written when the user already has the requested reaction; otherwise the writes
+     * returned by alongside for the replaced reaction are committed in the same transaction.
+     */
+    public Mono<Optional<ReactionType>> react(String postId, String userId, ReactionType type,
+                                              Function<Optional<ReactionType>, List<WriteOp>> alongside) {
+        DocumentReference docRef = firestoreService.document(COLLECTION_NAME, PostReaction.documentId(postId, userId));
+        return firestoreService.runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(docRef).get();
+            PostReaction current = snapshot.exists() ? snapshot.toObject(PostReaction.class) : null;
+            Optional<ReactionType> previous = Optional.ofNullable(current).map(PostReaction::getType);
+            if (previous.orElse(null) != type) {
+                transaction.set(docRef, new PostReaction(postId, userId, type));
+                alongside.apply(previous).forEach(op -> firestoreService.addToTransaction(transaction, op));
+            }
+            return previous;
+        });
+    }
+
+    public Mono<PostReaction> findByPostIdAndUserId(String postId, String userId) {
+        return firestoreService.findById(COLLECTION_NAME, PostReaction.documentId(postId, userId),
+            PostReaction.class, PostReaction::setId);
+    }
+
+    // Batched point reads of the user's reactions to the given posts, keyed by post ID
+    public Mono<Map<String, ReactionType>> findByUserIdAndPostIds(String userId, Collection<String> postIds) {
+        return Flux.fromIterable(postIds)
+                   .distinct()
+                   .map(postId -> PostReaction.documentId(postId, userId))
+                   .buffer(LOOKUP_BATCH_SIZE)
+                   .concatMap(ids -> firestoreService.findByIdsIn(COLLECTION_NAME, ids,
+                       PostReaction.class, PostReaction::setId))
+                   .collectMap(PostReaction::getPostId, PostReaction::getType);
+    }
+
+    public Mono<Void> deleteByPostId(String postId) {
+        return firestoreService.deleteByField(COLLECTION_NAME, "postId", postId);
+    }
+
+    public Mono<Void> deleteByUserId(String userId) {
+        return firestoreService.deleteByField(COLLECTION_NAME, "userId", userId);
+    }
+}
@@ -0,0 +1,45 @@
+package io.shrouded.okara.repository;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Query;
+import io.shrouded.okara.model.PostTombstone;
+import io.shrouded.okara.service.ReactiveFirestoreService;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class PostTombstoneRepository {
+
+    private final ReactiveFirestoreService firestoreService;
+    private static final String COLLECTION_NAME = "post_tombstones";
+
+    // Write that stores the tombstone, for committing atomically with the post delete
+    public WriteOp saveOp(PostTombstone tombstone) {
+        return WriteOp.set(COLLECTION_NAME, tombstone.getId(), tombstone);
+    }
+
+    // IDs among the given post IDs that have a tombstone, read in one batched get
+    public Mono<Set<String>> findExistingIds(List<String> postIds) {
+        return firestoreService.findSnapshotsByIds(COLLECTION_NAME, postIds)
+                               .map(docs -> docs.stream().map(DocumentSnapshot::getId).collect(Collectors.toSet()));
+    }
+
+    // Tombstones written at or after the given time, or all of them when it is null
+    public Flux<PostTombstone> findDeletedSince(Timestamp since) {
+        return firestoreService.stream(COLLECTION_NAME,
+            query -> since != null ? query.whereGreaterThanOrEqualTo("deletedAt", since) : query,
+            "deletedAt", Query.Direction.ASCENDING, ReactiveFirestoreService.DEFAULT_STREAM_PAGE_SIZE,
+            PostTombstone.class, PostTombstone::setId);
+    }
+}
@@ -0,0 +1,26 @@
+package io.shrouded.okara.repository;
+
+import io.shrouded.okara.model.ProcessedFeedEvent;
+import io.shrouded.okara.service.ReactiveFirestoreService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessedFeedEventRepository {
+
+    private final ReactiveFirestoreService firestoreService;
+    private static final String COLLECTION_NAME = "processed_feed_events";
+
+    public Mono<Boolean> exists(String eventId) {
+        return firestoreService.findSnapshotById(COLLECTION_NAME, eventId)
+                               .hasElement();
+    }
+
+    public Mono<ProcessedFeedEvent> save(ProcessedFeedEvent event) {
+        return firestoreService.save(COLLECTION_NAME, event, event.getId(), ProcessedFeedEvent::setId);
+    }
+}
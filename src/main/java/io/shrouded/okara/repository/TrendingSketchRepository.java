@@ -0,0 +1,32 @@
+package io.shrouded.okara.repository;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.Query;
+import io.shrouded.okara.model.TrendingSketchBucket;
+import io.shrouded.okara.service.ReactiveFirestoreService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingSketchRepository {
+
+    private final ReactiveFirestoreService firestoreService;
+    private static final String COLLECTION_NAME = "trending_sketches";
+
+    public Mono<TrendingSketchBucket> save(TrendingSketchBucket bucket) {
+        return firestoreService.save(COLLECTION_NAME, bucket, bucket.getId(), TrendingSketchBucket::setId);
+    }
+
+    // Buckets written at or after the given time
+    public Flux<TrendingSketchBucket> findUpdatedSince(Timestamp since) {
+        return firestoreService.stream(COLLECTION_NAME,
+            query -> query.whereGreaterThanOrEqualTo("updatedAt", since),
+            "updatedAt", Query.Direction.ASCENDING, ReactiveFirestoreService.DEFAULT_STREAM_PAGE_SIZE,
+            TrendingSketchBucket.class, TrendingSketchBucket::setId);
+    }
+}
@@ -1,12 +1,24 @@
 package io.shrouded.okara.repository;
 
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Query;
+import io.shrouded.okara.dto.common.CursorPage;
+import io.shrouded.okara.model.FeedItem;
 import io.shrouded.okara.model.UserFeed;
 import io.shrouded.okara.service.ReactiveFirestoreService;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
 @Repository
 @RequiredArgsConstructor
 @Slf4j
@@ -14,24 +26,84 @@ public class UserFeedRepository {
 
     private final ReactiveFirestoreService firestoreService;
     private static final String COLLECTION_NAME = "user_feeds";
+    private static final String ITEMS_SUBCOLLECTION = "items";
 
+    // The header document is keyed by the user's ID
     public Mono<UserFeed> save(UserFeed userFeed) {
         return firestoreService.save(COLLECTION_NAME, userFeed,
-            userFeed.getId(), (uf, id) -> uf.setId(id));
+            userFeed.getUserId(), (uf, id) -> uf.setId(id));
     }
 
-    public Mono<UserFeed> findById(String id) {
-        return firestoreService.findById(COLLECTION_NAME, id, 
-            UserFeed.class, (uf, docId) -> uf.setId(docId));
+    // Removes fields that are no longer part of UserFeed from the stored header document
+    public Mono<Void> deleteFields(String userId, List<String> fieldNames) {
+        Map<String, Object> fields = new HashMap<>();
+        fieldNames.forEach(fieldName -> fields.put(fieldName, FieldValue.delete()));
+        return firestoreService.updateFields(COLLECTION_NAME, userId, fields);
     }
 
-    // Find user's feed (there's only one per user now)
     public Mono<UserFeed> findByUserId(String userId) {
-        return firestoreService.findFirstByField(COLLECTION_NAME, "userId", userId, 
+        return firestoreService.findById(COLLECTION_NAME, userId,
             UserFeed.class, (uf, docId) -> uf.setId(docId));
     }
 
-    public Mono<Void> delete(UserFeed userFeed) {
-        return firestoreService.deleteById(COLLECTION_NAME, userFeed.getId());
+    // Appends a single item; only the item document is written, keyed by post ID
+    public Mono<FeedItem> addItem(String userId, FeedItem item) {
+        return firestoreService.save(itemsCollection(userId), item,
+            item.getPostId(), FeedItem::setPostId);
+    }
+
+    // Inserts every item held by the given feed batch; items already in the feed are left untouched,
+    // so replaying a fanout costs no item writes
+    public Mono<Void> appendItems(UserFeed userFeed) {
+        return appendItems(List.of(userFeed), Map.of());
+    }
+
+    // Inserts the items of several users' feed batches in one bulk write, deleting the items of each
+    // user's removed posts alongside
+    public Mono<Void> appendItems(List<UserFeed> userFeeds, Map<String, Set<String>> removedPostIds) {
+        Flux<WriteOp> ops = Flux.fromIterable(userFeeds)
+                                .concatMap(userFeed -> {
+                                    String itemsCollection = itemsCollection(userFeed.getUserId());
+                                    Set<String> removed = removedPostIds.getOrDefault(userFeed.getUserId(), Set.of());
+                                    Flux<WriteOp> inserts = Flux.fromIterable(userFeed.getItems())
+                                                                .filter(item -> !removed.contains(item.getPostId()))
+                                                                .map(item -> WriteOp.create(itemsCollection, item.getPostId(), item));
+                                    Flux<WriteOp> removals = Flux.fromIterable(removed)
+                                                                 .map(postId -> WriteOp.delete(itemsCollection, postId));
+                                    return Flux.concat(inserts, removals);
+                                });
+        return firestoreService.bulkWrite(ops)
+                   .filter(outcome -> !outcome.succeeded() && !outcome.alreadyExists())
+                   .next()
+                   .flatMap(failed -> Mono.<Void>error(new RuntimeException(
+                       "Failed to append items to feed " + failed.op().collectionName(), failed.error())))
+                   .then();
+    }
+
+    // Newest first page of items, continuing after the given cursor when present
+    public Mono<CursorPage<FeedItem>> findItemsPage(String userId, int limit, String cursor) {
+        return firestoreService.findPage(itemsCollection(userId), UnaryOperator.identity(),
+            "createdAt", Query.Direction.DESCENDING, cursor, limit, FeedItem.class, FeedItem::setPostId);
+    }
+
+    public Mono<FeedItem> findItem(String userId, String postId) {
+        return firestoreService.findById(itemsCollection(userId), postId, FeedItem.class, FeedItem::setPostId);
+    }
+
+    public Mono<Void> deleteItemsByAuthorId(String userId, String authorId) {
+        return firestoreService.deleteByField(itemsCollection(userId), "authorId", authorId);
+    }
+
+    // Deletes every item and then the header document
+    public Mono<Void> deleteByUserId(String userId) {
+        String itemsCollection = itemsCollection(userId);
+        return firestoreService.deleteAll(itemsCollection,
+                                   firestoreService.findAll(itemsCollection, FeedItem.class, FeedItem::setPostId)
+                                                   .map(FeedItem::getPostId))
+                               .then(firestoreService.deleteById(COLLECTION_NAME, userId));
+    }
+
+    private String itemsCollection(String userId) {
+        return COLLECTION_NAME + "/" + userId + "/" + ITEMS_SUBCOLLECTION;
     }
 }
@@ -1,6 +1,12 @@
 package io.shrouded.okara.repository;
 
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import io.shrouded.okara.cache.DocumentCache;
 import io.shrouded.okara.model.User;
+import io.shrouded.okara.model.UserChatroom;
 import io.shrouded.okara.service.ReactiveFirestoreService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,22 +14,86 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
 @Repository
 @RequiredArgsConstructor
 @Slf4j
 public class UserRepository {
 
     private final ReactiveFirestoreService firestoreService;
-    private static final String COLLECTION_NAME = "users";
+    private final DocumentCache documentCache;
+    static final String COLLECTION_NAME = "users";
 
     public Mono<User> save(User user) {
         return firestoreService.save(COLLECTION_NAME, user, 
-            user.getId(), (u, id) -> u.setId(id));
+            user.getId(), (u, id) -> u.setId(id))
+            .flatMap(saved -> documentCache.evict(COLLECTION_NAME, saved.getId()).thenReturn(saved));
+    }
+
+    // Server side increment of a numeric user field
+    public Mono<Void> incrementField(String id, String fieldName, long delta) {
+        return documentCache.evictAfter(COLLECTION_NAME, id,
+            firestoreService.updateFields(COLLECTION_NAME, id, Map.of(fieldName, FieldValue.increment(delta))));
+    }
+
+    // Partial update of an existing user, leaving every other field untouched
+    public Mono<Void> updateFields(String id, Map<String, Object> fields) {
+        return documentCache.evictAfter(COLLECTION_NAME, id, firestoreService.updateFields(COLLECTION_NAME, id, fields));
+    }
+
+    // Adds the chatroom to the user's chatrooms unless it is there already. Reads and writes the
+    // stored document in a transaction, so concurrent joins cannot drop each other's entries the way
+    // saving a cached copy would. Returns the user as written, empty when the user does not exist.
+    public Mono<User> addChatroom(String id, UserChatroom userChatroom) {
+        return updateChatrooms(id, chatrooms -> {
+            if (chatrooms.stream().anyMatch(uc -> userChatroom.getChatroomId().equals(uc.getChatroomId()))) {
+                return false;
+            }
+            return chatrooms.add(userChatroom);
+        });
+    }
+
+    // Removes the chatroom from the user's chatrooms, transactionally like addChatroom
+    public Mono<User> removeChatroom(String id, String chatroomId) {
+        return updateChatrooms(id, chatrooms -> chatrooms.removeIf(uc -> chatroomId.equals(uc.getChatroomId())));
+    }
+
+    private Mono<User> updateChatrooms(String id, Predicate<List<UserChatroom>> change) {
+        DocumentReference userRef = firestoreService.document(COLLECTION_NAME, id);
+        return documentCache.evictAfter(COLLECTION_NAME, id, firestoreService.runTransaction(transaction -> {
+            DocumentSnapshot doc = transaction.get(userRef).get();
+            if (!doc.exists()) {
+                return null;
+            }
+            User user = firestoreService.mapDocument(doc, User.class, User::setId);
+            if (user.getChatrooms() == null) {
+                user.setChatrooms(new ArrayList<>());
+            }
+            if (change.test(user.getChatrooms())) {
+                user.setUpdatedAt(Timestamp.now());
+                transaction.update(userRef, Map.of(
+                    "chatrooms", user.getChatrooms(),
+                    "updatedAt", user.getUpdatedAt()));
+            }
+            return user;
+        }));
+    }
+
+    // Removes fields that are no longer part of User from the stored document
+    public Mono<Void> deleteFields(String id, List<String> fieldNames) {
+        Map<String, Object> fields = new HashMap<>();
+        fieldNames.forEach(fieldName -> fields.put(fieldName, FieldValue.delete()));
+        return documentCache.evictAfter(COLLECTION_NAME, id, firestoreService.updateFields(COLLECTION_NAME, id, fields));
     }
 
     public Mono<User> findById(String id) {
-        return firestoreService.findById(COLLECTION_NAME, id, 
-            User.class, (u, docId) -> u.setId(docId));
+        return documentCache.get(COLLECTION_NAME, id, () -> firestoreService.findSnapshotById(COLLECTION_NAME, id))
+            .map(doc -> documentCache.toObject(doc, User.class, User::setId));
     }
 
     public Mono<User> findByUsername(String username) {
@@ -44,7 +114,8 @@ public class UserRepository {
     }
 
     public Mono<Void> delete(User user) {
-        return firestoreService.deleteById(COLLECTION_NAME, user.getId());
+        return documentCache.evictAfter(COLLECTION_NAME, user.getId(),
+            firestoreService.deleteById(COLLECTION_NAME, user.getId()));
     }
 
 }
@@ -72,4 +72,8 @@ public class ViewEventRepository {
     public Mono<Void> delete(ViewEvent viewEvent) {
         return firestoreService.deleteById(COLLECTION_NAME, viewEvent.getId());
     }
+
+    public Mono<Void> deleteAll(Flux<ViewEvent> viewEvents) {
+        return firestoreService.deleteAll(COLLECTION_NAME, viewEvents.map(ViewEvent::getId));
+    }
 }
\ No newline at end of file
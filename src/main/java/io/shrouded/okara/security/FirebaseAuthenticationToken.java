@@ -7,14 +7,12 @@ import java.util.Collection;
 
 public class FirebaseAuthenticationToken extends AbstractAuthenticationToken {
 
-    private final String firebaseUid;
-    private final String name;
+    private final FirebasePrincipal principal;
 
-    public FirebaseAuthenticationToken(String firebaseUid, String name,
+    public FirebaseAuthenticationToken(FirebasePrincipal principal,
                                        Collection<? extends GrantedAuthority> authorities) {
         super(authorities);
-        this.firebaseUid = firebaseUid;
-        this.name = name;
+        this.principal = principal;
         setAuthenticated(true);
     }
 
@@ -24,15 +22,15 @@ public class FirebaseAuthenticationToken extends AbstractAuthenticationToken {
     }
 
     @Override
-    public Object getPrincipal() {
-        return firebaseUid;
+    public FirebasePrincipal getPrincipal() {
+        return principal;
     }
 
     public String getId() {
-        return firebaseUid;
+        return principal.uid();
     }
 
     public String getName() {
-        return name;
+        return principal.name();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package io.shrouded.okara.security;
+
+/**
+ * The caller as established by the verified ID token. Carries no Firestore data, so resolving it
+ * never costs a document read; use CurrentUserService.getCurrentUser() when the User is needed, or
+ * getCurrentUserIdEnsuringUser() when it only has to exist.
+ */
+public record FirebasePrincipal(String uid, String name, String email) {
+
+    @Override
+    public String toString() {
+        return uid;
+    }
+}
@@ -1,7 +1,6 @@
 package io.shrouded.okara.security;
 
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
 import io.shrouded.okara.service.FirebaseAuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +15,7 @@ import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -36,43 +36,41 @@ public class FirebaseReactiveAuthenticationWebFilter implements WebFilter {
             String idToken = authHeader.substring(7);
             log.info("🔥 Found Authorization header, token length: {}", idToken.length());
 
-            return Mono.fromCallable(() -> {
-                           try {
-                               log.info("🔥 Verifying Firebase token...");
-                               FirebaseToken decodedToken = firebaseAuthService.verifyToken(idToken);
+            // Verification runs off the event loop and is cached per token until it expires
+            return firebaseAuthService.verifyToken(idToken)
+                       .map(decodedToken -> {
+                           String firebaseUid = decodedToken.getUid();
+                           String email = decodedToken.getEmail();
+                           String name = decodedToken.getName();
 
-                               String firebaseUid = decodedToken.getUid();
-                               String email = decodedToken.getEmail();
-                               String name = decodedToken.getName();
+                           log.info("🔥 Token verified successfully - UID: {}, Email: {}, Name: {}", firebaseUid, email, name);
 
-                               log.info("🔥 Token verified successfully - UID: {}, Email: {}, Name: {}", firebaseUid, email, name);
-
-                               if (firebaseUid == null || firebaseUid.isBlank()) {
-                                   log.error("🔥 Firebase UID is null/blank - cannot authenticate");
-                                   return null;
-                               }
-
-                               List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+                           if (firebaseUid == null || firebaseUid.isBlank()) {
+                               log.error("🔥 Firebase UID is null/blank - cannot authenticate");
+                               return Optional.<FirebaseAuthenticationToken>empty();
+                           }
 
-                               return new FirebaseAuthenticationToken(
-                                       firebaseUid, name, authorities);
+                           List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
 
-                           } catch (FirebaseAuthException e) {
+                           return Optional.of(new FirebaseAuthenticationToken(
+                                   new FirebasePrincipal(firebaseUid, name, email), authorities));
+                       })
+                       .onErrorResume(e -> {
+                           if (e instanceof FirebaseAuthException) {
                                log.error("🔥 Invalid Firebase token", e);
-                               return null;
-                           } catch (Exception e) {
+                           } else {
                                log.error("🔥 Unexpected error in Firebase filter", e);
-                               return null;
                            }
+                           return Mono.just(Optional.empty());
                        })
                        .flatMap(authToken -> {
-                           if (authToken == null) {
+                           if (authToken.isEmpty()) {
                                // Authentication failed, continue without auth
                                return chain.filter(exchange);
                            }
 
                            // Authentication successful, set context and continue
-                           SecurityContext context = new SecurityContextImpl(authToken);
+                           SecurityContext context = new SecurityContextImpl(authToken.get());
                            return chain.filter(exchange)
                                        .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(context)));
                        });
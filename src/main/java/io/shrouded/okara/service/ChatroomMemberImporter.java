@@ -0,0 +1,77 @@
+package io.shrouded.okara.service;
+
+import io.shrouded.okara.model.Chatroom;
+import io.shrouded.okara.model.ChatroomMember;
+import io.shrouded.okara.model.User;
+import io.shrouded.okara.model.UserChatroom;
+import io.shrouded.okara.repository.ChatroomMemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One-off backfill of the chatroom_members index from the memberships already stored on
+ * Chatroom.participants and User.chatrooms, which stay in place since the rest of the app still
+ * reads them. Chatrooms are imported before users so the joinedAt kept on the user's entry wins.
+ * Re-running it is harmless; enable with chatrooms.import-memberships=true.
+ */
+@Component
+@ConditionalOnProperty(name = "chatrooms.import-memberships", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ChatroomMemberImporter implements ApplicationRunner {
+
+    private static final String CHATROOMS_COLLECTION = "chatrooms";
+    private static final String USERS_COLLECTION = "users";
+
+    private final ReactiveFirestoreService firestoreService;
+    private final ChatroomMemberRepository chatroomMemberRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AtomicLong imported = new AtomicLong();
+        Flux<ChatroomMember> fromChatrooms = firestoreService.findAll(CHATROOMS_COLLECTION, Chatroom.class, Chatroom::setId)
+                                                             .flatMapIterable(this::chatroomMembers);
+        Flux<ChatroomMember> fromUsers = firestoreService.findAll(USERS_COLLECTION, User.class, User::setId)
+                                                         .flatMapIterable(this::userMembers);
+
+        chatroomMemberRepository.saveAll(fromChatrooms.concatWith(fromUsers)
+                                                      .doOnNext(member -> imported.incrementAndGet()))
+                                .subscribe(v -> { },
+                                           e -> log.error("Chatroom membership import failed after {} members: {}",
+                                                          imported.get(), e.getMessage(), e),
+                                           () -> log.info("Imported {} chatroom memberships", imported.get()));
+    }
+
+    private List<ChatroomMember> chatroomMembers(Chatroom chatroom) {
+        if (chatroom.getParticipants() == null) {
+            return List.of();
+        }
+        return chatroom.getParticipants().stream()
+                       .map(userId -> new ChatroomMember(chatroom.getId(), userId))
+                       .toList();
+    }
+
+    private List<ChatroomMember> userMembers(User user) {
+        if (user.getChatrooms() == null) {
+            return List.of();
+        }
+        return user.getChatrooms().stream()
+                   .filter(UserChatroom::isActive)
+                   .map(userChatroom -> {
+                       ChatroomMember member = new ChatroomMember(userChatroom.getChatroomId(), user.getId());
+                       if (userChatroom.getJoinedAt() != null) {
+                           member.setJoinedAt(userChatroom.getJoinedAt());
+                       }
+                       return member;
+                   })
+                   .toList();
+    }
+}
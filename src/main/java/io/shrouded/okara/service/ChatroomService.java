@@ -8,6 +8,7 @@ import io.shrouded.okara.exception.OkaraException;
 import io.shrouded.okara.model.Chatroom;
 import io.shrouded.okara.model.User;
 import io.shrouded.okara.model.UserChatroom;
+import io.shrouded.okara.repository.ChatroomMemberRepository;
 import io.shrouded.okara.repository.ChatroomRepository;
 import io.shrouded.okara.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +29,7 @@ public class ChatroomService {
 
     private final ChatroomRepository chatroomRepository;
     private final UserRepository userRepository;
+    private final ChatroomMemberRepository chatroomMemberRepository;
     
     private static final String DEFAULT_CHATROOM_NAME = "General Chat";
 
@@ -150,49 +152,33 @@ public class ChatroomService {
                                 .orElse(null)));
             }
 
-            // Add user to chatroom participants
-            if (!chatroom.getParticipants().contains(firebaseUid)) {
-                chatroom.getParticipants().add(firebaseUid);
-                chatroom.setParticipantCount(chatroom.getParticipants().size());
-                chatroom.setLastActivity(Timestamp.now());
-            }
-
-            // Add chatroom to user's collection
+            // Add user to chatroom participants and chatroom to user's collection, each applied to the
+            // stored document so concurrent joins don't overwrite each other
             UserChatroom userChatroom = new UserChatroom(chatroomId, Timestamp.now());
-            user.getChatrooms().add(userChatroom);
-            user.setUpdatedAt(Timestamp.now());
 
             return Mono.zip(
-                    chatroomRepository.save(chatroom),
-                    userRepository.save(user)
-            ).map(saved -> ChatroomDto.fromChatroom(saved.getT1(), userChatroom));
+                    chatroomRepository.addParticipant(chatroomId, firebaseUid)
+                            .switchIfEmpty(Mono.error(OkaraException.notFound("chatroom"))),
+                    userRepository.addChatroom(firebaseUid, userChatroom)
+                            .switchIfEmpty(Mono.error(OkaraException.notFound("user"))),
+                    chatroomMemberRepository.addMember(chatroomId, firebaseUid)
+            ).map(saved -> ChatroomDto.fromChatroom(saved.getT1(), saved.getT2().getChatrooms().stream()
+                    .filter(uc -> uc.getChatroomId().equals(chatroomId))
+                    .findFirst()
+                    .orElse(userChatroom)));
         });
     }
 
     public Mono<Void> leaveChatroom(String firebaseUid, String chatroomId) {
-        return Mono.zip(
-                userRepository.findById(firebaseUid)
+        // Remove chatroom from user's collection and user from chatroom participants, each applied
+        // to the stored document so concurrent joins and leaves don't overwrite each other
+        return Mono.when(
+                userRepository.removeChatroom(firebaseUid, chatroomId)
                         .switchIfEmpty(Mono.error(OkaraException.notFound("user"))),
-                chatroomRepository.findById(chatroomId)
-                        .switchIfEmpty(Mono.error(OkaraException.notFound("chatroom")))
-        ).flatMap(tuple -> {
-            User user = tuple.getT1();
-            Chatroom chatroom = tuple.getT2();
-
-            // Remove chatroom from user's collection
-            user.getChatrooms().removeIf(uc -> uc.getChatroomId().equals(chatroomId));
-            user.setUpdatedAt(Timestamp.now());
-
-            // Remove user from chatroom participants
-            chatroom.getParticipants().remove(firebaseUid);
-            chatroom.setParticipantCount(chatroom.getParticipants().size());
-            chatroom.setLastActivity(Timestamp.now());
-
-            return Mono.zip(
-                    userRepository.save(user),
-                    chatroomRepository.save(chatroom)
-            ).then();
-        });
+                chatroomRepository.removeParticipant(chatroomId, firebaseUid)
+                        .switchIfEmpty(Mono.error(OkaraException.notFound("chatroom"))),
+                chatroomMemberRepository.removeMember(chatroomId, firebaseUid)
+        );
     }
 
     public Flux<ChatroomDto> getAllGlobalChatrooms(int limit) {
@@ -244,26 +230,17 @@ public class ChatroomService {
     private Mono<Void> addChatroomToUsers(List<String> participantIds, String chatroomId) {
         return Flux.fromIterable(participantIds)
                 .flatMap(participantId -> 
-                    userRepository.findById(participantId)
-                            .flatMap(user -> {
-                                // Check if user already has this chatroom
-                                boolean alreadyHasChatroom = user.getChatrooms().stream()
-                                        .anyMatch(uc -> uc.getChatroomId().equals(chatroomId));
-                                
-                                if (!alreadyHasChatroom) {
-                                    UserChatroom userChatroom = new UserChatroom(chatroomId, Timestamp.now());
-                                    user.getChatrooms().add(userChatroom);
-                                    user.setUpdatedAt(Timestamp.now());
-                                    return userRepository.save(user);
-                                }
-                                return Mono.just(user);
-                            })
+                    // Skipped when the user already has this chatroom
+                    userRepository.addChatroom(participantId, new UserChatroom(chatroomId, Timestamp.now()))
+                            .thenReturn(participantId)
                             .onErrorResume(e -> {
                                 log.warn("Failed to add chatroom to user {}: {}", participantId, e.getMessage());
                                 return Mono.empty();
                             })
                 )
-                .then();
+                .collectList()
+                // Membership rows for every participant go out in one batched commit
+                .flatMap(memberIds -> chatroomMemberRepository.addMembers(chatroomId, memberIds).then());
     }
 
     public Mono<Void> addUserToDefaultChatrooms(String firebaseUid) {
@@ -296,22 +273,14 @@ public class ChatroomService {
                                     return Mono.<Void>empty();
                                 }
 
-                                // Add user to default chatroom participants
-                                if (!defaultChatroom.getParticipants().contains(firebaseUid)) {
-                                    defaultChatroom.getParticipants().add(firebaseUid);
-                                    defaultChatroom.setParticipantCount(defaultChatroom.getParticipants().size());
-                                    defaultChatroom.setLastActivity(Timestamp.now());
-                                }
-
-                                // Add chatroom to user's collection
+                                // Add user to default chatroom participants and chatroom to user's collection
                                 UserChatroom userChatroom = new UserChatroom(defaultChatroom.getId(), Timestamp.now());
-                                user.getChatrooms().add(userChatroom);
-                                user.setUpdatedAt(Timestamp.now());
 
-                                return Mono.zip(
-                                        chatroomRepository.save(defaultChatroom),
-                                        userRepository.save(user)
-                                ).then();
+                                return Mono.when(
+                                        chatroomRepository.addParticipant(defaultChatroom.getId(), firebaseUid),
+                                        userRepository.addChatroom(firebaseUid, userChatroom),
+                                        chatroomMemberRepository.addMember(defaultChatroom.getId(), firebaseUid)
+                                );
                             });
                 });
     }
@@ -338,10 +307,11 @@ public class ChatroomService {
                             .flatMap(savedChatroom -> {
                                 // Add personal chatroom to user's collection
                                 UserChatroom userChatroom = new UserChatroom(savedChatroom.getId(), Timestamp.now());
-                                user.getChatrooms().add(userChatroom);
-                                user.setUpdatedAt(Timestamp.now());
 
-                                return userRepository.save(user).then();
+                                return Mono.when(
+                                        userRepository.addChatroom(firebaseUid, userChatroom),
+                                        chatroomMemberRepository.addMember(savedChatroom.getId(), firebaseUid)
+                                );
                             })
                             .doOnSuccess(v -> log.info("👤 Successfully created personal chatroom for user {}", firebaseUid));
                 });
@@ -1,8 +1,11 @@
 package io.shrouded.okara.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.cloud.Timestamp;
 import io.shrouded.okara.model.User;
 import io.shrouded.okara.security.FirebaseAuthenticationToken;
+import io.shrouded.okara.security.FirebasePrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
@@ -12,17 +15,83 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CurrentUserService {
 
+    private static final long KNOWN_USERS_MAXIMUM_SIZE = 100_000;
+    private static final Duration KNOWN_USERS_TTL = Duration.ofMinutes(10);
+
     private final UserService userService;
 
+    // UIDs whose User document this instance has seen or created; concurrent first requests share one lookup
+    private final AsyncCache<String, Boolean> knownUsers = Caffeine.newBuilder()
+                                                                   .maximumSize(KNOWN_USERS_MAXIMUM_SIZE)
+                                                                   .expireAfterWrite(KNOWN_USERS_TTL)
+                                                                   .buildAsync();
+
     /**
-     * Get or create the current user (reactive).
+     * Get or create the current user (reactive). Reads the User document; endpoints that only
+     * need the caller's ID should use getCurrentUserId() instead.
      */
     public Mono<User> getCurrentUser() {
+        return currentAuthentication().flatMap(this::resolveUserFromAuthentication);
+    }
+
+    /**
+     * Get the current caller straight from the verified token, without any Firestore read.
+     */
+    public Mono<FirebasePrincipal> getCurrentPrincipal() {
+        return currentAuthentication()
+                .flatMap(authentication -> {
+                    if (authentication instanceof FirebaseAuthenticationToken firebaseAuth
+                            && firebaseAuth.getId() != null && !firebaseAuth.getId().isBlank()) {
+                        return Mono.just(firebaseAuth.getPrincipal());
+                    }
+                    return Mono.error(new RuntimeException("User not authenticated"));
+                });
+    }
+
+    /**
+     * Get current user's ID (reactive), without any Firestore read.
+     */
+    public Mono<String> getCurrentUserId() {
+        return getCurrentPrincipal().map(FirebasePrincipal::uid);
+    }
+
+    /**
+     * Get current user's ID once their User document exists, creating it on first sight like
+     * getCurrentUser(). Endpoints that read or write the caller's User document must use this
+     * instead of getCurrentUserId(); users this instance already saw cost no read.
+     */
+    public Mono<String> getCurrentUserIdEnsuringUser() {
+        return currentAuthentication()
+                .flatMap(authentication -> {
+                    if (!(authentication instanceof FirebaseAuthenticationToken firebaseAuth)
+                            || firebaseAuth.getId() == null || firebaseAuth.getId().isBlank()) {
+                        return Mono.error(new RuntimeException("User not authenticated"));
+                    }
+                    // The lookup is subscribed outside this request's context, so it gets the authentication passed in
+                    String uid = firebaseAuth.getId();
+                    return Mono.fromFuture(() -> knownUsers.get(uid, (key, executor) ->
+                                       resolveUserFromAuthentication(authentication).thenReturn(true).toFuture()), true)
+                               .thenReturn(uid);
+                });
+    }
+
+    /**
+     * Forget that the user's document exists, so the next request creates it again
+     */
+    public void forgetUser(String firebaseUid) {
+        knownUsers.synchronous().invalidate(firebaseUid);
+    }
+
+    /* -------------------- Helpers -------------------- */
+
+    private Mono<Authentication> currentAuthentication() {
         // Try reactive context first (for WebFlux)
         return ReactiveSecurityContextHolder.getContext()
                                             .map(SecurityContext::getAuthentication)
@@ -37,25 +106,15 @@ public class CurrentUserService {
                                                     return Mono.just(auth);
                                                 }
                                                 return Mono.error(new RuntimeException("User not authenticated"));
-                                            }))
-                                            .flatMap(this::resolveUserFromAuthentication);
+                                            }));
     }
 
-    /**
-     * Get current user's ID (reactive).
-     */
-    public Mono<String> getCurrentUserId() {
-        return getCurrentUser().map(User::getId);
-    }
-
-    /* -------------------- Helpers -------------------- */
-
     private Mono<User> resolveUserFromAuthentication(Authentication authentication) {
         log.info("Resolving user from authentication: {} (type: {})",
                  authentication.getPrincipal(), authentication.getClass().getSimpleName());
 
         if (authentication instanceof FirebaseAuthenticationToken firebaseAuth) {
-            final String firebaseUid = firebaseAuth.getPrincipal().toString();
+            final String firebaseUid = firebaseAuth.getId();
             log.info("Firebase auth token - UID: {}, Name: {}", firebaseUid, firebaseAuth.getName());
 
             if (firebaseUid == null || firebaseUid.isBlank()) {
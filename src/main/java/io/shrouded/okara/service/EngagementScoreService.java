@@ -0,0 +1,93 @@
+package io.shrouded.okara.service;
+
+import com.google.cloud.Timestamp;
+import io.shrouded.okara.model.Feed;
+import io.shrouded.okara.repository.FeedRepository;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps a post's comment score and distinct commenter count up to date incrementally.
+ * <p>
+ * Each comment create or delete changes one per-commenter count and applies the resulting
+ * difference in that commenter's contribution to the post, so no comment scan is needed. Posts
+ * from before this was kept are rebuilt from their comments on their first comment change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EngagementScoreService {
+
+    /**
+     * Post age that weighs as much as a tenfold difference in engagement (12.5 hours)
+     */
+    public static final double HOT_SCORE_DECAY_SECONDS = 45_000;
+
+    private final FeedRepository feedRepository;
+
+    /**
+     * Count the comment towards the post's score, committing the other writes together with it
+     */
+    public Mono<Void> recordComment(String postId, String commenterId, String commentId, WriteOp... alongside) {
+        return feedRepository.updateCommenterCount(postId, commenterId, commentId, 1, EngagementScoreService::commenterScore,
+                                                   alongside)
+                             .doOnSuccess(before -> log.debug("Recorded comment {} of user {} on post {}",
+                                                              before + 1, commenterId, postId))
+                             .then();
+    }
+
+    /**
+     * Take the comment out of the post's score, committing the other writes together with it
+     */
+    public Mono<Void> removeComment(String postId, String commenterId, String commentId, WriteOp... alongside) {
+        return feedRepository.updateCommenterCount(postId, commenterId, commentId, -1, EngagementScoreService::commenterScore,
+                                                   alongside)
+                             .then();
+    }
+
+    /**
+     * Comment score contributed by one commenter with the given number of comments, with
+     * diminishing returns: 2.0 for the first, 1.0 for the second and 0.5 for each further one
+     */
+    public static double commenterScore(long comments) {
+        double score = 0.0;
+        if (comments >= 1) {
+            score += 2.0;                   // first
+        }
+        if (comments >= 2) {
+            score += 1.0;                   // second
+        }
+        if (comments >= 3) {
+            score += (comments - 2) * 0.5;  // third+
+        }
+        return score;
+    }
+
+    /**
+     * engagement = likes*1.0 + commentScore
+     */
+    public double engagement(Feed post) {
+        double score = 0.0;
+        score += valueOrZero(post.getLikesCount()) * 1.0;
+        score += post.getCommentScore() != null ? post.getCommentScore() : 0.0;
+        return score;
+    }
+
+    /**
+     * Time-independent rank: log10(max(engagement, 1)) + createdAt / HOT_SCORE_DECAY_SECONDS.
+     * Comparing two posts by this value gives the same order as comparing
+     * engagement * 10^(-age / HOT_SCORE_DECAY_SECONDS) at any instant, so the stored value
+     * never goes stale and only has to change when engagement does.
+     */
+    public double hotScore(Feed post) {
+        Timestamp createdAt = post.getCreatedAt() != null ? post.getCreatedAt() : Timestamp.now();
+        return Math.log10(Math.max(engagement(post), 1.0)) + createdAt.getSeconds() / HOT_SCORE_DECAY_SECONDS;
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,168 @@
+package io.shrouded.okara.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.shrouded.okara.config.FeedCounterProperties;
+import io.shrouded.okara.enums.FeedCounter;
+import io.shrouded.okara.repository.FeedRepository;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies post counter changes as server side increments instead of read-modify-write.
+ * <p>
+ * Posts that receive more than the configured number of counter writes within the hot window
+ * spread further increments over sharded counter documents so no single document takes the
+ * whole write rate. Shards are periodically rolled up into the post's display fields; the sum
+ * of the display value and its shards is the exact count at all times.
+ * <p>
+ * Posts sharded by this instance are rolled up from memory on a short interval. Every shard write
+ * also flags the shard as dirty in Firestore, and a slower sweep rolls up all flagged shards, so
+ * increments left behind by an instance that stopped before its roll-up are still folded in.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FeedCounterService {
+
+    private final FeedRepository feedRepository;
+    private final FeedCounterProperties counterProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> recentWrites = new ConcurrentHashMap<>();
+    private final Set<String> dirtyPosts = ConcurrentHashMap.newKeySet();
+
+    private Counter directWrites;
+    private Counter shardedWrites;
+    private Counter rollups;
+    private Disposable hotWindowReset;
+    private Disposable rollupSchedule;
+    private Disposable sweepSchedule;
+
+    @PostConstruct
+    public void start() {
+        directWrites = meterRegistry.counter("okara.feed.counters.writes", "mode", "direct");
+        shardedWrites = meterRegistry.counter("okara.feed.counters.writes", "mode", "sharded");
+        rollups = meterRegistry.counter("okara.feed.counters.rollups");
+        meterRegistry.gauge("okara.feed.counters.dirty.posts", dirtyPosts, Set::size);
+
+        hotWindowReset = Flux.interval(counterProperties.getHotWindow())
+                             .subscribe(tick -> recentWrites.clear());
+        rollupSchedule = Flux.interval(counterProperties.getRollupInterval())
+                             .onBackpressureDrop()
+                             .concatMap(tick -> rollUpDirtyPosts(), 1)
+                             .subscribe();
+        sweepSchedule = Flux.interval(counterProperties.getSweepInterval())
+                            .onBackpressureDrop()
+                            .concatMap(tick -> sweepDirtyShards(), 1)
+                            .subscribe();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hotWindowReset.dispose();
+        rollupSchedule.dispose();
+        sweepSchedule.dispose();
+        try {
+            rollUpDirtyPosts().block(Duration.ofSeconds(10));
+        } catch (RuntimeException e) {
+            log.warn("Failed to roll up counter shards on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public Mono<Void> increment(String postId, FeedCounter counter, long delta) {
+        return increment(postId, Map.of(counter, delta));
+    }
+
+    /**
+     * Apply all deltas to the post in one write, either on the post itself or on a random shard
+     */
+    public Mono<Void> increment(String postId, Map<FeedCounter, Long> deltas) {
+        if (isHot(postId)) {
+            int shard = ThreadLocalRandom.current().nextInt(counterProperties.getShards());
+            return feedRepository.incrementCounterShard(postId, shard, deltas)
+                                 .doOnSuccess(v -> {
+                                     shardedWrites.increment();
+                                     dirtyPosts.add(postId);
+                                 });
+        }
+        return feedRepository.incrementCounters(postId, deltas)
+                             .doOnSuccess(v -> directWrites.increment());
+    }
+
+    /**
+     * The same increment as a write for callers that commit it together with other writes, e.g.
+     * inside a transaction; call committed once it has been committed
+     */
+    public WriteOp incrementOp(String postId, Map<FeedCounter, Long> deltas) {
+        if (isHot(postId)) {
+            int shard = ThreadLocalRandom.current().nextInt(counterProperties.getShards());
+            shardedWrites.increment();
+            // Marked before the commit; rolling up a post whose shards did not change is a no-op
+            dirtyPosts.add(postId);
+            return feedRepository.counterIncrement(postId, shard, deltas);
+        }
+        directWrites.increment();
+        return feedRepository.counterIncrement(postId, null, deltas);
+    }
+
+    public Mono<Void> committed(String postId) {
+        return feedRepository.evictCached(postId);
+    }
+
+    /**
+     * Remove all shard documents of a deleted post
+     */
+    public Mono<Void> deleteShards(String postId) {
+        dirtyPosts.remove(postId);
+        return feedRepository.deleteCounterShards(postId);
+    }
+
+    private boolean isHot(String postId) {
+        return recentWrites.computeIfAbsent(postId, id -> new AtomicInteger())
+                           .incrementAndGet() > counterProperties.getHotThreshold();
+    }
+
+    private Mono<Void> rollUpDirtyPosts() {
+        List<String> postIds = new ArrayList<>(dirtyPosts);
+        postIds.forEach(dirtyPosts::remove);
+        return Flux.fromIterable(postIds)
+                   .concatMap(this::rollUp)
+                   .then();
+    }
+
+    private Mono<Void> sweepDirtyShards() {
+        return feedRepository.findPostIdsWithDirtyCounterShards()
+                             .concatMap(this::rollUp)
+                             .then();
+    }
+
+    private Mono<Void> rollUp(String postId) {
+        return feedRepository.rollUpCounterShards(postId)
+                             .doOnSuccess(v -> {
+                                 rollups.increment();
+                                 log.debug("Rolled up counter shards of post {}", postId);
+                             })
+                             .onErrorResume(e -> {
+                                 // The shards stay flagged, so the next sweep tries again
+                                 log.warn("Failed to roll up counter shards of post {}: {}", postId, e.getMessage());
+                                 return Mono.empty();
+                             });
+    }
+}
@@ -0,0 +1,34 @@
+package io.shrouded.okara.service;
+
+import io.shrouded.okara.config.FeedFanoutProperties;
+import io.shrouded.okara.model.Chatroom;
+import io.shrouded.okara.repository.ChatroomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decides how posts of a chatroom reach its members: small rooms are pushed into every member's
+ * feed at write time, rooms at or above the pull threshold are merged into feeds at read time.
+ */
+@Component
+@RequiredArgsConstructor
+public class FeedDeliveryPolicy {
+
+    private final ChatroomRepository chatroomRepository;
+    private final FeedFanoutProperties fanoutProperties;
+
+    public boolean isPulled(Chatroom chatroom) {
+        Integer participants = chatroom.getParticipantCount();
+        return participants != null && participants >= fanoutProperties.getPullThreshold();
+    }
+
+    /**
+     * Unknown chatrooms are treated as pushed
+     */
+    public Mono<Boolean> isPulled(String chatroomId) {
+        return chatroomRepository.findById(chatroomId)
+                                 .map(this::isPulled)
+                                 .defaultIfEmpty(false);
+    }
+}
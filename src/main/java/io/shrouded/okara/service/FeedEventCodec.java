@@ -0,0 +1,212 @@
+package io.shrouded.okara.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.shrouded.okara.config.FeedEventBusProperties;
+import io.shrouded.okara.dto.event.FeedEvent;
+import io.shrouded.okara.dto.event.FeedEventMetadata;
+import io.shrouded.okara.enums.FeedEventEncoding;
+import io.shrouded.okara.enums.FeedEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format of feed events.
+ * <p>
+ * The binary format only carries what consumers read: a format version, the event type, the
+ * event, post, author, follower and target user IDs and the chatroom IDs. Strings are written
+ * as a signed 16-bit byte length (-1 for null) followed by UTF-8 bytes. Post content and
+ * metadata are left out because consumers read the post itself.
+ * <p>
+ * Decoding also accepts the previous JSON format, recognised by its leading '{', so events that
+ * are already queued or published by older instances keep working. feed.events.encoding=JSON
+ * keeps writing JSON while older consumers are still running.
+ */
+@Component
+@RequiredArgsConstructor
+public class FeedEventCodec {
+
+    private static final byte VERSION = 1;
+    private static final short NULL_LENGTH = -1;
+
+    private final ObjectMapper objectMapper;
+    private final FeedEventBusProperties busProperties;
+
+    public byte[] encode(FeedEvent event) {
+        if (busProperties.getEncoding() == FeedEventEncoding.JSON) {
+            return encodeJson(event);
+        }
+        return encodeBinary(event);
+    }
+
+    public FeedEvent decode(byte[] bytes) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Empty feed event");
+        }
+        if (bytes[0] == '{') {
+            return decodeJson(bytes);
+        }
+        if (bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported feed event version " + bytes[0]);
+        }
+        return decodeBinary(bytes);
+    }
+
+    byte[] encodeJson(FeedEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to serialize feed event", e);
+        }
+    }
+
+    byte[] encodeBinary(FeedEvent event) {
+        FeedEventMetadata metadata = event.getMetadata();
+        byte[] eventId = utf8(event.getEventId());
+        byte[] postId = utf8(event.getPostId());
+        byte[] authorId = utf8(event.getAuthorId());
+        byte[] followerId = utf8(metadata != null ? metadata.followerId() : null);
+        byte[] targetUserId = utf8(metadata != null ? targetUserId(event.getEventType(), metadata) : null);
+        List<byte[]> chatroomIds = event.getChatroomIds() != null ? new ArrayList<>(event.getChatroomIds().size()) : null;
+        if (chatroomIds != null) {
+            event.getChatroomIds().forEach(id -> chatroomIds.add(utf8(id)));
+        }
+
+        int size = 2 * Byte.BYTES + sizeOf(eventId) + sizeOf(postId) + sizeOf(authorId)
+                + sizeOf(followerId) + sizeOf(targetUserId) + Short.BYTES;
+        if (chatroomIds != null) {
+            for (byte[] id : chatroomIds) {
+                size += sizeOf(id);
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                                      .put(VERSION)
+                                      .put(typeCode(event.getEventType()));
+        put(buffer, eventId);
+        put(buffer, postId);
+        put(buffer, authorId);
+        put(buffer, followerId);
+        put(buffer, targetUserId);
+        if (chatroomIds == null) {
+            buffer.putShort(NULL_LENGTH);
+        } else {
+            buffer.putShort(checkedLength(chatroomIds.size()));
+            chatroomIds.forEach(id -> put(buffer, id));
+        }
+        return buffer.array();
+    }
+
+    private FeedEvent decodeJson(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, FeedEvent.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to parse feed event", e);
+        }
+    }
+
+    private FeedEvent decodeBinary(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            FeedEventType type = eventType(buffer.get());
+            String eventId = string(buffer);
+            String postId = string(buffer);
+            String authorId = string(buffer);
+            String followerId = string(buffer);
+            String targetUserId = string(buffer);
+            short chatroomCount = buffer.getShort();
+            List<String> chatroomIds = null;
+            if (chatroomCount != NULL_LENGTH) {
+                chatroomIds = new ArrayList<>(chatroomCount);
+                for (int i = 0; i < chatroomCount; i++) {
+                    chatroomIds.add(string(buffer));
+                }
+            }
+
+            return FeedEvent.builder()
+                            .eventId(eventId)
+                            .eventType(type)
+                            .postId(postId)
+                            .authorId(authorId)
+                            .chatroomIds(chatroomIds)
+                            .metadata(switch (type) {
+                                case USER_FOLLOWED -> FeedEventMetadata.forFollow(followerId, targetUserId);
+                                case USER_UNFOLLOWED -> FeedEventMetadata.forUnfollow(followerId, targetUserId);
+                                default -> null;
+                            })
+                            .build();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated feed event", e);
+        }
+    }
+
+    private static String targetUserId(FeedEventType type, FeedEventMetadata metadata) {
+        return type == FeedEventType.USER_UNFOLLOWED ? metadata.unfollowedId() : metadata.followedId();
+    }
+
+    // Stable codes, independent of the enum's declaration order
+    private static byte typeCode(FeedEventType type) {
+        return switch (type) {
+            case POST_CREATED -> 1;
+            case POST_UPDATED -> 2;
+            case POST_DELETED -> 3;
+            case USER_FOLLOWED -> 4;
+            case USER_UNFOLLOWED -> 5;
+            case POST_CROSS_POSTED -> 6;
+        };
+    }
+
+    private static FeedEventType eventType(byte code) {
+        return switch (code) {
+            case 1 -> FeedEventType.POST_CREATED;
+            case 2 -> FeedEventType.POST_UPDATED;
+            case 3 -> FeedEventType.POST_DELETED;
+            case 4 -> FeedEventType.USER_FOLLOWED;
+            case 5 -> FeedEventType.USER_UNFOLLOWED;
+            case 6 -> FeedEventType.POST_CROSS_POSTED;
+            default -> throw new IllegalArgumentException("Unknown feed event type code " + code);
+        };
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int sizeOf(byte[] value) {
+        return Short.BYTES + (value != null ? value.length : 0);
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort(NULL_LENGTH);
+        } else {
+            buffer.putShort(checkedLength(value.length)).put(value);
+        }
+    }
+
+    private static String string(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static short checkedLength(int length) {
+        if (length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Feed event field too long: " + length);
+        }
+        return (short) length;
+    }
+}
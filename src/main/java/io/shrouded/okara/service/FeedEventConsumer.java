@@ -0,0 +1,121 @@
+package io.shrouded.okara.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.shrouded.okara.config.FeedPubSubProperties;
+import io.shrouded.okara.dto.event.FeedEvent;
+import io.shrouded.okara.model.ProcessedFeedEvent;
+import io.shrouded.okara.repository.ProcessedFeedEventRepository;
+import io.shrouded.okara.util.KeyedLanes;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs consumed feed events on a fixed number of serial lanes partitioned by event key.
+ * <p>
+ * Post events are keyed by post ID and follow events by the follower whose feed they change, so
+ * events for the same key are processed in arrival order while different keys run in parallel.
+ * How many messages are outstanding at once is bounded by the subscriber's flow control.
+ * <p>
+ * Delivery is at least once, so processed event IDs are remembered for the configured TTL and
+ * redelivered events are acknowledged without running again. The check runs on the event's lane,
+ * so a redelivery that arrives while the first delivery is still running waits for it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FeedEventConsumer {
+
+    private final FeedFanoutService feedFanoutService;
+    private final FeedEventCodec feedEventCodec;
+    private final ProcessedFeedEventRepository processedFeedEventRepository;
+    private final FeedPubSubProperties pubSubProperties;
+    private final MeterRegistry meterRegistry;
+
+    private KeyedLanes lanes;
+    private Counter processed;
+    private Counter failed;
+    private Counter duplicates;
+    private Cache<String, Boolean> recentlyProcessed;
+
+    @PostConstruct
+    public void start() {
+        lanes = new KeyedLanes("okara.feed.events.lanes", pubSubProperties.getConsumerLanes(), meterRegistry);
+        processed = meterRegistry.counter("okara.feed.events.consumed", "result", "success");
+        failed = meterRegistry.counter("okara.feed.events.consumed", "result", "failure");
+        duplicates = meterRegistry.counter("okara.feed.events.consumed", "result", "duplicate");
+        recentlyProcessed = Caffeine.newBuilder()
+                                    .maximumSize(pubSubProperties.getProcessedEventCacheSize())
+                                    .expireAfterWrite(pubSubProperties.getProcessedEventTtl())
+                                    .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.shutdown();
+    }
+
+    /**
+     * Queue the event on its key's lane; completes once it has been processed
+     */
+    public Mono<Void> consume(byte[] payload) {
+        return Mono.fromCallable(() -> feedEventCodec.decode(payload))
+                   .doOnError(e -> log.error("Failed to decode feed event: {}", e.getMessage()))
+                   .flatMap(event -> lanes.submit(partitionKey(event), () -> processOnce(event)))
+                   .doOnError(e -> failed.increment());
+    }
+
+    private Mono<Void> processOnce(FeedEvent event) {
+        String eventId = event.getEventId();
+        if (eventId == null) {
+            // Published before events carried IDs
+            return process(event);
+        }
+        if (recentlyProcessed.getIfPresent(eventId) != null) {
+            return skipDuplicate(event);
+        }
+        return processedFeedEventRepository.exists(eventId)
+                                           .flatMap(done -> done
+                                                   ? skipDuplicate(event)
+                                                   : process(event).then(markProcessed(event)));
+    }
+
+    private Mono<Void> process(FeedEvent event) {
+        return feedFanoutService.processFeedEvent(event)
+                                .doOnSuccess(v -> processed.increment());
+    }
+
+    private Mono<Void> markProcessed(FeedEvent event) {
+        recentlyProcessed.put(event.getEventId(), Boolean.TRUE);
+        return processedFeedEventRepository.save(new ProcessedFeedEvent(event.getEventId(),
+                                                                        event.getEventType().name(),
+                                                                        pubSubProperties.getProcessedEventTtl()))
+                                           .then()
+                                           .onErrorResume(e -> {
+                                               // The event was handled; without the marker a redelivery only repeats idempotent writes
+                                               log.warn("Failed to record processed feed event {}: {}", event.getEventId(), e.getMessage());
+                                               return Mono.empty();
+                                           });
+    }
+
+    private Mono<Void> skipDuplicate(FeedEvent event) {
+        duplicates.increment();
+        log.debug("Skipping already processed {} event {}", event.getEventType(), event.getEventId());
+        return Mono.empty();
+    }
+
+    static String partitionKey(FeedEvent event) {
+        return switch (event.getEventType()) {
+            case POST_CREATED, POST_UPDATED, POST_DELETED, POST_CROSS_POSTED -> event.getPostId();
+            case USER_FOLLOWED, USER_UNFOLLOWED -> event.getMetadata() != null
+                    ? event.getMetadata().followerId()
+                    : event.getAuthorId();
+        };
+    }
+}
@@ -1,135 +1,205 @@
 package io.shrouded.okara.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.Timestamp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.shrouded.okara.config.FeedPubSubProperties;
 import io.shrouded.okara.dto.event.FeedEvent;
 import io.shrouded.okara.dto.event.FeedEventMetadata;
 import io.shrouded.okara.enums.FeedEventType;
 import io.shrouded.okara.model.Feed;
+import io.shrouded.okara.model.OutboxEvent;
+import io.shrouded.okara.repository.OutboxEventRepository;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
+import io.shrouded.okara.util.TimestampUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.messaging.MessageChannel;
-import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
-
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes feed events through a transactional outbox.
+ * <p>
+ * Callers commit the event's outbox entry together with the change that produced it, then hand
+ * the event to dispatch(). Dispatched events wait in a bounded in-memory queue and are published
+ * in the background through the configured FeedEventTransport, so request latency never includes
+ * the broker; the outbox entry is deleted once the transport accepts the event. Entries that are still in the outbox after the sweep age, because
+ * the queue was full, the publish failed or the instance stopped, are published by a periodic
+ * sweep. Delivery is at least once.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FeedEventPublisher {
 
-    @Qualifier("feedEventsOutputChannel")
-    private final MessageChannel feedEventsOutputChannel;
-
-    private final ObjectMapper objectMapper;
-
-    public void publishPostCreated(Feed post) {
-        try {
-            FeedEvent event = FeedEvent.builder()
-                                       .eventType(FeedEventType.POST_CREATED)
-                                       .postId(post.getId())
-                                       .authorId(post.getAuthorId())
-                                       .authorUsername(post.getAuthorDisplayName())
-                                       .content(post.getContent())
-                                       .createdAt(post.getCreatedAt().toString())
-                                       .chatroomIds(post.getChatroomIds()) // Include chatrooms for distribution
-                                       .metadata(createMetadata(post))
-                                       .build();
-
-            publishEvent(event);
-            log.info("Published POST_CREATED event for post {} by user {} to chatrooms {}", 
-                    post.getId(), post.getAuthorId(), post.getChatroomIds());
-
-        } catch (Exception e) {
-            log.error("Failed to publish POST_CREATED event for post {}: {}", post.getId(), e.getMessage());
-            throw new RuntimeException("Failed to publish feed event", e);
-        }
+    private final FeedEventTransport transport;
+    private final OutboxEventRepository outboxEventRepository;
+    private final FeedPubSubProperties pubSubProperties;
+    private final FeedEventCodec feedEventCodec;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private Sinks.Many<OutboxEvent> queue;
+    private Counter published;
+    private Counter publishFailures;
+    private Counter overflows;
+    private Counter swept;
+    private Timer publishLag;
+    private Disposable publishing;
+    private Disposable sweeping;
+
+    @PostConstruct
+    public void start() {
+        published = meterRegistry.counter("okara.feed.events.published", "result", "success");
+        publishFailures = meterRegistry.counter("okara.feed.events.published", "result", "failure");
+        overflows = meterRegistry.counter("okara.feed.events.publish.overflow");
+        swept = meterRegistry.counter("okara.feed.events.outbox.swept");
+        publishLag = meterRegistry.timer("okara.feed.events.publish.lag");
+        meterRegistry.gauge("okara.feed.events.publish.queued", queued);
+
+        queue = Sinks.many().unicast().onBackpressureBuffer(
+                Queues.<OutboxEvent>get(pubSubProperties.getPublishQueueCapacity()).get());
+        publishing = queue.asFlux()
+                          .doOnNext(event -> queued.decrementAndGet())
+                          .flatMap(this::send, pubSubProperties.getMaxInFlightPublishes())
+                          .subscribe();
+        sweeping = Flux.interval(pubSubProperties.getOutboxSweepInterval())
+                       .onBackpressureDrop()
+                       .concatMap(tick -> sweep(), 1)
+                       .subscribe();
     }
 
-    public void publishPostUpdated(Feed post) {
-        try {
-            FeedEvent event = FeedEvent.builder()
-                                       .eventType(FeedEventType.POST_UPDATED)
-                                       .postId(post.getId())
-                                       .authorId(post.getAuthorId())
-                                       .authorUsername(post.getAuthorDisplayName())
-                                       .content(post.getContent())
-                                       .createdAt(post.getCreatedAt().toString())
-                                       .chatroomIds(post.getChatroomIds()) // Include chatrooms for distribution
-                                       .metadata(createMetadata(post))
-                                       .build();
-
-            publishEvent(event);
-            log.info("Published POST_UPDATED event for post {} by user {} to chatrooms {}", 
-                    post.getId(), post.getAuthorId(), post.getChatroomIds());
-
-        } catch (Exception e) {
-            log.error("Failed to publish POST_UPDATED event for post {}: {}", post.getId(), e.getMessage());
-            throw new RuntimeException("Failed to publish feed event", e);
-        }
+    @PreDestroy
+    public void shutdown() {
+        sweeping.dispose();
+        // Publishes already in flight may finish; anything else stays in the outbox for the next sweep
+        queue.tryEmitComplete();
+        publishing.dispose();
     }
 
-    public void publishPostDeleted(String postId, String authorId) {
-        try {
-            FeedEvent event = FeedEvent.builder()
-                                       .eventType(FeedEventType.POST_DELETED)
-                                       .postId(postId)
-                                       .authorId(authorId)
-                                       .build();
-
-            publishEvent(event);
-            log.info("Published POST_DELETED event for post {} by user {}", postId, authorId);
+    public OutboxEvent postCreated(Feed post) {
+        return toOutbox(postEvent(FeedEventType.POST_CREATED, post));
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to publish POST_DELETED event for post {}: {}", postId, e.getMessage());
-            throw new RuntimeException("Failed to publish feed event", e);
-        }
+    /**
+     * Event delivering an existing post to the chatrooms it was just added to, and only those
+     */
+    public OutboxEvent postCrossPosted(Feed post, List<String> addedChatroomIds) {
+        return toOutbox(postEvent(FeedEventType.POST_CROSS_POSTED, post).chatroomIds(addedChatroomIds));
     }
 
-    public void publishUserFollowed(String followerId, String followedId) {
-        try {
-            FeedEvent event = FeedEvent.builder()
-                                       .eventType(FeedEventType.USER_FOLLOWED)
-                                       .authorId(followedId) // The person being followed
-                                       .metadata(FeedEventMetadata.forFollow(followerId, followedId))
-                                       .build();
+    public OutboxEvent postUpdated(Feed post) {
+        return toOutbox(postEvent(FeedEventType.POST_UPDATED, post));
+    }
 
-            publishEvent(event);
-            log.info("Published USER_FOLLOWED event: {} followed {}", followerId, followedId);
+    public OutboxEvent postDeleted(String postId, String authorId) {
+        return toOutbox(FeedEvent.builder()
+                                 .eventType(FeedEventType.POST_DELETED)
+                                 .postId(postId)
+                                 .authorId(authorId));
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to publish USER_FOLLOWED event: {}", e.getMessage());
-            throw new RuntimeException("Failed to publish feed event", e);
-        }
+    public OutboxEvent userFollowed(String followerId, String followedId) {
+        return toOutbox(FeedEvent.builder()
+                                 .eventType(FeedEventType.USER_FOLLOWED)
+                                 .authorId(followedId) // The person being followed
+                                 .metadata(FeedEventMetadata.forFollow(followerId, followedId)));
     }
 
-    public void publishUserUnfollowed(String followerId, String unfollowedId) {
-        try {
-            FeedEvent event = FeedEvent.builder()
-                                       .eventType(FeedEventType.USER_UNFOLLOWED)
-                                       .authorId(unfollowedId) // The person being unfollowed
-                                       .metadata(FeedEventMetadata.forUnfollow(followerId, unfollowedId))
-                                       .build();
+    public OutboxEvent userUnfollowed(String followerId, String unfollowedId) {
+        return toOutbox(FeedEvent.builder()
+                                 .eventType(FeedEventType.USER_UNFOLLOWED)
+                                 .authorId(unfollowedId) // The person being unfollowed
+                                 .metadata(FeedEventMetadata.forUnfollow(followerId, unfollowedId)));
+    }
 
-            publishEvent(event);
-            log.info("Published USER_UNFOLLOWED event: {} unfollowed {}", followerId, unfollowedId);
+    /**
+     * Write storing the event in the outbox, to be committed together with the change that produced it
+     */
+    public WriteOp outboxWrite(OutboxEvent event) {
+        return outboxEventRepository.saveOp(event);
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to publish USER_UNFOLLOWED event: {}", e.getMessage());
-            throw new RuntimeException("Failed to publish feed event", e);
+    /**
+     * Queue an event whose outbox entry has been committed. Never blocks; when the queue is full
+     * the event is left to the outbox sweep.
+     */
+    public void dispatch(OutboxEvent event) {
+        Sinks.EmitResult result;
+        while ((result = queue.tryEmitNext(event)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+        if (result.isSuccess()) {
+            queued.incrementAndGet();
+        } else {
+            overflows.increment();
+            log.warn("Publish queue is full, {} event {} waits for the outbox sweep",
+                     event.getEventType(), event.getId());
         }
     }
 
-    private void publishEvent(FeedEvent event) throws Exception {
-        String eventJson = objectMapper.writeValueAsString(event);
+    private Mono<Void> send(OutboxEvent event) {
+        return transport.send(event)
+                   .then(outboxEventRepository.deleteById(event.getId()))
+                   .doOnSuccess(v -> {
+                       published.increment();
+                       publishLag.record(Duration.between(TimestampUtils.toInstant(event.getCreatedAt()),
+                                                          TimestampUtils.now()));
+                       log.debug("Published {} event for post {} by user {}",
+                                 event.getEventType(), event.getPostId(), event.getAuthorId());
+                   })
+                   .onErrorResume(e -> {
+                       // The entry stays in the outbox and is retried by the sweep
+                       publishFailures.increment();
+                       log.error("Failed to publish {} event {}: {}", event.getEventType(), event.getId(), e.getMessage());
+                       return Mono.empty();
+                   });
+    }
 
-        feedEventsOutputChannel.send(
-                MessageBuilder.withPayload(eventJson)
-                              .setHeader("eventType", event.getEventType().name())
-                              .setHeader("postId", event.getPostId())
-                              .setHeader("authorId", event.getAuthorId())
-                              .setHeader("chatroomIds", event.getChatroomIds()) // Include chatroom IDs in headers
-                              .build()
-        );
+    private Mono<Void> sweep() {
+        Instant cutoff = TimestampUtils.now().minus(pubSubProperties.getOutboxSweepAge());
+        Timestamp before = Timestamp.ofTimeSecondsAndNanos(cutoff.getEpochSecond(), cutoff.getNano());
+        return outboxEventRepository.findCreatedBefore(before, pubSubProperties.getOutboxSweepBatchSize())
+                                    .flatMapIterable(events -> events)
+                                    .doOnNext(event -> swept.increment())
+                                    .flatMap(this::send, pubSubProperties.getMaxInFlightPublishes())
+                                    .then()
+                                    .onErrorResume(e -> {
+                                        log.warn("Failed to sweep feed event outbox: {}", e.getMessage());
+                                        return Mono.empty();
+                                    });
+    }
+
+    private OutboxEvent toOutbox(FeedEvent.FeedEventBuilder builder) {
+        // The outbox entry ID doubles as the event ID consumers deduplicate on
+        FeedEvent event = builder.eventId(outboxEventRepository.newId()).build();
+        return new OutboxEvent(event.getEventId(), event.getEventType().name(),
+                               event.getPostId(), event.getAuthorId(), feedEventCodec.encode(event));
+    }
+
+    private FeedEvent.FeedEventBuilder postEvent(FeedEventType type, Feed post) {
+        return FeedEvent.builder()
+                        .eventType(type)
+                        .postId(post.getId())
+                        .authorId(post.getAuthorId())
+                        .authorUsername(post.getAuthorDisplayName())
+                        .content(post.getContent())
+                        .createdAt(post.getCreatedAt().toString())
+                        .chatroomIds(post.getChatroomIds()) // Include chatrooms for distribution
+                        .metadata(createMetadata(post));
     }
 
     private FeedEventMetadata createMetadata(Feed post) {
@@ -146,4 +216,4 @@ public class FeedEventPublisher {
             post.getParentId()
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package io.shrouded.okara.service;
+
+import io.shrouded.okara.model.OutboxEvent;
+import reactor.core.publisher.Mono;
+
+/**
+ * Carries serialized feed events from FeedEventPublisher to FeedEventConsumer. The implementation
+ * is selected with feed.events.transport.
+ */
+public interface FeedEventTransport {
+
+    /**
+     * Hand the event over; once this completes the transport is responsible for delivering it
+     * and the event's outbox entry may be deleted
+     */
+    Mono<Void> send(OutboxEvent event);
+}
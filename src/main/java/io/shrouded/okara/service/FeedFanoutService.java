@@ -1,12 +1,12 @@
 package io.shrouded.okara.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.cloud.Timestamp;
+import io.shrouded.okara.config.FeedFanoutProperties;
 import io.shrouded.okara.dto.event.FeedEvent;
+import io.shrouded.okara.model.ChatroomMember;
 import io.shrouded.okara.model.Feed;
 import io.shrouded.okara.model.FeedItem;
-import io.shrouded.okara.model.User;
 import io.shrouded.okara.model.UserFeed;
+import io.shrouded.okara.repository.ChatroomMemberRepository;
 import io.shrouded.okara.repository.FeedRepository;
 import io.shrouded.okara.repository.UserFeedRepository;
 import io.shrouded.okara.repository.UserRepository;
@@ -17,7 +17,9 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -26,15 +28,18 @@ public class FeedFanoutService {
 
     private final UserFeedRepository userFeedRepository;
     private final UserRepository userRepository;
+    private final ChatroomMemberRepository chatroomMemberRepository;
+    private final FeedItemBatchWriter feedItemBatchWriter;
+    private final FeedFanoutProperties fanoutProperties;
     private final FeedRepository feedRepository;
-    private final ObjectMapper objectMapper;
+    private final FeedDeliveryPolicy deliveryPolicy;
+    private final TrendingHashtagService trendingHashtagService;
 
-    public Mono<Void> processFeedEvent(String eventJson) {
+    public Mono<Void> processFeedEvent(FeedEvent event) {
         try {
-            FeedEvent event = objectMapper.readValue(eventJson, FeedEvent.class);
-
             return switch (event.getEventType()) {
                 case POST_CREATED -> handlePostCreated(event);
+                case POST_CROSS_POSTED -> handlePostCrossPosted(event);
                 case POST_UPDATED -> handlePostUpdated(event);
                 case POST_DELETED -> handlePostDeleted(event);
                 case USER_FOLLOWED -> handleUserFollowed(event);
@@ -57,25 +62,45 @@ public class FeedFanoutService {
             return Mono.error(new RuntimeException("Chatrooms are required for post distribution"));
         }
 
+        // A post deleted before its event arrived has nothing left to deliver; a failed fanout is
+        // propagated so the event is delivered again instead of reaching only part of the members
         return feedRepository.findById(event.getPostId())
-                             .switchIfEmpty(Mono.error(new RuntimeException("Post not found: " + event.getPostId())))
-                             .flatMap(post -> fanoutToChatrooms(post, event.getChatroomIds()))
-                             .onErrorResume(e -> {
-                                 log.error("Failed to handle POST_CREATED event: {}", e.getMessage());
+                             .switchIfEmpty(Mono.defer(() -> {
+                                 log.warn("Post {} not found, skipping POST_CREATED fanout", event.getPostId());
                                  return Mono.empty();
-                             });
+                             }))
+                             // Counted once the fanout succeeded, so a redelivered event does not count it again
+                             .flatMap(post -> fanoutToChatrooms(post, event.getChatroomIds())
+                                     .then(Mono.fromRunnable(() -> trendingHashtagService.record(post, event.getChatroomIds()))))
+                             .doOnError(e -> log.error("Failed to handle POST_CREATED event for post {}: {}",
+                                                       event.getPostId(), e.getMessage()));
     }
 
-    private Mono<Void> handlePostUpdated(FeedEvent event) {
-        log.info("Processing POST_UPDATED event for post {}", event.getPostId());
+    private Mono<Void> handlePostCrossPosted(FeedEvent event) {
+        log.info("Processing POST_CROSS_POSTED event for post {} to added chatrooms {}",
+                event.getPostId(), event.getChatroomIds());
+
+        if (event.getChatroomIds() == null || event.getChatroomIds().isEmpty()) {
+            log.warn("No added chatrooms in POST_CROSS_POSTED event for post {}", event.getPostId());
+            return Mono.empty();
+        }
 
+        // Only the added chatrooms are counted and fanned out to; the post was already delivered to the others
         return feedRepository.findById(event.getPostId())
-                             .switchIfEmpty(Mono.error(new RuntimeException("Post not found: " + event.getPostId())))
-                             .flatMap(this::updatePostInUserFeeds)
-                             .onErrorResume(e -> {
-                                 log.error("Failed to handle POST_UPDATED event: {}", e.getMessage());
+                             .switchIfEmpty(Mono.defer(() -> {
+                                 log.warn("Post {} not found, skipping POST_CROSS_POSTED fanout", event.getPostId());
                                  return Mono.empty();
-                             });
+                             }))
+                             .flatMap(post -> fanoutToChatrooms(post, event.getChatroomIds())
+                                     .then(Mono.fromRunnable(() -> trendingHashtagService.recordCrossPost(post, event.getChatroomIds()))))
+                             .doOnError(e -> log.error("Failed to handle POST_CROSS_POSTED event for post {}: {}",
+                                                       event.getPostId(), e.getMessage()));
+    }
+
+    private Mono<Void> handlePostUpdated(FeedEvent event) {
+        // Feed items only reference the post and readers hydrate its current state, so there is nothing to rewrite
+        log.debug("Ignoring POST_UPDATED event for post {}, feeds read the current post", event.getPostId());
+        return Mono.empty();
     }
 
     private Mono<Void> handlePostDeleted(FeedEvent event) {
@@ -116,72 +141,45 @@ public class FeedFanoutService {
 
     private Mono<Void> fanoutToChatrooms(Feed post, List<String> chatroomIds) {
         log.info("Fanning out post {} to chatrooms {}", post.getId(), chatroomIds);
-        
-        // Find all users who are members of any of the specified chatrooms
-        return userRepository.findAll()
-                             .filter(user -> user.getChatrooms() != null && 
-                                           user.getChatrooms().stream()
-                                                              .anyMatch(uc -> chatroomIds.contains(uc.getChatroomId())))
-                             .buffer(50)
-                             .flatMap(userBatch -> processFanoutChatroomBatch(post, userBatch, chatroomIds))
-                             .then();
-    }
-
-    private Mono<Void> processFanoutChatroomBatch(Feed post, List<User> users, List<String> chatroomIds) {
-        log.debug("Processing chatroom fanout batch of {} users for post {} to chatrooms {}", 
-                 users.size(), post.getId(), chatroomIds);
-
-        List<Mono<UserFeed>> userFeedUpdates = new ArrayList<>();
-        
-        for (User user : users) {
-            // For each chatroom this user is in that the post was sent to
-            for (String chatroomId : chatroomIds) {
-                boolean userInChatroom = user.getChatrooms().stream()
-                                            .anyMatch(uc -> uc.getChatroomId().equals(chatroomId));
-                
-                if (userInChatroom) {
-                    // Create FeedItem for this specific chatroom
-                    FeedItem feedItem = new FeedItem(post, chatroomId);
-                    feedItem.setReasonShown("From chatroom");
-                    
-                    // Find or create user's feed and add the item
-                    Mono<UserFeed> userFeedUpdate = userFeedRepository.findByUserId(user.getId())
-                            .switchIfEmpty(Mono.fromCallable(() -> new UserFeed(user.getId())))
-                            .map(userFeed -> {
-                                userFeed.addItem(feedItem);
-                                return userFeed;
-                            })
-                            .flatMap(userFeedRepository::save);
-                    
-                    userFeedUpdates.add(userFeedUpdate);
-                    break; // Only add once per user, even if they're in multiple target chatrooms
-                }
-            }
-        }
 
-        return Mono.when(userFeedUpdates)
-                   .doOnSuccess(v -> log.debug("Successfully updated {} user feeds for chatroom fanout", userFeedUpdates.size()));
+        // Stream the members of each pushed chatroom from the membership index; a user in several
+        // target chatrooms only receives the post once, attributed to the first matching chatroom.
+        // Pulled chatrooms cost nothing here, their members read the post from the chatroom timeline.
+        return Flux.fromIterable(chatroomIds)
+                   .filterWhen(chatroomId -> deliveryPolicy.isPulled(chatroomId)
+                                                           .doOnNext(pulled -> {
+                                                               if (pulled) {
+                                                                   log.info("Skipping fanout of post {} to pulled chatroom {}",
+                                                                            post.getId(), chatroomId);
+                                                               }
+                                                           })
+                                                           .map(pulled -> !pulled))
+                   .concatMap(chatroomMemberRepository::findByChatroomId)
+                   .distinct(ChatroomMember::getUserId)
+                   .buffer(fanoutProperties.getWriteBatchSize())
+                   .flatMap(memberBatch -> processFanoutChatroomBatch(post, memberBatch))
+                   .then();
     }
 
-    private Mono<UserFeed> getUserFeed(String userId) {
-        return userFeedRepository.findByUserId(userId)
-                                 .switchIfEmpty(Mono.defer(() -> {
-                                     // Create new feed
-                                     return Mono.just(new UserFeed(userId));
-                                 }));
-    }
+    private Mono<Void> processFanoutChatroomBatch(Feed post, List<ChatroomMember> members) {
+        log.debug("Processing chatroom fanout batch of {} members for post {}", members.size(), post.getId());
 
-    private Mono<Void> updatePostInUserFeeds(Feed post) {
-        // This would be complex - you'd need to find all user feeds containing this post
-        // and update the cached data. For now, we'll log it.
-        log.info("Updating post {} in user feeds (not implemented)", post.getId());
-        return Mono.empty();
+        Map<String, FeedItem> itemsByUserId = new LinkedHashMap<>();
+        for (ChatroomMember member : members) {
+            // Create FeedItem for the chatroom this member was reached through
+            FeedItem feedItem = new FeedItem(post, member.getChatroomId());
+            feedItem.setReasonShown("From chatroom");
+            itemsByUserId.put(member.getUserId(), feedItem);
+        }
+
+        // The whole batch goes out in one bulk commit
+        return feedItemBatchWriter.write(itemsByUserId);
     }
 
     private Mono<Void> removePostFromUserFeeds(String postId) {
-        // This would require finding all user feeds containing this post and removing it
-        // For now, we'll log it.
-        log.info("Removing post {} from user feeds (not implemented)", postId);
+        // The post's tombstone was committed with the delete; feed reads skip its items and
+        // remove them lazily, see PostTombstoneService
+        log.debug("Post {} is tombstoned, its feed items are removed lazily", postId);
         return Mono.empty();
     }
 
@@ -210,12 +208,9 @@ public class FeedFanoutService {
                        }
 
                        // Add to personal feed only
-                       return getUserFeed(followerId)
-                               .flatMap(personalFeed -> {
-                                   personalFeed.addItems(feedItems);
-                                   return userFeedRepository.save(personalFeed);
-                               })
-                               .then();
+                       UserFeed backfill = new UserFeed(followerId);
+                       backfill.addItems(feedItems);
+                       return userFeedRepository.appendItems(backfill);
                    })
                    .then()
                    .onErrorResume(e -> {
@@ -227,19 +222,7 @@ public class FeedFanoutService {
     private Mono<Void> removeUserPostsFromFeed(String followerId, String unfollowedId) {
         log.info("Removing posts from user {} feed for unfollowed user {}", followerId, unfollowedId);
 
-        return userFeedRepository.findByUserId(followerId)
-                                 .flatMap(userFeed -> {
-                                     boolean modified = userFeed.getItems()
-                                                               .removeIf(item -> unfollowedId.equals(item.getAuthorId()));
-
-                                     if (modified) {
-                                         userFeed.setTotalItems(userFeed.getItems().size());
-                                         userFeed.setLastUpdated(Timestamp.now());
-                                         return userFeedRepository.save(userFeed).then();
-                                     } else {
-                                         return Mono.empty();
-                                     }
-                                 })
+        return userFeedRepository.deleteItemsByAuthorId(followerId, unfollowedId)
                                  .onErrorResume(e -> {
                                      log.error("Failed to remove posts from user {} feed: {}",
                                                followerId,
@@ -247,4 +230,4 @@ public class FeedFanoutService {
                                      return Mono.empty();
                                  });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package io.shrouded.okara.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.shrouded.okara.model.FeedItem;
+import io.shrouded.okara.model.UserFeed;
+import io.shrouded.okara.repository.UserFeedRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the feed items of one fanout batch, headed to many users, in a single bulk commit.
+ * <p>
+ * Every feed item is its own document, so there is nothing to merge per user; the saving is in
+ * submitting a whole batch of members at once instead of one commit per member. Deleted posts
+ * found in these feeds by earlier reads are removed in the same commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FeedItemBatchWriter {
+
+    private final UserFeedRepository userFeedRepository;
+    private final PostTombstoneService postTombstoneService;
+    private final MeterRegistry meterRegistry;
+
+    private Counter itemsWritten;
+    private Counter bulkCommits;
+    private DistributionSummary writesPerCommit;
+
+    @PostConstruct
+    public void start() {
+        itemsWritten = meterRegistry.counter("okara.feed.fanout.items");
+        bulkCommits = meterRegistry.counter("okara.feed.fanout.bulk.commits");
+        writesPerCommit = DistributionSummary.builder("okara.feed.fanout.bulk.writes")
+                                             .description("Feed item inserts and removals submitted in one bulk commit")
+                                             .register(meterRegistry);
+    }
+
+    /**
+     * Insert each user's item; completes once the whole batch is persisted
+     */
+    public Mono<Void> write(Map<String, FeedItem> itemsByUserId) {
+        return Mono.defer(() -> {
+            List<UserFeed> feeds = new ArrayList<>(itemsByUserId.size());
+            Map<String, Set<String>> removals = new HashMap<>();
+            int writes = 0;
+            for (Map.Entry<String, FeedItem> entry : itemsByUserId.entrySet()) {
+                UserFeed feed = new UserFeed(entry.getKey());
+                feed.addItem(entry.getValue());
+                feeds.add(feed);
+
+                Set<String> removed = postTombstoneService.takeRemovals(entry.getKey());
+                if (!removed.isEmpty()) {
+                    removals.put(entry.getKey(), removed);
+                }
+                writes += 1 + removed.size();
+            }
+
+            int submitted = writes;
+            return userFeedRepository.appendItems(feeds, removals)
+                                     .doOnSuccess(v -> {
+                                         itemsWritten.increment(feeds.size());
+                                         bulkCommits.increment();
+                                         writesPerCommit.record(submitted);
+                                         log.debug("Wrote feed items to {} feeds in one bulk commit", feeds.size());
+                                     })
+                                     .doOnError(e -> log.error("Failed to write feed items to {} feeds: {}",
+                                                               feeds.size(), e.getMessage()))
+                                     // Removals taken for a write that did not complete wait for the user's next one;
+                                     // deleting an item twice is harmless
+                                     .doOnError(e -> removals.forEach(postTombstoneService::markForRemoval))
+                                     .doOnCancel(() -> removals.forEach(postTombstoneService::markForRemoval));
+        });
+    }
+}
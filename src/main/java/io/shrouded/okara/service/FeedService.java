@@ -1,27 +1,29 @@
 package io.shrouded.okara.service;
 
 import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.FieldValue;
+import io.shrouded.okara.dto.common.CursorPage;
+import io.shrouded.okara.enums.FeedCounter;
 import io.shrouded.okara.enums.FeedType;
+import io.shrouded.okara.enums.ReactionType;
 import io.shrouded.okara.model.Feed;
+import io.shrouded.okara.model.OutboxEvent;
 import io.shrouded.okara.model.User;
 import io.shrouded.okara.repository.FeedRepository;
+import io.shrouded.okara.repository.PostReactionRepository;
 import io.shrouded.okara.repository.UserRepository;
+import io.shrouded.okara.util.ContentTokenizer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +33,11 @@ public class FeedService {
     private final FeedRepository feedRepository;
     private final UserRepository userRepository;
     private final FeedEventPublisher feedEventPublisher;
+    private final FeedCounterService feedCounterService;
+    private final PostReactionRepository postReactionRepository;
+    private final EngagementScoreService engagementScoreService;
+    private final HotScoreService hotScoreService;
+    private final PostTombstoneService postTombstoneService;
 
     /**
      * Create a main post (reactive)
@@ -45,25 +52,16 @@ public class FeedService {
                                  post.setImageUrls(imageUrls);
                                  post.setVideoUrl(videoUrl);
                                  post.setChatroomIds(chatroomIds);
-                                 post.setHashtags(extractHashtags(content));
-                                 post.setMentions(extractMentions(content));
-                                 return feedRepository.save(post)
+                                 applyTokens(post, content);
+                                 hotScoreService.initialize(post);
+                                 // The created event is committed with the post and published in the background
+                                 OutboxEvent created = feedEventPublisher.postCreated(feedRepository.assignId(post));
+                                 return feedRepository.saveWith(post, feedEventPublisher.outboxWrite(created))
+                                                      .doOnSuccess(savedPost -> feedEventPublisher.dispatch(created))
                                                       .flatMap(savedPost ->
-                                                                       userRepository.save(incrementPosts(author))
+                                                                       userRepository.incrementField(authorId, "postsCount", 1)
                                                                                      .thenReturn(savedPost)
-                                                      )
-                                                      .flatMap(this::calculateAndUpdateEngagementScore) // compute baseEngagementScore
-                                                      .flatMap(feedRepository::save)
-                                                      .doOnSuccess(savedPost -> {
-                                                          try {
-                                                              feedEventPublisher.publishPostCreated(savedPost);
-                                                          } catch (Exception e) {
-                                                              log.error(
-                                                                      "Failed to publish post created event for {}: {}",
-                                                                      savedPost.getId(),
-                                                                      e.getMessage());
-                                                          }
-                                                      });
+                                                      );
                              });
     }
 
@@ -86,32 +84,18 @@ public class FeedService {
                        comment.setAuthorProfileImageUrl(author.getProfileImageUrl());
                        comment.setParentId(parentId);
                        comment.setRootId(parentPost.getRootId() != null ? parentPost.getRootId() : parentId);
-                       comment.setHashtags(extractHashtags(content));
-                       comment.setMentions(extractMentions(content));
+                       applyTokens(comment, content);
 
+                       // The parent's updated event is committed with its comment score change
+                       OutboxEvent parentUpdated = feedEventPublisher.postUpdated(parentPost);
                        return feedRepository.save(comment)
                                             .flatMap(savedComment ->
-                                                             // Update parent post counts & engagement
-                                                             feedRepository.findById(parentId)
-                                                                           .flatMap(p -> {
-                                                                               p.setCommentsCount(p.getCommentsCount() + 1);
-                                                                               p.setUpdatedAt(Timestamp.now());
-                                                                               return updateDistinctCommentersCount(p)
-                                                                                       .flatMap(this::calculateAndUpdateEngagementScore)
-                                                                                       .flatMap(feedRepository::save)
-                                                                                       .doOnSuccess(updated -> {
-                                                                                           try {
-                                                                                               feedEventPublisher.publishPostUpdated(
-                                                                                                       updated);
-                                                                                           } catch (Exception e) {
-                                                                                               log.error(
-                                                                                                       "Failed to publish post updated event for {}: {}",
-                                                                                                       updated.getId(),
-                                                                                                       e.getMessage());
-                                                                                           }
-                                                                                       })
-                                                                                       .thenReturn(savedComment);
-                                                                           })
+                                                             // Update parent post counts & comment score
+                                                             Mono.when(feedCounterService.increment(parentId, FeedCounter.COMMENTS, 1),
+                                                                       engagementScoreService.recordComment(parentId, authorId, savedComment.getId(),
+                                                                                                            feedEventPublisher.outboxWrite(parentUpdated))
+                                                                                             .doOnSuccess(v -> feedEventPublisher.dispatch(parentUpdated)))
+                                                                 .thenReturn(savedComment)
                                             );
                    });
     }
@@ -120,50 +104,14 @@ public class FeedService {
      * Like post (toggle add-only)
      */
     public Mono<Feed> likePost(String userId, String postId) {
-        return feedRepository.findById(postId)
-                             .switchIfEmpty(Mono.error(new RuntimeException("Post not found")))
-                             .flatMap(post -> {
-                                 boolean mutated = false;
-                                 if (!post.getLikedBy().contains(userId)) {
-                                     if (post.getDislikedBy().remove(userId)) {
-                                         post.setDislikesCount(Math.max(0, post.getDislikesCount() - 1));
-                                     }
-                                     post.getLikedBy().add(userId);
-                                     post.setLikesCount(post.getLikesCount() + 1);
-                                     mutated = true;
-                                 }
-                                 if (!mutated) {
-                                     return Mono.just(post);
-                                 }
-                                 post.setUpdatedAt(Timestamp.now());
-                                 return calculateAndUpdateEngagementScore(post)
-                                         .flatMap(feedRepository::save);
-                             });
+        return react(userId, postId, ReactionType.LIKE);
     }
 
     /**
      * Dislike post (toggle add-only)
      */
     public Mono<Feed> dislikePost(String userId, String postId) {
-        return feedRepository.findById(postId)
-                             .switchIfEmpty(Mono.error(new RuntimeException("Post not found")))
-                             .flatMap(post -> {
-                                 boolean mutated = false;
-                                 if (!post.getDislikedBy().contains(userId)) {
-                                     if (post.getLikedBy().remove(userId)) {
-                                         post.setLikesCount(Math.max(0, post.getLikesCount() - 1));
-                                     }
-                                     post.getDislikedBy().add(userId);
-                                     post.setDislikesCount(post.getDislikesCount() + 1);
-                                     mutated = true;
-                                 }
-                                 if (!mutated) {
-                                     return Mono.just(post);
-                                 }
-                                 post.setUpdatedAt(Timestamp.now());
-                                 return calculateAndUpdateEngagementScore(post)
-                                         .flatMap(feedRepository::save);
-                             });
+        return react(userId, postId, ReactionType.DISLIKE);
     }
 
     /**
@@ -176,8 +124,8 @@ public class FeedService {
                                  // Retweet functionality removed - method kept for compatibility
                                  // TODO: Consider removing this method entirely
                                  post.setUpdatedAt(Timestamp.now());
-                                 return calculateAndUpdateEngagementScore(post)
-                                         .flatMap(feedRepository::save);
+                                 return feedRepository.updateFields(postId, Map.of("updatedAt", post.getUpdatedAt()))
+                                                      .thenReturn(post);
                              });
     }
 
@@ -199,34 +147,41 @@ public class FeedService {
                        qt.setAuthorDisplayName(user.getDisplayName());
                        qt.setAuthorProfileImageUrl(user.getProfileImageUrl());
                        qt.setOriginalPostId(originalPostId);
-                       qt.setHashtags(extractHashtags(comment));
-                       qt.setMentions(extractMentions(comment));
+                       applyTokens(qt, comment);
+                       hotScoreService.initialize(qt);
 
                        return feedRepository.save(qt)
                                             .flatMap(savedQT -> {
                                                 // Retweet functionality removed - quote tweet without affecting retweet count
                                                 if (true) { // Always execute the update logic for quote tweets
                                                     originalPost.setUpdatedAt(Timestamp.now());
-                                                    return calculateAndUpdateEngagementScore(originalPost)
-                                                            .flatMap(feedRepository::save)
-                                                            .thenReturn(savedQT);
+                                                    return feedRepository.updateFields(originalPostId,
+                                                                                       Map.of("updatedAt", originalPost.getUpdatedAt()))
+                                                                         .thenReturn(savedQT);
                                                 }
                                                 return Mono.just(savedQT);
                                             });
                    });
     }
 
-    public Flux<Feed> getUserFeed(String userId) {
-        return feedRepository.findByAuthorIdAndParentIdIsNull(userId);
+    public Mono<CursorPage<Feed>> getUserFeed(String userId, int limit, String cursor) {
+        return feedRepository.findPageByAuthorId(userId, cursor, limit);
+    }
+
+    public Mono<CursorPage<Feed>> getChatroomFeed(String chatroomId, int limit, String cursor) {
+        return feedRepository.findPageByChatroomId(chatroomId, cursor, limit);
     }
 
-    public Mono<List<Feed>> getChatroomFeed(String chatroomId, int limit, String sinceId) {
-        return feedRepository.findByChatroomIdsContaining(chatroomId)
-                            .collectList();
+    public Mono<CursorPage<Feed>> getTrending(int limit, String cursor) {
+        return feedRepository.findPageByHotScore(cursor, limit);
     }
 
-    public Flux<Feed> getComments(String postId) {
-        return feedRepository.findByParentId(postId);
+    public Mono<CursorPage<Feed>> getChatroomTop(String chatroomId, int limit, String cursor) {
+        return feedRepository.findPageByChatroomIdOrderByHotScore(chatroomId, cursor, limit);
+    }
+
+    public Mono<CursorPage<Feed>> getComments(String postId, int limit, String cursor) {
+        return feedRepository.findPageByParentId(postId, cursor, limit);
     }
 
     public Mono<Feed> findById(String id) {
@@ -244,179 +199,95 @@ public class FeedService {
                                      return Mono.error(new RuntimeException("Unauthorized to delete this post"));
                                  }
 
-                                 // Publish deletion event (non-fatal)
-                                 try {
-                                     feedEventPublisher.publishPostDeleted(postId, userId);
-                                 } catch (Exception e) {
-                                     log.error("Failed to publish post deleted event for {}: {}",
-                                               postId,
-                                               e.getMessage());
-                                 }
+                                 // The deletion event is committed with the delete itself. Main posts were fanned out,
+                                 // so they also get a tombstone that feed reads filter on instead of purging every feed.
+                                 OutboxEvent deleted = feedEventPublisher.postDeleted(postId, userId);
+                                 boolean fannedOut = post.getParentId() == null;
+                                 Mono<Void> deletion = (fannedOut
+                                                        ? feedRepository.deleteByIdWith(postId, feedEventPublisher.outboxWrite(deleted),
+                                                                                        postTombstoneService.tombstoneWrite(postId))
+                                                        : feedRepository.deleteByIdWith(postId, feedEventPublisher.outboxWrite(deleted)))
+                                         .doOnSuccess(v -> {
+                                             if (fannedOut) {
+                                                 postTombstoneService.recordDeleted(postId);
+                                             }
+                                             feedEventPublisher.dispatch(deleted);
+                                         });
 
                                  if (post.getParentId() != null) {
-                                     // This is a comment - delete it and update parent counts
-                                     return Mono.zip(
-                                                        // Delete the comment
-                                                        feedRepository.deleteById(postId),
-                                                        // Update parent post counts
-                                                        feedRepository.findById(post.getParentId())
-                                                                      .flatMap(parent -> {
-                                                                          parent.setCommentsCount(Math.max(0,
-                                                                                                           parent.getCommentsCount() - 1));
-                                                                          parent.setUpdatedAt(Timestamp.now());
-                                                                          return calculateAndUpdateEngagementScore(parent)
-                                                                                  .flatMap(feedRepository::save)
-                                                                                  .doOnSuccess(updated -> {
-                                                                                      try {
-                                                                                          feedEventPublisher.publishPostUpdated(
-                                                                                                  updated);
-                                                                                      } catch (Exception e) {
-                                                                                          log.error(
-                                                                                                  "Failed to publish post updated event for {}: {}",
-                                                                                                  updated.getId(),
-                                                                                                  e.getMessage());
-                                                                                      }
-                                                                                  });
-                                                                      })
-                                                )
-                                                .thenReturn(post);
+                                     // This is a comment - delete it and update parent counts unless the parent is gone;
+                                     // the parent's updated event is committed with its comment score change
+                                     String parentId = post.getParentId();
+                                     return feedRepository.findById(parentId)
+                                                          .map(parent -> {
+                                                              OutboxEvent parentUpdated = feedEventPublisher.postUpdated(parent);
+                                                              return Mono.when(
+                                                                      feedCounterService.increment(parentId, FeedCounter.COMMENTS, -1),
+                                                                      engagementScoreService.removeComment(parentId, post.getAuthorId(), postId,
+                                                                                                           feedEventPublisher.outboxWrite(parentUpdated))
+                                                                                            .doOnSuccess(v -> feedEventPublisher.dispatch(parentUpdated)));
+                                                          })
+                                                          .defaultIfEmpty(Mono.empty())
+                                                          // Delete the comment together with the parent update
+                                                          .flatMap(parentUpdate -> Mono.when(deletion, parentUpdate))
+                                                          .thenReturn(post);
                                  } else {
-                                     // This is a main post - delete it and all its comments
-                                     return feedRepository.findByParentId(postId)
-                                                          .collectList()
-                                                          .flatMap(comments -> {
-                                                              // Delete all comments first
-                                                              List<Mono<Void>> deleteOperations = comments.stream()
-                                                                                                          .map(comment -> feedRepository.deleteById(
-                                                                                                                  comment.getId()))
-                                                                                                          .collect(
-                                                                                                                  Collectors.toList());
-
-                                                              return Flux.fromIterable(deleteOperations)
-                                                                         .flatMap(operation -> operation)
-                                                                         .then()
-                                                                         .then(feedRepository.deleteById(postId))
-                                                                         .thenReturn(post);
-                                                          });
+                                     // This is a main post - delete all its comments in batched commits, then the post
+                                     return feedRepository.deleteAllById(feedRepository.findByParentId(postId)
+                                                                                       .map(Feed::getId))
+                                                          .then(Mono.when(deletion,
+                                                                          feedCounterService.deleteShards(postId),
+                                                                          feedRepository.deleteCommenters(postId),
+                                                                          postReactionRepository.deleteByPostId(postId)))
+                                                          .thenReturn(post);
                                  }
                              });
     }
 
     /* ---------------------- Helpers ---------------------- */
 
-    private User incrementPosts(User author) {
-        author.setPostsCount(author.getPostsCount() + 1);
-        author.setUpdatedAt(Timestamp.now());
-        return author;
-    }
-
-    private List<String> extractHashtags(String content) {
-        if (content == null) {
-            return List.of();
-        }
-        Pattern pattern = Pattern.compile("#\\w+");
-        Matcher matcher = pattern.matcher(content);
-        return matcher.results().map(m -> m.group().substring(1)).toList();
-    }
-
-    private List<String> extractMentions(String content) {
-        if (content == null) {
-            return List.of();
-        }
-        Pattern pattern = Pattern.compile("@\\w+");
-        Matcher matcher = pattern.matcher(content);
-        return matcher.results().map(m -> m.group().substring(1)).toList();
-    }
-
     /**
-     * Calculate base engagement score and set it on the post (reactive).
-     * score = likes*1.0 + retweets*1.5 + commentScore + timeDecay
+     * Record the user's reaction in the reaction index and move the post counters accordingly; both
+     * are committed in one transaction so the counts cannot drift from the reactions
      */
-    private Mono<Feed> calculateAndUpdateEngagementScore(Feed post) {
-        return calculateCommentScore(post)
-                .map(commentScore -> {
-                    double score = 0.0;
-                    score += post.getLikesCount() * 1.0;
-                    // score += post.getRetweetsCount() * 1.5; // Removed retweetsCount
-                    score += commentScore;
-                    score += calculateTimeDecay(post.getCreatedAt());
-                    // post.setBaseEngagementScore(score); // Removed baseEngagementScore
-                    log.debug(
-                            "Updated engagement score for post {}: {} (likes: {}, retweets: {}, distinctCommenters: {})",
-                            post.getId(),
-                            score,
-                            post.getLikesCount(),
-                            // post.getRetweetsCount(), // Removed retweetsCount
-                            post.getDistinctCommentersCount());
-                    return post;
-                });
+    private Mono<Feed> react(String userId, String postId, ReactionType type) {
+        return feedRepository.findById(postId)
+                             .switchIfEmpty(Mono.error(new RuntimeException("Post not found")))
+                             .flatMap(post -> postReactionRepository.react(postId, userId, type,
+                                                                           previous -> List.of(feedCounterService.incrementOp(
+                                                                                   postId, reactionDeltas(previous, type))))
+                                                                    .flatMap(previous -> {
+                                                                        if (previous.orElse(null) == type) {
+                                                                            return Mono.just(post);
+                                                                        }
+                                                                        applyReactionDeltas(post, reactionDeltas(previous, type));
+                                                                        return feedCounterService.committed(postId)
+                                                                                                 .thenReturn(post);
+                                                                    }));
     }
 
-    /**
-     * Comment score with diminishing returns (reactive); updates distinctCommentersCount on post
-     */
-    private Mono<Double> calculateCommentScore(Feed post) {
-        String key = (post.getId() != null) ? post.getId() : post.getRootId();
-        if (key == null) {
-            return Mono.just(0.0);
-        }
-
-        return feedRepository.findByParentId(key)
-                             .collectList()
-                             .map(comments -> {
-                                 Map<String, Integer> perUser = new HashMap<>();
-                                 for (Feed c : comments) {
-                                     perUser.merge(c.getAuthorId(), 1, Integer::sum);
-                                 }
-                                 double commentScore = 0.0;
-                                 Set<String> distinct = new HashSet<>();
-                                 for (var e : perUser.entrySet()) {
-                                     int n = e.getValue();
-                                     distinct.add(e.getKey());
-                                     if (n >= 1) {
-                                         commentScore += 2.0;           // first
-                                     }
-                                     if (n >= 2) {
-                                         commentScore += 1.0;           // second
-                                     }
-                                     if (n >= 3) {
-                                         commentScore += (n - 2) * 0.5; // third+
-                                     }
-                                 }
-                                 post.setDistinctCommentersCount(distinct.size());
-                                 return commentScore;
-                             });
+    private Map<FeedCounter, Long> reactionDeltas(Optional<ReactionType> previous, ReactionType type) {
+        Map<FeedCounter, Long> deltas = new EnumMap<>(FeedCounter.class);
+        previous.ifPresent(p -> deltas.put(counterFor(p), -1L));
+        deltas.put(counterFor(type), 1L);
+        return deltas;
     }
 
-    /**
-     * 0–10 time-decay boost
-     */
-    private double calculateTimeDecay(Timestamp createdAt) {
-        if (createdAt == null) {
-            return 0.0;
-        }
-        long hoursOld = ChronoUnit.HOURS.between(createdAt.toDate().toInstant(), Timestamp.now().toDate().toInstant());
-        if (hoursOld <= 24) {
-            return 10.0 - (hoursOld / 24.0) * 2.0;         // 8–10
-        }
-        if (hoursOld <= 168) {
-            return 8.0 - ((hoursOld - 24) / 144.0) * 6.0; // 2–8
-        }
-        return Math.max(0, 2.0 - ((hoursOld - 168) / 168.0) * 2.0);        // 0–2
+    private FeedCounter counterFor(ReactionType type) {
+        return type == ReactionType.LIKE ? FeedCounter.LIKES : FeedCounter.DISLIKES;
     }
 
-    /**
-     * Update distinct commenters count (reactive)
-     */
-    private Mono<Feed> updateDistinctCommentersCount(Feed post) {
-        return feedRepository.findByParentId(post.getId())
-                             .map(Feed::getAuthorId)
-                             .distinct()
-                             .count()
-                             .map(cnt -> {
-                                 post.setDistinctCommentersCount(cnt.intValue());
-                                 return post;
-                             });
+    private void applyReactionDeltas(Feed post, Map<FeedCounter, Long> deltas) {
+        post.setLikesCount((int) Math.max(0, post.getLikesCount() + deltas.getOrDefault(FeedCounter.LIKES, 0L)));
+        post.setDislikesCount((int) Math.max(0, post.getDislikesCount() + deltas.getOrDefault(FeedCounter.DISLIKES, 0L)));
+    }
+
+    private static void applyTokens(Feed post, String content) {
+        ContentTokenizer.Tokens tokens = ContentTokenizer.tokenize(content);
+        post.setHashtags(tokens.hashtags());
+        post.setMentions(tokens.mentions());
+        post.setLinks(tokens.links());
+        post.setSearchTerms(tokens.searchTerms());
     }
 
     /**
@@ -434,22 +305,32 @@ public class FeedService {
                                 // Add new chatrooms to existing ones (avoiding duplicates)
                                 List<String> currentChatrooms = post.getChatroomIds() != null ? 
                                     new ArrayList<>(post.getChatroomIds()) : new ArrayList<>();
+                                List<String> addedChatrooms = new ArrayList<>();
                                 
                                 for (String chatroomId : additionalChatroomIds) {
                                     if (!currentChatrooms.contains(chatroomId)) {
                                         currentChatrooms.add(chatroomId);
+                                        addedChatrooms.add(chatroomId);
                                     }
                                 }
+
+                                if (addedChatrooms.isEmpty()) {
+                                    return Mono.just(post);
+                                }
                                 
                                 post.setChatroomIds(currentChatrooms);
                                 post.setUpdatedAt(Timestamp.now());
 
-                                return feedRepository.save(post)
-                                                    .flatMap(savedPost -> {
-                                                        // Publish event for the new chatrooms only
-                                                        feedEventPublisher.publishPostCreated(savedPost);
-                                                        return Mono.just(savedPost);
-                                                    });
+                                // The cross-post event only names the new chatrooms, so only their members get the post
+                                // and its hashtags are not counted again where they already were. Only the chatrooms
+                                // are written, since the counters of the post read here may already be outdated.
+                                OutboxEvent crossPosted = feedEventPublisher.postCrossPosted(post, addedChatrooms);
+                                Map<String, Object> fields = Map.of(
+                                    "chatroomIds", FieldValue.arrayUnion(addedChatrooms.toArray()),
+                                    "updatedAt", post.getUpdatedAt());
+                                return feedRepository.updateFieldsWith(postId, fields, feedEventPublisher.outboxWrite(crossPosted))
+                                                    .doOnSuccess(v -> feedEventPublisher.dispatch(crossPosted))
+                                                    .thenReturn(post);
                             });
     }
 }
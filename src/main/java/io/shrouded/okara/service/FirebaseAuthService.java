@@ -1,12 +1,27 @@
 package io.shrouded.okara.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.shrouded.okara.config.TokenCacheProperties;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -14,14 +29,35 @@ import reactor.core.publisher.Mono;
 public class FirebaseAuthService {
 
     private final FirebaseAuth firebaseAuth;
+    private final TokenCacheProperties tokenCacheProperties;
+    private final MeterRegistry meterRegistry;
 
-    public FirebaseToken verifyToken(String idToken) throws FirebaseAuthException {
-        try {
-            return firebaseAuth.verifyIdToken(idToken);
-        } catch (FirebaseAuthException e) {
-            log.error("Failed to verify Firebase token: {}", e.getMessage());
-            throw e;
+    private AsyncCache<String, FirebaseToken> verifiedTokens;
+    private Timer verificationTimer;
+
+    @PostConstruct
+    public void start() {
+        verificationTimer = meterRegistry.timer("okara.auth.token.verification");
+        verifiedTokens = CaffeineCacheMetrics.monitor(meterRegistry,
+                                                      Caffeine.newBuilder()
+                                                              .maximumSize(tokenCacheProperties.getMaximumSize())
+                                                              .expireAfter(new UntilTokenExpiry())
+                                                              .recordStats()
+                                                              .<String, FirebaseToken>buildAsync(),
+                                                      "firebaseTokens");
+    }
+
+    /**
+     * Verify an ID token, reusing an earlier verification of the same token until it expires.
+     * The signature check may fetch Google's public keys, so it runs on boundedElastic; concurrent
+     * requests carrying the same unverified token share one verification. Invalid tokens are not cached.
+     */
+    public Mono<FirebaseToken> verifyToken(String idToken) {
+        if (!tokenCacheProperties.isEnabled()) {
+            return verifyBlocking(idToken);
         }
+        return Mono.fromFuture(() -> verifiedTokens.get(hash(idToken), (key, executor) ->
+                verifyBlocking(idToken).toFuture()), true);
     }
 
     public Mono<Void> deleteUser(String firebaseUid) {
@@ -36,4 +72,53 @@ public class FirebaseAuthService {
             }
         });
     }
-}
\ No newline at end of file
+
+    private Mono<FirebaseToken> verifyBlocking(String idToken) {
+        return Mono.fromCallable(() -> verificationTimer.recordCallable(() -> {
+                       try {
+                           return firebaseAuth.verifyIdToken(idToken);
+                       } catch (FirebaseAuthException e) {
+                           log.error("Failed to verify Firebase token: {}", e.getMessage());
+                           throw e;
+                       }
+                   }))
+                   .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Raw tokens are bearer credentials; only their digest is kept in memory as a key
+    private static String hash(String idToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(idToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Expires each verified token at its exp claim, less the configured margin
+     */
+    private class UntilTokenExpiry implements Expiry<String, FirebaseToken> {
+
+        @Override
+        public long expireAfterCreate(String key, FirebaseToken token, long currentTime) {
+            Object exp = token.getClaims().get("exp");
+            if (!(exp instanceof Number expSeconds)) {
+                return 0;
+            }
+            long remainingMillis = TimeUnit.SECONDS.toMillis(expSeconds.longValue()) - System.currentTimeMillis()
+                    - tokenCacheProperties.getExpiryMargin().toMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, FirebaseToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, FirebaseToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package io.shrouded.okara.service;
+
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
+import io.shrouded.okara.model.Follow;
+import io.shrouded.okara.repository.FollowRepository;
+import io.shrouded.okara.repository.UserRepository;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One-off import of the followers/following lists that used to be embedded in user documents
+ * into follow edges. Counts are left as they are since they were kept alongside the lists.
+ * A user's lists are only removed once all of their edges are written, so a failed user is
+ * picked up again by the next run. Re-running it is harmless; enable with follows.import-embedded-lists=true.
+ */
+@Component
+@ConditionalOnProperty(name = "follows.import-embedded-lists", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class FollowListImporter implements ApplicationRunner {
+
+    private static final String USERS_COLLECTION = "users";
+    private static final List<String> LEGACY_FIELDS = List.of("followers", "following");
+
+    private final ReactiveFirestoreService firestoreService;
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Just the legacy list fields of a user document
+     */
+    @Data
+    @NoArgsConstructor
+    @IgnoreExtraProperties
+    public static class LegacyFollowLists {
+        private String id;
+        private List<String> followers;
+        private List<String> following;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AtomicLong imported = new AtomicLong();
+        firestoreService.findAll(USERS_COLLECTION, LegacyFollowLists.class, LegacyFollowLists::setId)
+                        .filter(lists -> lists.getFollowers() != null || lists.getFollowing() != null)
+                        // The lists are only removed once every edge of the user has been written
+                        .concatMap(lists -> followRepository.saveAll(Flux.fromIterable(edges(lists)))
+                                                            .then(Mono.defer(() -> userRepository.deleteFields(lists.getId(), LEGACY_FIELDS)))
+                                                            .doOnSuccess(v -> imported.incrementAndGet())
+                                                            .onErrorResume(e -> {
+                                                                log.error("Failed to import follow lists of user {}, keeping its lists: {}",
+                                                                          lists.getId(), e.getMessage());
+                                                                return Mono.empty();
+                                                            }))
+                        .then()
+                        .subscribe(v -> { },
+                                   e -> log.error("Follow list import failed after {} users: {}", imported.get(), e.getMessage(), e),
+                                   () -> log.info("Imported embedded follow lists of {} users", imported.get()));
+    }
+
+    private List<Follow> edges(LegacyFollowLists lists) {
+        List<Follow> edges = new ArrayList<>();
+        if (lists.getFollowing() != null) {
+            lists.getFollowing().forEach(followeeId -> edges.add(new Follow(lists.getId(), followeeId)));
+        }
+        if (lists.getFollowers() != null) {
+            lists.getFollowers().forEach(followerId -> edges.add(new Follow(followerId, lists.getId())));
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,68 @@
+package io.shrouded.okara.service;
+
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One-off backfill of the hot score of top-level posts created before it was stored, which are
+ * otherwise missing from every hot score ordered page. The posts are only flagged as dirty, so
+ * HotScoreService computes their scores on its next runs. Re-running it is harmless; enable
+ * with feed.ranking.backfill-hot-scores=true.
+ */
+@Component
+@ConditionalOnProperty(name = "feed.ranking.backfill-hot-scores", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class HotScoreBackfill implements ApplicationRunner {
+
+    private static final String FEEDS_COLLECTION = "feeds";
+
+    private final ReactiveFirestoreService firestoreService;
+
+    /**
+     * Just the fields of a post document that decide whether it needs a score
+     */
+    @Data
+    @NoArgsConstructor
+    @IgnoreExtraProperties
+    public static class UnscoredPost {
+        private String id;
+        private String parentId;
+        private Double hotScore;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AtomicLong flagged = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        Flux<WriteOp> flags = firestoreService.findAll(FEEDS_COLLECTION, UnscoredPost.class, UnscoredPost::setId)
+                                              .filter(post -> post.getParentId() == null && post.getHotScore() == null)
+                                              .map(post -> WriteOp.update(FEEDS_COLLECTION, post.getId(),
+                                                                          Map.of("hotScoreDirty", true)));
+
+        firestoreService.bulkWrite(flags)
+                        .subscribe(outcome -> {
+                                       if (outcome.succeeded()) {
+                                           flagged.incrementAndGet();
+                                       } else {
+                                           failed.incrementAndGet();
+                                           log.warn("Failed to flag post {} for hot score backfill: {}",
+                                                    outcome.op().id(), outcome.error().getMessage());
+                                       }
+                                   },
+                                   e -> log.error("Hot score backfill failed after {} posts: {}", flagged.get(), e.getMessage(), e),
+                                   () -> log.info("Flagged {} posts for hot score backfill, {} failed", flagged.get(), failed.get()));
+    }
+}
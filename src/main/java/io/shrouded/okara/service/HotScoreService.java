@@ -0,0 +1,78 @@
+package io.shrouded.okara.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.shrouded.okara.config.FeedRankingProperties;
+import io.shrouded.okara.model.Feed;
+import io.shrouded.okara.repository.FeedRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Keeps the stored hot score of top-level posts in line with their engagement.
+ * <p>
+ * Engagement changes only flag a post as dirty in the same write that changes its counts;
+ * flagged posts are re-read and their hot score written back in batches on a timer, so a burst
+ * of likes costs one score update and flags left by a stopped instance are still picked up.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotScoreService {
+
+    private final FeedRepository feedRepository;
+    private final EngagementScoreService engagementScoreService;
+    private final FeedRankingProperties rankingProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Counter recomputed;
+    private Disposable recomputeSchedule;
+
+    @PostConstruct
+    public void start() {
+        recomputed = meterRegistry.counter("okara.feed.ranking.recomputed");
+
+        recomputeSchedule = Flux.interval(rankingProperties.getRecomputeInterval())
+                                .onBackpressureDrop()
+                                .concatMap(tick -> recomputeDirtyPosts(), 1)
+                                .subscribe();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recomputeSchedule.dispose();
+    }
+
+    /**
+     * Score for a post that is about to be created
+     */
+    public void initialize(Feed post) {
+        post.setHotScore(engagementScoreService.hotScore(post));
+    }
+
+    private Mono<Void> recomputeDirtyPosts() {
+        int batchSize = rankingProperties.getRecomputeBatchSize();
+        return feedRepository.findIdsWithDirtyHotScore(batchSize)
+                             .buffer(batchSize)
+                             .concatMap(this::recompute)
+                             .then();
+    }
+
+    private Mono<Void> recompute(List<String> postIds) {
+        return feedRepository.recomputeHotScores(postIds, engagementScoreService::hotScore)
+                             .doOnSuccess(v -> recomputed.increment(postIds.size()))
+                             .onErrorResume(e -> {
+                                 // The posts stay flagged, so the next run tries again
+                                 log.warn("Failed to recompute hot scores for {} posts: {}", postIds.size(), e.getMessage());
+                                 return Mono.empty();
+                             });
+    }
+}
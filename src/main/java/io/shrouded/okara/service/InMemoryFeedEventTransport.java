@@ -0,0 +1,108 @@
+package io.shrouded.okara.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.shrouded.okara.config.FeedEventBusProperties;
+import io.shrouded.okara.model.OutboxEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers feed events to the consumer inside this JVM, for single-node deployments and load tests
+ * that should not depend on a broker.
+ * <p>
+ * Events wait in a bounded queue drained by a fixed number of concurrent consumers. A send only
+ * completes once the consumer has processed the event, so a failed event keeps its outbox entry and
+ * is delivered again by the outbox sweep, as a nacked Pub/Sub message would be. While the queue is
+ * full, senders back off and retry.
+ */
+@Service
+@ConditionalOnProperty(prefix = "feed.events", name = "transport", havingValue = "memory")
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryFeedEventTransport implements FeedEventTransport {
+
+    private final FeedEventConsumer feedEventConsumer;
+    private final FeedEventBusProperties busProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private Sinks.Many<Delivery> queue;
+    private Disposable consumers;
+
+    @PostConstruct
+    public void start() {
+        meterRegistry.gauge("okara.feed.events.memory.queued", queued);
+        queue = Sinks.many().unicast().onBackpressureBuffer(
+                Queues.<Delivery>get(busProperties.getMemoryQueueCapacity()).get());
+        consumers = queue.asFlux()
+                         .doOnNext(delivery -> queued.decrementAndGet())
+                         .flatMap(this::deliver, busProperties.getMemoryConsumers())
+                         .subscribe();
+        log.info("Feed events are delivered in memory by {} consumers", busProperties.getMemoryConsumers());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queue.tryEmitComplete();
+        consumers.dispose();
+    }
+
+    @Override
+    public Mono<Void> send(OutboxEvent event) {
+        return Mono.defer(() -> {
+                       Delivery delivery = new Delivery(event);
+                       Sinks.EmitResult result;
+                       while ((result = queue.tryEmitNext(delivery)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                           Thread.onSpinWait();
+                       }
+                       if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                           return Mono.error(new QueueFullException());
+                       }
+                       if (result.isFailure()) {
+                           return Mono.error(new IllegalStateException("In-memory feed event transport is stopped"));
+                       }
+                       queued.incrementAndGet();
+                       return delivery.done.asMono();
+                   })
+                   .retryWhen(Retry.backoff(10, Duration.ofMillis(10))
+                                   .maxBackoff(Duration.ofSeconds(1))
+                                   .filter(QueueFullException.class::isInstance));
+    }
+
+    private Mono<Void> deliver(Delivery delivery) {
+        return feedEventConsumer.consume(delivery.event.body())
+                                .doOnSuccess(v -> delivery.done.tryEmitEmpty())
+                                .onErrorResume(e -> {
+                                    delivery.done.tryEmitError(e);
+                                    return Mono.empty();
+                                });
+    }
+
+    private static final class Delivery {
+        private final OutboxEvent event;
+        private final Sinks.Empty<Void> done = Sinks.empty();
+
+        private Delivery(OutboxEvent event) {
+            this.event = event;
+        }
+    }
+
+    private static final class QueueFullException extends RuntimeException {
+        private QueueFullException() {
+            super("In-memory feed event queue is full", null, false, false);
+        }
+    }
+}
@@ -1,15 +1,31 @@
 package io.shrouded.okara.service;
 
+import com.google.cloud.Timestamp;
+import io.shrouded.okara.config.FeedFanoutProperties;
+import io.shrouded.okara.dto.common.CursorPage;
+import io.shrouded.okara.exception.OkaraException;
+import io.shrouded.okara.model.ChatroomMember;
+import io.shrouded.okara.model.Feed;
 import io.shrouded.okara.model.FeedItem;
 import io.shrouded.okara.model.UserFeed;
+import io.shrouded.okara.repository.ChatroomMemberRepository;
+import io.shrouded.okara.repository.FeedRepository;
 import io.shrouded.okara.repository.UserFeedRepository;
+import io.shrouded.okara.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -17,12 +33,34 @@ import java.util.List;
 public class PersonalFeedService {
 
     private final UserFeedRepository userFeedRepository;
+    private final FeedRepository feedRepository;
+    private final ChatroomMemberRepository chatroomMemberRepository;
+    private final FeedDeliveryPolicy deliveryPolicy;
+    private final FeedFanoutProperties fanoutProperties;
+    private final PostTombstoneService postTombstoneService;
 
     /**
-     * Get user's personal feed (simple chronological for now)
+     * Get user's personal feed, newest first. Items pushed into the user's feed are merged with
+     * the recent posts of the pulled chatrooms the user belongs to; the cursor is the nextCursor
+     * of the previous page. Feed items only reference posts, so the page is hydrated with the
+     * current posts in one batched read; posts that no longer exist are left out.
      */
-    public Mono<List<FeedItem>> getPersonalFeed(String userId, int limit, String sinceId) {
-        return getUserFeedItems(userId, limit, sinceId);
+    public Mono<CursorPage<Feed>> getPersonalFeed(String userId, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, ReactiveFirestoreService.MAX_PAGE_SIZE));
+        Map<String, Feed> pulledPosts = new ConcurrentHashMap<>();
+        return findPulledChatroomIds(userId)
+                .flatMap(pulledChatroomIds -> {
+                    if (pulledChatroomIds.isEmpty()) {
+                        return getUserFeedItems(userId, pageSize, cursor);
+                    }
+                    return mergeFeed(userId, pulledChatroomIds, cursor, pageSize, pulledPosts)
+                            .map(items -> new CursorPage<>(items, items.size() < pageSize
+                                    ? null
+                                    : cursorAfter(items.get(items.size() - 1))));
+                })
+                // The cursor comes from the last item read, so dropping items below does not move it
+                .flatMap(page -> dropDeleted(userId, page.items(), pulledPosts).map(page::withItems))
+                .flatMap(page -> hydrate(page.items(), pulledPosts).map(page::withItems));
     }
 
     /**
@@ -47,25 +85,133 @@ public class PersonalFeedService {
     }
 
 
-    private Mono<List<FeedItem>> getUserFeedItems(String userId, int limit, String sinceId) {
-        return userFeedRepository.findByUserId(userId)
-                                 .map(userFeed -> {
-                                     List<FeedItem> items = userFeed.getItemsSince(sinceId, limit);
-
-                                     log.debug("Retrieved {} items from feed for user {} (limit {}, sinceId {})",
-                                               items.size(), userId, limit, sinceId);
-
-                                     return items;
-                                 })
-                                 .switchIfEmpty(Mono.fromCallable(() -> {
-                                     log.warn("No feed found for user {}", userId);
-                                     return new ArrayList<FeedItem>();
-                                 }))
-                                 .onErrorResume(e -> {
+    private Mono<CursorPage<FeedItem>> getUserFeedItems(String userId, int limit, String cursor) {
+        return userFeedRepository.findItemsPage(userId, limit, cursor)
+                                 .doOnNext(page -> log.debug(
+                                         "Retrieved {} items from feed for user {} (limit {}, cursor {})",
+                                         page.items().size(), userId, limit, cursor))
+                                 .onErrorResume(e -> !(e instanceof OkaraException), e -> {
                                      log.error("Failed to get feed for user {}: {}",
                                                userId,
                                                e.getMessage());
-                                     return Mono.just(new ArrayList<FeedItem>());
+                                     return Mono.just(CursorPage.empty());
                                  });
     }
-}
\ No newline at end of file
+
+    private Mono<List<String>> findPulledChatroomIds(String userId) {
+        return chatroomMemberRepository.findByUserId(userId)
+                                       .map(ChatroomMember::getChatroomId)
+                                       .filterWhen(deliveryPolicy::isPulled)
+                                       .take(fanoutProperties.getMaxPulledChatrooms())
+                                       .collectList()
+                                       .onErrorResume(e -> {
+                                           log.error("Failed to find pulled chatrooms of user {}: {}", userId, e.getMessage());
+                                           return Mono.just(List.of());
+                                       });
+    }
+
+    // Same shape as the cursors of the feed items and chatroom pages: items and posts are both keyed
+    // by post ID, so every source continues after the (createdAt, postId) the previous page ended with
+    private static String cursorAfter(FeedItem item) {
+        return PageCursor.encode(item.getCreatedAt(), item.getPostId());
+    }
+
+    // Each source contributes at most one page, so a read costs 1 + pulled chatrooms queries of pageSize
+    private Mono<List<FeedItem>> mergeFeed(String userId, List<String> pulledChatroomIds, String cursor, int pageSize,
+                                           Map<String, Feed> pulledPosts) {
+        Mono<List<FeedItem>> pushed = userFeedRepository.findItemsPage(userId, pageSize, cursor).map(CursorPage::items);
+        Flux<List<FeedItem>> pulled = Flux.fromIterable(pulledChatroomIds)
+                                          .flatMapSequential(chatroomId ->
+                                                  feedRepository.findPageByChatroomId(chatroomId, cursor, pageSize)
+                                                                .map(CursorPage::items)
+                                                                .doOnNext(posts -> posts.forEach(post -> pulledPosts.put(post.getId(), post)))
+                                                                .map(posts -> toFeedItems(posts, chatroomId)));
+        return Flux.concat(pushed, pulled)
+                   .collectList()
+                   .map(sources -> mergeNewestFirst(sources, pageSize))
+                   .doOnNext(items -> log.debug("Merged {} items for user {} from {} pulled chatrooms",
+                                                items.size(), userId, pulledChatroomIds.size()));
+    }
+
+    // Items of tombstoned posts are skipped and queued for removal with the user's next feed write
+    private Mono<List<FeedItem>> dropDeleted(String userId, List<FeedItem> items, Map<String, Feed> livePosts) {
+        List<String> pushedPostIds = items.stream()
+                                          .map(FeedItem::getPostId)
+                                          .filter(postId -> !livePosts.containsKey(postId))
+                                          .toList();
+        return postTombstoneService.findDeleted(pushedPostIds)
+                                   .map(deleted -> {
+                                       if (deleted.isEmpty()) {
+                                           return items;
+                                       }
+                                       postTombstoneService.markForRemoval(userId, deleted);
+                                       log.debug("Skipped {} deleted posts in feed of user {}", deleted.size(), userId);
+                                       return items.stream().filter(item -> !deleted.contains(item.getPostId())).toList();
+                                   });
+    }
+
+    // Posts read from pulled chatrooms are used as they are, the rest come from the post cache
+    private Mono<List<Feed>> hydrate(List<FeedItem> items, Map<String, Feed> knownPosts) {
+        List<String> missing = items.stream()
+                                    .map(FeedItem::getPostId)
+                                    .filter(postId -> !knownPosts.containsKey(postId))
+                                    .distinct()
+                                    .toList();
+        Mono<Map<String, Feed>> loaded = missing.isEmpty() ? Mono.just(Map.of()) : feedRepository.findAllByIdCached(missing);
+        return loaded.map(posts -> {
+            List<Feed> hydrated = new ArrayList<>(items.size());
+            for (FeedItem item : items) {
+                Feed post = knownPosts.getOrDefault(item.getPostId(), posts.get(item.getPostId()));
+                if (post != null) {
+                    hydrated.add(post);
+                }
+            }
+            return hydrated;
+        });
+    }
+
+    private List<FeedItem> toFeedItems(List<Feed> posts, String chatroomId) {
+        List<FeedItem> items = new ArrayList<>(posts.size());
+        for (Feed post : posts) {
+            FeedItem item = new FeedItem(post, chatroomId);
+            item.setReasonShown("From chatroom");
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * k-way merge of newest-first lists into one newest-first list of at most limit items; a post
+     * present in several sources is kept once. Ties are ordered by post ID like the sources are.
+     */
+    private static List<FeedItem> mergeNewestFirst(List<List<FeedItem>> sources, int limit) {
+        record Head(List<FeedItem> source, int index) {
+            FeedItem item() {
+                return source.get(index);
+            }
+        }
+
+        PriorityQueue<Head> heads = new PriorityQueue<>(
+                Comparator.comparing((Head head) -> head.item().getCreatedAt(),
+                                     Comparator.nullsLast(Comparator.<Timestamp>reverseOrder()))
+                          .thenComparing(head -> head.item().getPostId(), Comparator.reverseOrder()));
+        for (List<FeedItem> source : sources) {
+            if (!source.isEmpty()) {
+                heads.add(new Head(source, 0));
+            }
+        }
+
+        List<FeedItem> merged = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            if (seen.add(head.item().getPostId())) {
+                merged.add(head.item());
+            }
+            if (head.index() + 1 < head.source().size()) {
+                heads.add(new Head(head.source(), head.index() + 1));
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,188 @@
+package io.shrouded.okara.service;
+
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
+import io.shrouded.okara.enums.FeedCounter;
+import io.shrouded.okara.enums.ReactionType;
+import io.shrouded.okara.model.PostReaction;
+import io.shrouded.okara.repository.FeedRepository;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One-off import of the likedBy/dislikedBy lists that used to be embedded in posts into
+ * post_reactions. Counts are left as they are since they were kept alongside the lists.
+ * <p>
+ * A listed user who reacted again before the import already has a reaction document, and that
+ * reaction was counted on top of the listed one; the listed reaction's counter is decremented
+ * once for them and their document is flagged as imported so a re-run does not do it again.
+ * The lists are only removed from a post once all of its reactions are in place. Re-running it
+ * is harmless; enable with reactions.import-embedded-lists=true.
+ */
+@Component
+@ConditionalOnProperty(name = "reactions.import-embedded-lists", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PostReactionImporter implements ApplicationRunner {
+
+    private static final String FEEDS_COLLECTION = "feeds";
+    private static final String REACTIONS_COLLECTION = "post_reactions";
+    private static final List<String> LEGACY_FIELDS = List.of("likedBy", "dislikedBy");
+    private static final int LOOKUP_BATCH_SIZE = 100;
+
+    private final ReactiveFirestoreService firestoreService;
+    private final FeedRepository feedRepository;
+
+    /**
+     * Just the legacy list fields of a post document
+     */
+    @Data
+    @NoArgsConstructor
+    @IgnoreExtraProperties
+    public static class LegacyReactionLists {
+        private String id;
+        private List<String> likedBy;
+        private List<String> dislikedBy;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AtomicLong imported = new AtomicLong();
+        firestoreService.findAll(FEEDS_COLLECTION, LegacyReactionLists.class, LegacyReactionLists::setId)
+                        .filter(lists -> lists.getLikedBy() != null || lists.getDislikedBy() != null)
+                        .concatMap(lists -> importPost(lists)
+                                .doOnSuccess(v -> imported.incrementAndGet())
+                                .onErrorResume(e -> {
+                                    log.error("Failed to import reactions of post {}, keeping its lists: {}",
+                                              lists.getId(), e.getMessage());
+                                    return Mono.empty();
+                                }))
+                        .then()
+                        .subscribe(v -> { },
+                                   e -> log.error("Reaction import failed after {} posts: {}", imported.get(), e.getMessage(), e),
+                                   () -> log.info("Imported embedded reaction lists of {} posts", imported.get()));
+    }
+
+    private Mono<Void> importPost(LegacyReactionLists lists) {
+        String postId = lists.getId();
+        Map<String, ReactionType> listed = listedReactions(lists);
+
+        return existingReactions(postId, listed.keySet())
+                .flatMap(existing -> {
+                    List<String> recounted = new ArrayList<>();
+                    List<WriteOp> creates = new ArrayList<>();
+                    listed.forEach((userId, type) -> {
+                        PostReaction current = existing.get(userId);
+                        if (current == null) {
+                            PostReaction reaction = new PostReaction(postId, userId, type);
+                            reaction.setImported(true);
+                            creates.add(WriteOp.create(REACTIONS_COLLECTION, reaction.getId(), reaction));
+                        } else if (!current.isImported()) {
+                            recounted.add(userId);
+                        }
+                    });
+
+                    return firestoreService.bulkWrite(Flux.fromIterable(creates))
+                                           .filter(outcome -> !outcome.succeeded())
+                                           .collectList()
+                                           .flatMap(failed -> raced(postId, failed))
+                                           .flatMap(raced -> {
+                                               recounted.addAll(raced);
+                                               return recount(postId, recounted, listed);
+                                           });
+                })
+                .then(Mono.defer(() -> feedRepository.deleteFields(postId, LEGACY_FIELDS)));
+    }
+
+    /**
+     * Users whose create found a document a live reaction wrote meanwhile; any other failure fails
+     * the post. Documents that cannot be read back are not recounted, erring towards the old count.
+     */
+    private Mono<List<String>> raced(String postId, List<ReactiveFirestoreService.WriteOutcome> failed) {
+        List<String> userIds = new ArrayList<>(failed.size());
+        for (ReactiveFirestoreService.WriteOutcome outcome : failed) {
+            if (!outcome.alreadyExists()) {
+                return Mono.error(new RuntimeException("Failed to write reaction " + outcome.op().id(), outcome.error()));
+            }
+            userIds.add(((PostReaction) outcome.op().data()).getUserId());
+        }
+        if (userIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return existingReactions(postId, userIds)
+                .map(existing -> existing.values().stream()
+                                         .filter(reaction -> !reaction.isImported())
+                                         .map(PostReaction::getUserId)
+                                         .toList());
+    }
+
+    // Likes win for a user listed in both lists
+    private Map<String, ReactionType> listedReactions(LegacyReactionLists lists) {
+        Map<String, ReactionType> listed = new LinkedHashMap<>();
+        if (lists.getDislikedBy() != null) {
+            lists.getDislikedBy().forEach(userId -> listed.put(userId, ReactionType.DISLIKE));
+        }
+        if (lists.getLikedBy() != null) {
+            lists.getLikedBy().forEach(userId -> listed.put(userId, ReactionType.LIKE));
+        }
+        return listed;
+    }
+
+    private Mono<Map<String, PostReaction>> existingReactions(String postId, Iterable<String> userIds) {
+        return Flux.fromIterable(userIds)
+                   .map(userId -> PostReaction.documentId(postId, userId))
+                   .buffer(LOOKUP_BATCH_SIZE)
+                   .concatMap(ids -> firestoreService.findSnapshotsByIds(REACTIONS_COLLECTION, ids))
+                   .flatMapIterable(Function.identity())
+                   .mapNotNull(doc -> firestoreService.mapDocument(doc, PostReaction.class, PostReaction::setId))
+                   .collectMap(PostReaction::getUserId);
+    }
+
+    /**
+     * Takes the listed reaction of each user back out of the counts and flags their reaction as
+     * imported, atomically per commit so a failed commit can simply be retried by a re-run
+     */
+    private Mono<Void> recount(String postId, List<String> userIds, Map<String, ReactionType> listed) {
+        if (userIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(userIds)
+                   .buffer(ReactiveFirestoreService.MAX_BATCH_WRITES - 1)
+                   .concatMap(chunk -> {
+                       Map<FeedCounter, Long> deltas = new EnumMap<>(FeedCounter.class);
+                       chunk.stream()
+                            .collect(Collectors.groupingBy(listed::get, Collectors.counting()))
+                            .forEach((type, count) -> deltas.put(counterFor(type), -count));
+                       List<WriteOp> ops = new ArrayList<>(chunk.size() + 1);
+                       ops.add(feedRepository.counterIncrement(postId, null, deltas));
+                       chunk.forEach(userId -> ops.add(WriteOp.merge(REACTIONS_COLLECTION,
+                                                                     PostReaction.documentId(postId, userId),
+                                                                     Map.of("imported", true))));
+                       return firestoreService.commitAtomically(ops);
+                   })
+                   .then(Mono.defer(() -> feedRepository.evictCached(postId)))
+                   .doOnSuccess(v -> log.info("Recounted {} reactions of post {} made again before the import",
+                                              userIds.size(), postId));
+    }
+
+    private FeedCounter counterFor(ReactionType type) {
+        return type == ReactionType.LIKE ? FeedCounter.LIKES : FeedCounter.DISLIKES;
+    }
+}
@@ -0,0 +1,39 @@
+package io.shrouded.okara.service;
+
+import io.shrouded.okara.enums.ReactionType;
+import io.shrouded.okara.model.PostReaction;
+import io.shrouded.okara.repository.PostReactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostReactionService {
+
+    private final PostReactionRepository postReactionRepository;
+
+    /**
+     * The viewer's reactions to the given posts, keyed by post ID; posts without a reaction are absent
+     */
+    public Mono<Map<String, ReactionType>> findViewerReactions(String viewerId, Collection<String> postIds) {
+        if (postIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return postReactionRepository.findByUserIdAndPostIds(viewerId, postIds)
+                                     .onErrorResume(e -> {
+                                         log.warn("Failed to load reactions of user {}: {}", viewerId, e.getMessage());
+                                         return Mono.just(Map.of());
+                                     });
+    }
+
+    public Mono<ReactionType> findViewerReaction(String viewerId, String postId) {
+        return postReactionRepository.findByPostIdAndUserId(postId, viewerId)
+                                     .map(PostReaction::getType);
+    }
+}
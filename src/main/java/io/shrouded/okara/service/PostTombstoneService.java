@@ -0,0 +1,173 @@
+package io.shrouded.okara.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.cloud.Timestamp;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.shrouded.okara.config.FeedTombstoneProperties;
+import io.shrouded.okara.model.PostTombstone;
+import io.shrouded.okara.repository.PostTombstoneRepository;
+import io.shrouded.okara.service.ReactiveFirestoreService.WriteOp;
+import io.shrouded.okara.util.TimestampUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tombstones of deleted posts, so deleting a post costs one write however widely it was fanned out.
+ * <p>
+ * Feed items that reference a deleted post are not purged when it is deleted. Reads check each
+ * page against an in-memory Bloom filter of tombstoned post IDs and confirm the few possible
+ * matches against the tombstone store, then drop the confirmed ones. Those items are remembered
+ * per user and physically deleted the next time fanout writes to that user's feed; items nobody
+ * reads again expire with the feed item TTL.
+ * <p>
+ * The filter is refreshed with tombstones written by other instances and periodically rebuilt so
+ * expired tombstones drop out of it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostTombstoneService {
+
+    // Tombstone times come from the writing instance's clock
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(5);
+
+    private final PostTombstoneRepository tombstoneRepository;
+    private final FeedTombstoneProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private volatile BloomFilter<String> filter;
+    private volatile Instant refreshedUpTo;
+    private Cache<String, Set<String>> pendingRemovals;
+    private Counter filterHits;
+    private Counter confirmedHits;
+    private Disposable maintenance;
+
+    @PostConstruct
+    public void start() {
+        filterHits = meterRegistry.counter("okara.feed.tombstones.checks", "result", "maybe");
+        confirmedHits = meterRegistry.counter("okara.feed.tombstones.checks", "result", "deleted");
+        pendingRemovals = Caffeine.newBuilder()
+                                  .maximumSize(properties.getMaxPendingRemovalUsers())
+                                  .build();
+        filter = newFilter();
+
+        // Rebuilds and refreshes run one at a time so a refresh never writes into a filter being replaced
+        maintenance = Flux.merge(Flux.interval(Duration.ZERO, properties.getRebuildInterval()).map(tick -> true),
+                                 Flux.interval(properties.getRefreshInterval()).map(tick -> false))
+                          .onBackpressureDrop()
+                          .concatMap(rebuild -> rebuild ? rebuild() : refresh(), 1)
+                          .subscribe();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenance.dispose();
+    }
+
+    /**
+     * Write storing the post's tombstone, to be committed together with the post delete
+     */
+    public WriteOp tombstoneWrite(String postId) {
+        return tombstoneRepository.saveOp(new PostTombstone(postId, properties.getTtl()));
+    }
+
+    /**
+     * Make a committed tombstone visible to this instance right away
+     */
+    public void recordDeleted(String postId) {
+        filter.put(postId);
+    }
+
+    /**
+     * IDs among the given post IDs that belong to deleted posts
+     */
+    public Mono<Set<String>> findDeleted(Collection<String> postIds) {
+        BloomFilter<String> current = filter;
+        List<String> candidates = postIds.stream().filter(current::mightContain).distinct().toList();
+        if (candidates.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        filterHits.increment(candidates.size());
+        return tombstoneRepository.findExistingIds(candidates)
+                                  .doOnNext(deleted -> confirmedHits.increment(deleted.size()));
+    }
+
+    /**
+     * Remember deleted posts found in the user's feed so the next feed write removes them
+     */
+    public void markForRemoval(String userId, Collection<String> postIds) {
+        if (!postIds.isEmpty()) {
+            pendingRemovals.get(userId, id -> ConcurrentHashMap.newKeySet()).addAll(postIds);
+        }
+    }
+
+    /**
+     * Take the deleted posts waiting to be removed from the user's feed
+     */
+    public Set<String> takeRemovals(String userId) {
+        Set<String> removals = pendingRemovals.asMap().remove(userId);
+        return removals != null ? removals : Set.of();
+    }
+
+    private Mono<Void> rebuild() {
+        Instant started = TimestampUtils.now();
+        BloomFilter<String> rebuilt = newFilter();
+        return tombstoneRepository.findDeletedSince(null)
+                                  .doOnNext(tombstone -> rebuilt.put(tombstone.getId()))
+                                  .count()
+                                  .doOnNext(count -> {
+                                      // Tombstones recorded locally while rebuilding are in the store and reloaded by the next refresh
+                                      filter = rebuilt;
+                                      refreshedUpTo = started;
+                                      log.info("Rebuilt post tombstone filter with {} tombstones", count);
+                                  })
+                                  .then()
+                                  .onErrorResume(e -> {
+                                      log.error("Failed to rebuild post tombstone filter: {}", e.getMessage());
+                                      return Mono.empty();
+                                  });
+    }
+
+    private Mono<Void> refresh() {
+        Instant since = refreshedUpTo;
+        if (since == null) {
+            // The first rebuild has not finished yet
+            return Mono.empty();
+        }
+        Instant started = TimestampUtils.now();
+        Instant from = since.minus(CLOCK_SKEW);
+        BloomFilter<String> current = filter;
+        return tombstoneRepository.findDeletedSince(Timestamp.ofTimeSecondsAndNanos(from.getEpochSecond(), from.getNano()))
+                                  .doOnNext(tombstone -> current.put(tombstone.getId()))
+                                  .then(Mono.fromRunnable(() -> refreshedUpTo = started))
+                                  .then()
+                                  .onErrorResume(e -> {
+                                      log.warn("Failed to refresh post tombstone filter: {}", e.getMessage());
+                                      return Mono.empty();
+                                  });
+    }
+
+    private BloomFilter<String> newFilter() {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                                  properties.getExpectedDeletions(),
+                                  properties.getFalsePositiveRate());
+    }
+}
@@ -0,0 +1,46 @@
+package io.shrouded.okara.service;
+
+import com.google.cloud.spring.pubsub.core.PubSubTemplate;
+import io.shrouded.okara.config.FeedPubSubProperties;
+import io.shrouded.okara.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Publishes feed events to the feed Pub/Sub topic; they are consumed through the inbound adapter
+ * configured in PubSubConfig.
+ */
+@Service
+@ConditionalOnProperty(prefix = "feed.events", name = "transport", havingValue = "pubsub", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PubSubFeedEventTransport implements FeedEventTransport {
+
+    private final PubSubTemplate pubSubTemplate;
+    private final FeedPubSubProperties pubSubProperties;
+
+    @Override
+    public Mono<Void> send(OutboxEvent event) {
+        return Mono.fromFuture(() -> pubSubTemplate.publish(pubSubProperties.getTopic(), event.body(), headers(event)))
+                   .then();
+    }
+
+    private Map<String, String> headers(OutboxEvent event) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("eventId", event.getId());
+        headers.put("eventType", event.getEventType());
+        if (event.getPostId() != null) {
+            headers.put("postId", event.getPostId());
+        }
+        if (event.getAuthorId() != null) {
+            headers.put("authorId", event.getAuthorId());
+        }
+        return headers;
+    }
+}
@@ -1,11 +1,23 @@
 package io.shrouded.okara.service;
 
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterException;
+import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteBatch;
 import com.google.cloud.firestore.WriteResult;
+import io.grpc.Status;
+import io.shrouded.okara.dto.common.CursorPage;
+import io.shrouded.okara.exception.OkaraException;
+import io.shrouded.okara.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -13,10 +25,14 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import com.google.api.core.ApiFuture;
 
 @Service
@@ -24,8 +40,69 @@ import com.google.api.core.ApiFuture;
 @Slf4j
 public class ReactiveFirestoreService {
 
+    /**
+     * Firestore rejects commits with more writes than this
+     */
+    public static final int MAX_BATCH_WRITES = 500;
+
+    /**
+     * Page size used when streaming results of unbounded queries
+     */
+    public static final int DEFAULT_STREAM_PAGE_SIZE = 200;
+
+    /**
+     * Upper bound for a single page returned by findPage
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final Firestore firestore;
 
+    /**
+     * A single write for bulkWrite; data is the entity for SET and CREATE and the changed fields for UPDATE and MERGE
+     */
+    public record WriteOp(Type type, String collectionName, String id, Object data) {
+
+        public enum Type {
+            SET, CREATE, UPDATE, MERGE, DELETE
+        }
+
+        public static WriteOp set(String collectionName, String id, Object entity) {
+            return new WriteOp(Type.SET, collectionName, id, entity);
+        }
+
+        // Fails with ALREADY_EXISTS instead of overwriting an existing document
+        public static WriteOp create(String collectionName, String id, Object entity) {
+            return new WriteOp(Type.CREATE, collectionName, id, entity);
+        }
+
+        public static WriteOp update(String collectionName, String id, Map<String, Object> fields) {
+            return new WriteOp(Type.UPDATE, collectionName, id, fields);
+        }
+
+        public static WriteOp merge(String collectionName, String id, Map<String, Object> fields) {
+            return new WriteOp(Type.MERGE, collectionName, id, fields);
+        }
+
+        public static WriteOp delete(String collectionName, String id) {
+            return new WriteOp(Type.DELETE, collectionName, id, null);
+        }
+    }
+
+    /**
+     * Result of one bulkWrite operation, error is null when the write succeeded
+     */
+    public record WriteOutcome(WriteOp op, Throwable error) {
+
+        public boolean succeeded() {
+            return error == null;
+        }
+
+        // A CREATE that found the document already there
+        public boolean alreadyExists() {
+            return error instanceof BulkWriterException e && e.getStatus().getCode() == Status.Code.ALREADY_EXISTS;
+        }
+    }
+
     /**
      * Generic save operation for any entity
      */
@@ -56,20 +133,17 @@ public class ReactiveFirestoreService {
      */
     public <T> Mono<T> findById(String collectionName, String id,
                                Class<T> entityClass, BiConsumer<T, String> idSetter) {
-        ApiFuture<DocumentSnapshot> apiFuture = firestore.collection(collectionName).document(id).get();
-        CompletableFuture<DocumentSnapshot> future = toCompletableFuture(apiFuture);
-        
-        return Mono.fromFuture(future)
-                .mapNotNull(doc -> {
-                    if (doc.exists()) {
-                        T entity = doc.toObject(entityClass);
-                        if (entity != null) {
-                            idSetter.accept(entity, doc.getId());
-                        }
-                        return entity;
-                    }
-                    return null;
-                })
+        return findSnapshotById(collectionName, id)
+                .mapNotNull(doc -> mapDocument(doc, entityClass, idSetter));
+    }
+
+    /**
+     * Snapshot of an existing document, empty when it does not exist or could not be read.
+     * Snapshots are immutable, so callers may keep them and map them to entities repeatedly.
+     */
+    public Mono<DocumentSnapshot> findSnapshotById(String collectionName, String id) {
+        return Mono.defer(() -> Mono.fromFuture(toCompletableFuture(firestore.collection(collectionName).document(id).get())))
+                .filter(DocumentSnapshot::exists)
                 .onErrorResume(throwable -> {
                     log.error("Find operation failed for document " + id + " in collection " + collectionName + ": " + throwable.getMessage(), throwable);
                     return Mono.empty();
@@ -91,6 +165,137 @@ public class ReactiveFirestoreService {
                 });
     }
 
+    /**
+     * Reference to a document, for use inside runTransaction
+     */
+    public DocumentReference document(String collectionName, String id) {
+        return firestore.collection(collectionName).document(id);
+    }
+
+    /**
+     * Reference to a collection, for queries inside runTransaction
+     */
+    public CollectionReference collection(String collectionName) {
+        return firestore.collection(collectionName);
+    }
+
+    /**
+     * Generate a new document ID without writing, for documents written as part of a batch
+     */
+    public String newDocumentId(String collectionName) {
+        return firestore.collection(collectionName).document().getId();
+    }
+
+    /**
+     * Runs the function in a Firestore transaction; it is retried on contention, so it must only
+     * touch Firestore through the given Transaction
+     */
+    public <T> Mono<T> runTransaction(Transaction.Function<T> function) {
+        return Mono.defer(() -> Mono.fromFuture(toCompletableFuture(firestore.runTransaction(function))))
+                .onErrorResume(throwable -> {
+                    log.error("Transaction failed: " + throwable.getMessage(), throwable);
+                    return Mono.error(new RuntimeException("Transaction failed", throwable));
+                });
+    }
+
+    /**
+     * Generic partial update of an existing document; values may be FieldValue sentinels such as
+     * FieldValue.increment, which are applied server side. Fails when the document does not exist.
+     */
+    public Mono<Void> updateFields(String collectionName, String id, Map<String, Object> fields) {
+        ApiFuture<WriteResult> apiFuture = firestore.collection(collectionName).document(id).update(fields);
+
+        return Mono.fromFuture(toCompletableFuture(apiFuture))
+                .then()
+                .onErrorResume(throwable -> {
+                    log.error("Failed to update document " + id + " in collection " + collectionName + ": " + throwable.getMessage(), throwable);
+                    return Mono.error(new RuntimeException("Failed to update document in collection " + collectionName, throwable));
+                });
+    }
+
+    /**
+     * Generic partial write that creates the document when missing and merges the given fields otherwise
+     */
+    public Mono<Void> mergeFields(String collectionName, String id, Map<String, Object> fields) {
+        ApiFuture<WriteResult> apiFuture = firestore.collection(collectionName).document(id)
+            .set(fields, SetOptions.merge());
+
+        return Mono.fromFuture(toCompletableFuture(apiFuture))
+                .then()
+                .onErrorResume(throwable -> {
+                    log.error("Failed to merge document " + id + " in collection " + collectionName + ": " + throwable.getMessage(), throwable);
+                    return Mono.error(new RuntimeException("Failed to merge document in collection " + collectionName, throwable));
+                });
+    }
+
+    /**
+     * Commits the given writes in a single WriteBatch so they are applied all-or-nothing
+     */
+    public Mono<Void> commitAtomically(List<WriteOp> ops) {
+        if (ops.size() > MAX_BATCH_WRITES) {
+            return Mono.error(new IllegalArgumentException("Atomic batch exceeds " + MAX_BATCH_WRITES + " writes"));
+        }
+        return Mono.defer(() -> {
+                    WriteBatch batch = firestore.batch();
+                    ops.forEach(op -> addToBatch(batch, op));
+                    return Mono.fromFuture(toCompletableFuture(batch.commit()));
+                })
+                .then()
+                .onErrorResume(throwable -> {
+                    log.error("Failed to commit atomic batch of " + ops.size() + " writes: " + throwable.getMessage(), throwable);
+                    return Mono.error(new RuntimeException("Failed to commit atomic batch", throwable));
+                });
+    }
+
+    /**
+     * Generic batched save, committed atomically in WriteBatch chunks of MAX_BATCH_WRITES.
+     * The next chunk is only requested once the previous commit has completed.
+     */
+    public <T> Flux<T> saveAll(String collectionName, Flux<T> entities,
+                               Function<T, String> idGetter, BiConsumer<T, String> idSetter) {
+        return entities.buffer(MAX_BATCH_WRITES)
+                .concatMap(chunk -> {
+                    WriteBatch batch = firestore.batch();
+                    for (T entity : chunk) {
+                        batch.set(documentFor(collectionName, entity, idGetter.apply(entity), idSetter), entity);
+                    }
+                    return Mono.fromFuture(toCompletableFuture(batch.commit()))
+                            .thenMany(Flux.fromIterable(chunk));
+                })
+                .onErrorResume(throwable -> {
+                    log.error("Failed to save batch to collection " + collectionName + ": " + throwable.getMessage(), throwable);
+                    return Flux.error(new RuntimeException("Failed to save batch to collection " + collectionName, throwable));
+                });
+    }
+
+    /**
+     * Generic batched delete by id, committed in WriteBatch chunks of MAX_BATCH_WRITES
+     */
+    public Mono<Void> deleteAll(String collectionName, Flux<String> ids) {
+        return ids.buffer(MAX_BATCH_WRITES)
+                .concatMap(chunk -> {
+                    WriteBatch batch = firestore.batch();
+                    CollectionReference collection = firestore.collection(collectionName);
+                    chunk.forEach(id -> batch.delete(collection.document(id)));
+                    return Mono.fromFuture(toCompletableFuture(batch.commit()));
+                })
+                .then()
+                .onErrorResume(throwable -> {
+                    log.error("Failed to delete batch in collection " + collectionName + ": " + throwable.getMessage(), throwable);
+                    return Mono.error(new RuntimeException("Failed to delete batch in collection " + collectionName, throwable));
+                });
+    }
+
+    /**
+     * Non-atomic bulk write across collections using BulkWriter. Operations are submitted in
+     * chunks of MAX_BATCH_WRITES and each one reports its own outcome, so a failed write does
+     * not fail the others.
+     */
+    public Flux<WriteOutcome> bulkWrite(Flux<WriteOp> ops) {
+        return ops.buffer(MAX_BATCH_WRITES)
+                .concatMap(this::bulkWriteChunk);
+    }
+
     /**
      * Generic single field query operation
      */
@@ -126,6 +331,93 @@ public class ReactiveFirestoreService {
                 });
     }
 
+    /**
+     * Generic single field query streamed in pages of pageSize documents. Unlike stream, a failed
+     * page fails the flux, so callers can tell a complete result from one cut short.
+     */
+    public <T> Flux<T> findByFieldPaged(String collectionName, String fieldName, Object fieldValue, int pageSize,
+                                        Class<T> entityClass, BiConsumer<T, String> idSetter) {
+        return pages(firestore.collection(collectionName).whereEqualTo(fieldName, fieldValue), pageSize,
+                     entityClass, idSetter)
+                .onErrorMap(throwable -> {
+                    log.error("Paged query failed for field " + fieldName + " in collection " + collectionName + ": " + throwable.getMessage(), throwable);
+                    return new RuntimeException("Paged query failed for field " + fieldName + " in collection " + collectionName, throwable);
+                });
+    }
+
+    /**
+     * Generic keyset-paginated query. The criteria narrows the collection and results are ordered
+     * by orderByField, then by document ID so ties have a stable order. The cursor is the opaque
+     * token returned as nextCursor by the previous page and holds that page's last sort values, so
+     * it stays valid after the document it ended with is deleted. A malformed cursor is rejected.
+     */
+    public <T> Mono<CursorPage<T>> findPage(String collectionName, UnaryOperator<Query> criteria,
+                                            String orderByField, Query.Direction direction,
+                                            String cursor, int limit,
+                                            Class<T> entityClass, BiConsumer<T, String> idSetter) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Query.Direction order = direction != null ? direction : Query.Direction.ASCENDING;
+        Query query = criteria.apply(firestore.collection(collectionName));
+        if (orderByField != null) {
+            query = query.orderBy(orderByField, order);
+        }
+        // One extra document tells us whether another page exists
+        query = query.orderBy(FieldPath.documentId(), order).limit(pageSize + 1);
+
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                query = query.startAfter(PageCursor.decode(cursor, orderByField != null ? 2 : 1));
+            } catch (IllegalArgumentException e) {
+                return Mono.error(OkaraException.badRequest("Invalid page cursor"));
+            }
+        }
+
+        return fetchPage(query, null)
+                    .map(querySnapshot -> {
+                        List<QueryDocumentSnapshot> docs = querySnapshot.getDocuments();
+                        boolean hasMore = docs.size() > pageSize;
+                        List<QueryDocumentSnapshot> pageDocs = hasMore ? docs.subList(0, pageSize) : docs;
+                        List<T> items = pageDocs.stream()
+                                                .map(doc -> mapDocument(doc, entityClass, idSetter))
+                                                .toList();
+                        String nextCursor = hasMore ? cursorOf(pageDocs.get(pageDocs.size() - 1), orderByField) : null;
+                        return new CursorPage<>(items, nextCursor);
+                    })
+                    .onErrorResume(throwable -> {
+                        log.error("Failed to find page ordered by " + orderByField + " in collection " + collectionName + ": " + throwable.getMessage(), throwable);
+                        return Mono.just(CursorPage.empty());
+                    });
+    }
+
+    /**
+     * Generic streaming query. Documents are read with startAfter keyset paging, pageSize at a
+     * time, and the next page is only fetched once downstream has requested past the current one.
+     */
+    public <T> Flux<T> stream(String collectionName, UnaryOperator<Query> criteria,
+                              String orderByField, Query.Direction direction, int pageSize,
+                              Class<T> entityClass, BiConsumer<T, String> idSetter) {
+        Query query = ordered(criteria.apply(firestore.collection(collectionName)), orderByField, direction);
+
+        return pages(query, pageSize, entityClass, idSetter)
+                .onErrorResume(throwable -> {
+                    log.error("Streaming query failed in collection " + collectionName + ": " + throwable.getMessage(), throwable);
+                    return Flux.empty();
+                });
+    }
+
+    /**
+     * Streaming query over every collection with the given ID, wherever it is nested, in pages
+     * of pageSize documents
+     */
+    public <T> Flux<T> streamCollectionGroup(String collectionId, UnaryOperator<Query> criteria, int pageSize,
+                                             Class<T> entityClass, BiConsumer<T, String> idSetter) {
+        return pages(criteria.apply(firestore.collectionGroup(collectionId)), pageSize, entityClass, idSetter)
+                .onErrorResume(throwable -> {
+                    log.error("Streaming query failed in collection group " + collectionId + ": " + throwable.getMessage(), throwable);
+                    return Flux.empty();
+                });
+    }
+
     /**
      * Generic single field query that returns first result as Mono
      */
@@ -137,25 +429,13 @@ public class ReactiveFirestoreService {
     }
 
     /**
-     * Generic query with ordering
+     * Generic query with ordering, streamed page by page
      */
     public <T> Flux<T> findByFieldOrderBy(String collectionName, String fieldName, Object fieldValue,
                                          String orderByField, Query.Direction direction,
                                          Class<T> entityClass, BiConsumer<T, String> idSetter) {
-        ApiFuture<QuerySnapshot> apiFuture = firestore.collection(collectionName)
-            .whereEqualTo(fieldName, fieldValue)
-            .orderBy(orderByField, direction)
-            .get();
-        CompletableFuture<QuerySnapshot> future = toCompletableFuture(apiFuture);
-        
-        return Mono.fromFuture(future)
-                .map(QuerySnapshot::getDocuments)
-                .flatMapMany(Flux::fromIterable)
-                .map(doc -> mapDocument(doc, entityClass, idSetter))
-                .onErrorResume(throwable -> {
-                    log.error("Failed to find documents by " + fieldName + " ordered by " + orderByField + " in collection " + collectionName + ": " + throwable.getMessage(), throwable);
-                    return Flux.empty();
-                });
+        return stream(collectionName, query -> query.whereEqualTo(fieldName, fieldValue),
+                      orderByField, direction, DEFAULT_STREAM_PAGE_SIZE, entityClass, idSetter);
     }
 
     /**
@@ -269,38 +549,38 @@ public class ReactiveFirestoreService {
      */
     public <T> Flux<T> findByIdsIn(String collectionName, List<String> ids,
                                    Class<T> entityClass, BiConsumer<T, String> idSetter) {
-        List<DocumentReference> refs = ids.stream()
-            .map(id -> firestore.collection(collectionName).document(id))
-            .toList();
-        
-        ApiFuture<List<DocumentSnapshot>> apiFuture = firestore.getAll(refs.toArray(new DocumentReference[0]));
-        CompletableFuture<List<DocumentSnapshot>> future = toCompletableFuture(apiFuture);
-        
-        return Mono.fromFuture(future)
+        return findSnapshotsByIds(collectionName, ids)
                 .flatMapMany(Flux::fromIterable)
-                .filter(DocumentSnapshot::exists)
-                .map(doc -> mapDocument(doc, entityClass, idSetter))
+                .map(doc -> mapDocument(doc, entityClass, idSetter));
+    }
+
+    /**
+     * Snapshots of the existing documents among the given IDs, read in one batched get;
+     * empty when the read failed
+     */
+    public Mono<List<DocumentSnapshot>> findSnapshotsByIds(String collectionName, List<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return Mono.defer(() -> {
+                    DocumentReference[] refs = ids.stream()
+                        .map(id -> firestore.collection(collectionName).document(id))
+                        .toArray(DocumentReference[]::new);
+                    return Mono.fromFuture(toCompletableFuture(firestore.getAll(refs)));
+                })
+                .map(docs -> docs.stream().filter(DocumentSnapshot::exists).toList())
                 .onErrorResume(throwable -> {
                     log.error("Failed to batch get documents from collection " + collectionName + ": " + throwable.getMessage(), throwable);
-                    return Flux.empty();
+                    return Mono.just(List.of());
                 });
     }
 
     /**
-     * Generic find all operation
+     * Generic find all operation, streamed page by page
      */
     public <T> Flux<T> findAll(String collectionName, Class<T> entityClass, BiConsumer<T, String> idSetter) {
-        ApiFuture<QuerySnapshot> apiFuture = firestore.collection(collectionName).get();
-        CompletableFuture<QuerySnapshot> future = toCompletableFuture(apiFuture);
-        
-        return Mono.fromFuture(future)
-                .map(QuerySnapshot::getDocuments)
-                .flatMapMany(Flux::fromIterable)
-                .map(doc -> mapDocument(doc, entityClass, idSetter))
-                .onErrorResume(throwable -> {
-                    log.error("Failed to find all documents in collection " + collectionName + ": " + throwable.getMessage(), throwable);
-                    return Flux.empty();
-                });
+        return stream(collectionName, UnaryOperator.identity(), null, null,
+                      DEFAULT_STREAM_PAGE_SIZE, entityClass, idSetter);
     }
 
     /**
@@ -324,29 +604,17 @@ public class ReactiveFirestoreService {
     }
 
     /**
-     * Generic array contains query with ordering
+     * Generic array contains query with ordering, streamed page by page
      */
     public <T> Flux<T> findByArrayContainsOrderBy(String collectionName, String fieldName, Object value,
                                                   String orderByField, Query.Direction direction,
                                                   Class<T> entityClass, BiConsumer<T, String> idSetter) {
-        ApiFuture<QuerySnapshot> apiFuture = firestore.collection(collectionName)
-            .whereArrayContains(fieldName, value)
-            .orderBy(orderByField, direction)
-            .get();
-        CompletableFuture<QuerySnapshot> future = toCompletableFuture(apiFuture);
-        
-        return Mono.fromFuture(future)
-                .map(QuerySnapshot::getDocuments)
-                .flatMapMany(Flux::fromIterable)
-                .map(doc -> mapDocument(doc, entityClass, idSetter))
-                .onErrorResume(throwable -> {
-                    log.error("Failed to find documents by array contains " + fieldName + " ordered by " + orderByField + " in collection " + collectionName + ": " + throwable.getMessage(), throwable);
-                    return Flux.empty();
-                });
+        return stream(collectionName, query -> query.whereArrayContains(fieldName, value),
+                      orderByField, direction, DEFAULT_STREAM_PAGE_SIZE, entityClass, idSetter);
     }
 
     /**
-     * Generic delete by field operation
+     * Generic delete by field operation, removing the matches through bulkWrite
      */
     public Mono<Void> deleteByField(String collectionName, String fieldName, Object fieldValue) {
         ApiFuture<QuerySnapshot> queryFuture = firestore.collection(collectionName)
@@ -355,15 +623,14 @@ public class ReactiveFirestoreService {
         CompletableFuture<QuerySnapshot> future = toCompletableFuture(queryFuture);
         
         return Mono.fromFuture(future)
-                .flatMap(querySnapshot -> {
-                    List<CompletableFuture<WriteResult>> deleteFutures = querySnapshot.getDocuments()
-                        .stream()
-                        .map(doc -> toCompletableFuture(doc.getReference().delete()))
-                        .toList();
-                    
-                    return Mono.fromFuture(CompletableFuture.allOf(deleteFutures.toArray(new CompletableFuture[0])));
-                })
-                .then()
+                .flatMapMany(querySnapshot -> Flux.fromIterable(querySnapshot.getDocuments()))
+                .map(doc -> WriteOp.delete(collectionName, doc.getId()))
+                .transform(this::bulkWrite)
+                .filter(outcome -> !outcome.succeeded())
+                .count()
+                .flatMap(failed -> failed == 0
+                        ? Mono.<Void>empty()
+                        : Mono.error(new RuntimeException(failed + " deletes failed")))
                 .onErrorResume(throwable -> {
                     log.error("Failed to delete documents by " + fieldName + " in collection " + collectionName + ": " + throwable.getMessage(), throwable);
                     return Mono.error(new RuntimeException("Failed to delete documents by " + fieldName + " in collection " + collectionName, throwable));
@@ -371,9 +638,145 @@ public class ReactiveFirestoreService {
     }
 
     /**
-     * Helper method to map DocumentSnapshot to entity
+     * Helper method to submit one chunk to a fresh BulkWriter and collect the per-op outcomes
+     */
+    private Flux<WriteOutcome> bulkWriteChunk(List<WriteOp> chunk) {
+        return Flux.defer(() -> {
+            BulkWriter writer = firestore.bulkWriter();
+            List<Mono<WriteOutcome>> outcomes = new ArrayList<>(chunk.size());
+            for (WriteOp op : chunk) {
+                try {
+                    outcomes.add(Mono.fromFuture(toCompletableFuture(enqueue(writer, op)))
+                            .map(writeResult -> new WriteOutcome(op, null))
+                            .onErrorResume(throwable -> Mono.just(new WriteOutcome(op, throwable))));
+                } catch (RuntimeException e) {
+                    outcomes.add(Mono.just(new WriteOutcome(op, e)));
+                }
+            }
+
+            // Failures are reported per operation, so the flush itself never fails the chunk
+            return Mono.fromFuture(toCompletableFuture(writer.flush()))
+                    .onErrorResume(throwable -> Mono.empty())
+                    .thenMany(Flux.concat(outcomes))
+                    .doOnNext(outcome -> {
+                        if (!outcome.succeeded() && !outcome.alreadyExists()) {
+                            log.warn("Bulk {} of document {} in collection {} failed: {}",
+                                    outcome.op().type(), outcome.op().id(), outcome.op().collectionName(),
+                                    outcome.error().getMessage());
+                        }
+                    })
+                    // close() waits for pending writes, keep it off the calling thread
+                    .doFinally(signal -> Schedulers.boundedElastic().schedule(() -> closeQuietly(writer)));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private ApiFuture<WriteResult> enqueue(BulkWriter writer, WriteOp op) {
+        DocumentReference docRef = firestore.collection(op.collectionName()).document(op.id());
+        return switch (op.type()) {
+            case SET -> writer.set(docRef, op.data());
+            case CREATE -> writer.create(docRef, op.data());
+            case UPDATE -> writer.update(docRef, (Map<String, Object>) op.data());
+            case MERGE -> writer.set(docRef, (Map<String, Object>) op.data(), SetOptions.merge());
+            case DELETE -> writer.delete(docRef);
+        };
+    }
+
+    /**
+     * Applies the write as part of a transaction, for use inside runTransaction
+     */
+    @SuppressWarnings("unchecked")
+    public void addToTransaction(Transaction transaction, WriteOp op) {
+        DocumentReference docRef = firestore.collection(op.collectionName()).document(op.id());
+        switch (op.type()) {
+            case SET -> transaction.set(docRef, op.data());
+            case CREATE -> transaction.create(docRef, op.data());
+            case UPDATE -> transaction.update(docRef, (Map<String, Object>) op.data());
+            case MERGE -> transaction.set(docRef, (Map<String, Object>) op.data(), SetOptions.merge());
+            case DELETE -> transaction.delete(docRef);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addToBatch(WriteBatch batch, WriteOp op) {
+        DocumentReference docRef = firestore.collection(op.collectionName()).document(op.id());
+        switch (op.type()) {
+            case SET -> batch.set(docRef, op.data());
+            case CREATE -> batch.create(docRef, op.data());
+            case UPDATE -> batch.update(docRef, (Map<String, Object>) op.data());
+            case MERGE -> batch.set(docRef, (Map<String, Object>) op.data(), SetOptions.merge());
+            case DELETE -> batch.delete(docRef);
+        }
+    }
+
+    private void closeQuietly(BulkWriter writer) {
+        try {
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Failed to close bulk writer: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Helper method to resolve the document for an entity, generating an id when it has none
+     */
+    private <T> DocumentReference documentFor(String collectionName, T entity, String id, BiConsumer<T, String> idSetter) {
+        if (id == null) {
+            DocumentReference docRef = firestore.collection(collectionName).document();
+            idSetter.accept(entity, docRef.getId());
+            return docRef;
+        }
+        return firestore.collection(collectionName).document(id);
+    }
+
+    /**
+     * Helper method to apply the optional ordering of a paged query
+     */
+    private Query ordered(Query query, String orderByField, Query.Direction direction) {
+        if (orderByField == null) {
+            return query;
+        }
+        return query.orderBy(orderByField, direction != null ? direction : Query.Direction.ASCENDING);
+    }
+
+    /**
+     * Helper method to build the cursor continuing after the given document
+     */
+    private String cursorOf(DocumentSnapshot doc, String orderByField) {
+        return orderByField != null
+                ? PageCursor.encode(doc.get(orderByField), doc.getId())
+                : PageCursor.encode(doc.getId());
+    }
+
+    /**
+     * Helper method to read a query with startAfter keyset paging, pageSize documents at a time
+     */
+    private <T> Flux<T> pages(Query query, int pageSize, Class<T> entityClass, BiConsumer<T, String> idSetter) {
+        Query limited = query.limit(pageSize);
+        return fetchPage(limited, null)
+                .expand(snapshot -> snapshot.size() < pageSize
+                        ? Mono.empty()
+                        : fetchPage(limited, snapshot.getDocuments().get(snapshot.size() - 1)))
+                .flatMapIterable(QuerySnapshot::getDocuments, 1)
+                .map(doc -> mapDocument(doc, entityClass, idSetter));
+    }
+
+    /**
+     * Helper method to fetch one page of a query, starting after the given document when present
+     */
+    private Mono<QuerySnapshot> fetchPage(Query query, DocumentSnapshot after) {
+        return Mono.defer(() -> {
+            Query page = after != null ? query.startAfter(after) : query;
+            return Mono.fromFuture(toCompletableFuture(page.get()));
+        });
+    }
+
+    /**
+     * Map a DocumentSnapshot to a new entity instance
      */
-    private <T> T mapDocument(DocumentSnapshot doc, Class<T> entityClass, BiConsumer<T, String> idSetter) {
+    public <T> T mapDocument(DocumentSnapshot doc, Class<T> entityClass, BiConsumer<T, String> idSetter) {
         T entity = doc.toObject(entityClass);
         if (entity != null) {
             idSetter.accept(entity, doc.getId());
@@ -0,0 +1,489 @@
+package io.shrouded.okara.service;
+
+import com.google.cloud.Timestamp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.shrouded.okara.config.TrendingProperties;
+import io.shrouded.okara.dto.trending.TrendingHashtagDto;
+import io.shrouded.okara.model.Feed;
+import io.shrouded.okara.model.TrendingSketchBucket;
+import io.shrouded.okara.repository.TrendingSketchRepository;
+import io.shrouded.okara.util.CountMinSketch;
+import io.shrouded.okara.util.TimestampUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+
+/**
+ * Trending hashtags over a sliding window, globally and per chatroom.
+ * <p>
+ * Hashtag uses of created posts are counted in one count-min sketch per window bucket, keyed by
+ * chatroom and hashtag; the window total is kept as the running sum of its buckets. Each ranking
+ * keeps a bounded min-heap of its heaviest hashtags by estimated count, and the served rankings
+ * are immutable lists rebuilt on a timer, so reads are a map lookup.
+ * <p>
+ * The global ranking and every chatroom share the sketch, so its estimates carry collision noise
+ * of about the window's uses per sketch column, and hashtags estimated at or below that are left
+ * out. That would hide every hashtag of a small chatroom, so chatrooms are also counted exactly
+ * per bucket up to a number of distinct hashtags; a chatroom is ranked from its exact counts
+ * while no bucket in the window overflowed for it, and from the sketch otherwise.
+ * <p>
+ * Every instance only sees the events it consumes. Instances checkpoint their buckets and load
+ * those of the others, adding their counts and heaviest hashtags to the rankings they serve.
+ * A restarted instance loads the buckets it wrote before the restart the same way, so trends
+ * survive restarts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingHashtagService {
+
+    // Buckets are written with the writing instance's clock
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(5);
+    private static final String GLOBAL = "";
+
+    private final TrendingSketchRepository sketchRepository;
+    private final TrendingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Guarded by this
+    private final Deque<LocalBucket> localBuckets = new ArrayDeque<>();
+    private final Map<String, PeerBucket> peerBuckets = new HashMap<>();
+    private final Map<String, TopK> scopes = new HashMap<>();
+    private CountMinSketch localWindow;
+    private CountMinSketch peerWindow;
+    private final Map<String, Long> localExact = new HashMap<>();
+    private final Map<String, Integer> localOverflows = new HashMap<>(); // Local buckets in the window each chatroom overflowed in
+    private Map<String, Long> peerExact = Map.of();
+    private Set<String> peerOverflowed = Set.of();
+    private boolean peerSketchOnly; // A peer bucket from before exact counts is in the window
+
+    private volatile Map<String, List<TrendingHashtagDto>> rankings = Map.of();
+    private volatile Instant syncedUpTo;
+    private Counter recorded;
+    private Disposable maintenance;
+
+    @PostConstruct
+    public void start() {
+        recorded = meterRegistry.counter("okara.trending.hashtags.recorded");
+        meterRegistry.gauge("okara.trending.rankings", this, service -> service.rankings.size());
+        localWindow = newSketch();
+        peerWindow = newSketch();
+
+        // The first checkpoint tick loads the buckets already in the store
+        maintenance = Flux.merge(Flux.interval(Duration.ZERO, properties.getCheckpointInterval()).map(tick -> true),
+                                 Flux.interval(properties.getRefreshInterval()).map(tick -> false))
+                          .onBackpressureDrop()
+                          .concatMap(checkpoint -> checkpoint ? Mono.defer(this::checkpoint).then(Mono.defer(this::syncPeers))
+                                                               : Mono.fromRunnable(this::refresh), 1)
+                          .subscribe();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenance.dispose();
+        try {
+            checkpoint().block(Duration.ofSeconds(5));
+        } catch (RuntimeException e) {
+            log.warn("Failed to checkpoint trending hashtags on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Count the hashtags of a created post, globally and in each chatroom it was posted to
+     */
+    public void record(Feed post, List<String> chatroomIds) {
+        Set<String> postScopes = new LinkedHashSet<>();
+        postScopes.add(GLOBAL);
+        if (chatroomIds != null) {
+            postScopes.addAll(chatroomIds);
+        }
+        record(post, postScopes);
+    }
+
+    /**
+     * Count the hashtags of a cross-posted post in the chatrooms it was added to only; it already
+     * counted globally and in its other chatrooms when it was created
+     */
+    public void recordCrossPost(Feed post, List<String> addedChatroomIds) {
+        record(post, new LinkedHashSet<>(addedChatroomIds));
+    }
+
+    private void record(Feed post, Set<String> postScopes) {
+        if (post.getHashtags() == null || post.getHashtags().isEmpty() || postScopes.isEmpty()) {
+            return;
+        }
+        Set<String> hashtags = new LinkedHashSet<>();
+        post.getHashtags().forEach(hashtag -> hashtags.add(hashtag.toLowerCase(Locale.ROOT)));
+
+        synchronized (this) {
+            LocalBucket bucket = slide(TimestampUtils.now().getEpochSecond());
+            for (String hashtag : hashtags) {
+                for (String scope : postScopes) {
+                    String key = key(scope, hashtag);
+                    bucket.sketch.add(key, 1);
+                    bucket.keys.add(key);
+                    localWindow.add(key, 1);
+                    if (!GLOBAL.equals(scope)) {
+                        countExactly(bucket, scope, key);
+                    }
+                    offer(scope, hashtag, estimate(scope, hashtag));
+                }
+            }
+            bucket.dirty = true;
+        }
+        recorded.increment(hashtags.size());
+    }
+
+    /**
+     * Current top hashtags of the chatroom, or across all chatrooms when chatroomId is null
+     */
+    public List<TrendingHashtagDto> getTrending(String chatroomId, int limit) {
+        List<TrendingHashtagDto> ranking = rankings.getOrDefault(chatroomId != null ? chatroomId : GLOBAL, List.of());
+        return ranking.subList(0, Math.max(0, Math.min(limit, ranking.size())));
+    }
+
+    private synchronized void refresh() {
+        slide(TimestampUtils.now().getEpochSecond());
+        reestimate();
+    }
+
+    // Starts the bucket for the current time if needed, drops buckets that left the window and returns the current bucket
+    private LocalBucket slide(long nowSeconds) {
+        long bucketSeconds = properties.getBucketDuration().toSeconds();
+        long bucketStart = nowSeconds - Math.floorMod(nowSeconds, bucketSeconds);
+        if (localBuckets.isEmpty() || localBuckets.getLast().start < bucketStart) {
+            localBuckets.addLast(new LocalBucket(bucketStart, newSketch()));
+        }
+
+        long windowStart = windowStart(nowSeconds);
+        while (localBuckets.getFirst().start < windowStart) {
+            LocalBucket dropped = localBuckets.removeFirst();
+            localWindow.subtract(dropped.sketch);
+            dropped.exactCounts.forEach((key, count) -> subtract(localExact, key, count));
+            dropped.overflowed.forEach(scope -> localOverflows.computeIfPresent(scope, (s, buckets) -> buckets > 1 ? buckets - 1 : null));
+        }
+        if (peerBuckets.values().removeIf(bucket -> bucket.start < windowStart)) {
+            rebuildPeerWindow();
+        }
+        return localBuckets.getLast();
+    }
+
+    // Estimates every tracked hashtag against the current window and publishes the rankings
+    private void reestimate() {
+        // All scopes share the sketch, so a sketch estimate may include about this many uses of other keys
+        long noiseFloor = (localWindow.total() + peerWindow.total()) / properties.getSketchWidth();
+        Map<String, List<TrendingHashtagDto>> rebuilt = new HashMap<>();
+        scopes.entrySet().removeIf(entry -> {
+            String scope = entry.getKey();
+            TopK topK = entry.getValue();
+            topK.reestimate(hashtag -> estimate(scope, hashtag), isExact(scope) ? 0 : noiseFloor);
+            if (topK.isEmpty() && !GLOBAL.equals(scope)) {
+                return true;
+            }
+            rebuilt.put(scope, topK.ranking(properties.getTopK()));
+            return false;
+        });
+        rankings = Map.copyOf(rebuilt);
+    }
+
+    // Exact for chatrooms counted exactly in every bucket of the window, otherwise from the sketches
+    private long estimate(String scope, String hashtag) {
+        String key = key(scope, hashtag);
+        if (isExact(scope)) {
+            return localExact.getOrDefault(key, 0L) + peerExact.getOrDefault(key, 0L);
+        }
+        return localWindow.estimateWith(key, peerWindow);
+    }
+
+    private boolean isExact(String scope) {
+        return !GLOBAL.equals(scope) && !peerSketchOnly
+                && !localOverflows.containsKey(scope) && !peerOverflowed.contains(scope);
+    }
+
+    // Counts a chatroom use in the bucket's exact counts, unless the chatroom overflowed there
+    private void countExactly(LocalBucket bucket, String scope, String key) {
+        if (bucket.overflowed.contains(scope)) {
+            return;
+        }
+        if (!bucket.exactCounts.containsKey(key)) {
+            int hashtags = bucket.exactHashtags.getOrDefault(scope, 0);
+            if (hashtags >= properties.getExactHashtagsPerChatroom()
+                    || bucket.exactCounts.size() >= properties.getExactCountsPerBucket()) {
+                overflow(bucket, scope);
+                return;
+            }
+            bucket.exactHashtags.put(scope, hashtags + 1);
+        }
+        bucket.exactCounts.merge(key, 1L, Long::sum);
+        localExact.merge(key, 1L, Long::sum);
+    }
+
+    // The chatroom is ranked from the sketch while the bucket is in the window, so its exact counts there are dropped
+    private void overflow(LocalBucket bucket, String scope) {
+        bucket.overflowed.add(scope);
+        localOverflows.merge(scope, 1, Integer::sum);
+        String prefix = key(scope, "");
+        bucket.exactCounts.entrySet().removeIf(entry -> {
+            if (!entry.getKey().startsWith(prefix)) {
+                return false;
+            }
+            subtract(localExact, entry.getKey(), entry.getValue());
+            return true;
+        });
+        bucket.exactHashtags.remove(scope);
+    }
+
+    private static void subtract(Map<String, Long> counts, String key, long count) {
+        counts.computeIfPresent(key, (k, current) -> current > count ? current - count : null);
+    }
+
+    private void offer(String scope, String hashtag, long estimate) {
+        TopK topK = scopes.get(scope);
+        if (topK == null) {
+            if (!GLOBAL.equals(scope) && scopes.size() > properties.getMaxChatrooms()) {
+                return;
+            }
+            topK = new TopK(properties.getCandidatesPerScope());
+            scopes.put(scope, topK);
+        }
+        topK.offer(hashtag, estimate);
+    }
+
+    private Mono<Void> checkpoint() {
+        Map<LocalBucket, TrendingSketchBucket> dirty = new HashMap<>();
+        synchronized (this) {
+            long windowSeconds = properties.getWindow().toSeconds() + properties.getBucketDuration().toSeconds();
+            for (LocalBucket bucket : localBuckets) {
+                if (!bucket.dirty) {
+                    continue;
+                }
+                // Only hashtags that are among the heaviest here are shared; the counts of all of them are in the sketch
+                List<String> candidates = bucket.keys.stream().filter(this::isCandidate).toList();
+                dirty.put(bucket, new TrendingSketchBucket(nodeId, timestamp(bucket.start),
+                                                           timestamp(bucket.start + windowSeconds),
+                                                           bucket.sketch.toBytes(), candidates,
+                                                           Map.copyOf(bucket.exactCounts),
+                                                           List.copyOf(bucket.overflowed)));
+                bucket.dirty = false;
+            }
+        }
+        return Flux.fromIterable(dirty.entrySet())
+                   .concatMap(entry -> sketchRepository.save(entry.getValue())
+                                                       .then()
+                                                       .onErrorResume(e -> {
+                                                           log.warn("Failed to checkpoint trending bucket {}: {}",
+                                                                    entry.getValue().getId(), e.getMessage());
+                                                           synchronized (this) {
+                                                               entry.getKey().dirty = true;
+                                                           }
+                                                           return Mono.empty();
+                                                       }))
+                   .then();
+    }
+
+    private Mono<Void> syncPeers() {
+        Instant started = TimestampUtils.now();
+        Instant from = syncedUpTo != null
+                ? syncedUpTo.minus(CLOCK_SKEW)
+                : Instant.ofEpochSecond(windowStart(started.getEpochSecond()));
+        return sketchRepository.findUpdatedSince(timestamp(from.getEpochSecond()))
+                               .filter(bucket -> !nodeId.equals(bucket.getNodeId()))
+                               .collectList()
+                               .doOnNext(this::mergePeers)
+                               .then(Mono.fromRunnable(() -> syncedUpTo = started))
+                               .then()
+                               .onErrorResume(e -> {
+                                   log.warn("Failed to load trending buckets of other instances: {}", e.getMessage());
+                                   return Mono.empty();
+                               });
+    }
+
+    private synchronized void mergePeers(List<TrendingSketchBucket> buckets) {
+        long windowStart = windowStart(TimestampUtils.now().getEpochSecond());
+        Set<String> candidates = new HashSet<>();
+        for (TrendingSketchBucket bucket : buckets) {
+            long start = bucket.getBucketStart().getSeconds();
+            if (start < windowStart || bucket.getSketch() == null) {
+                continue;
+            }
+            CountMinSketch sketch = CountMinSketch.fromBytes(bucket.getSketch().toBytes());
+            if (!sketch.sameShape(localWindow)) {
+                // Written with other sketch settings
+                continue;
+            }
+            Set<String> overflowed = bucket.getOverflowedChatrooms() != null
+                    ? Set.copyOf(bucket.getOverflowedChatrooms())
+                    : Set.of();
+            peerBuckets.put(bucket.getId(), new PeerBucket(start, sketch, bucket.getExactCounts(), overflowed));
+            if (bucket.getCandidates() != null) {
+                candidates.addAll(bucket.getCandidates());
+            }
+        }
+        rebuildPeerWindow();
+        for (String key : candidates) {
+            int separator = key.indexOf(' ');
+            if (separator >= 0) {
+                String scope = key.substring(0, separator);
+                String hashtag = key.substring(separator + 1);
+                offer(scope, hashtag, estimate(scope, hashtag));
+            }
+        }
+        reestimate();
+    }
+
+    private void rebuildPeerWindow() {
+        CountMinSketch rebuilt = newSketch();
+        Map<String, Long> exact = new HashMap<>();
+        Set<String> overflowed = new HashSet<>();
+        boolean sketchOnly = false;
+        for (PeerBucket bucket : peerBuckets.values()) {
+            rebuilt.merge(bucket.sketch);
+            if (bucket.exactCounts == null) {
+                // Written before chatrooms were counted exactly
+                sketchOnly = true;
+                continue;
+            }
+            bucket.exactCounts.forEach((key, count) -> exact.merge(key, count, Long::sum));
+            overflowed.addAll(bucket.overflowed);
+        }
+        peerWindow = rebuilt;
+        peerExact = exact;
+        peerOverflowed = overflowed;
+        peerSketchOnly = sketchOnly;
+    }
+
+    private boolean isCandidate(String key) {
+        int separator = key.indexOf(' ');
+        TopK topK = scopes.get(key.substring(0, separator));
+        return topK != null && topK.contains(key.substring(separator + 1));
+    }
+
+    // Start of the oldest bucket still in the window
+    private long windowStart(long nowSeconds) {
+        long bucketSeconds = properties.getBucketDuration().toSeconds();
+        long buckets = Math.max(1, ceilDiv(properties.getWindow().toSeconds(), bucketSeconds));
+        return nowSeconds - Math.floorMod(nowSeconds, bucketSeconds) - (buckets - 1) * bucketSeconds;
+    }
+
+    private CountMinSketch newSketch() {
+        return new CountMinSketch(properties.getSketchDepth(), properties.getSketchWidth());
+    }
+
+    // Hashtags are single words and chatroom IDs contain no spaces
+    private static String key(String scope, String hashtag) {
+        return scope + " " + hashtag;
+    }
+
+    private static Timestamp timestamp(long epochSeconds) {
+        return Timestamp.ofTimeSecondsAndNanos(epochSeconds, 0);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static final class LocalBucket {
+        private final long start;
+        private final CountMinSketch sketch;
+        private final Set<String> keys = new HashSet<>();
+        private final Map<String, Long> exactCounts = new HashMap<>();
+        private final Map<String, Integer> exactHashtags = new HashMap<>(); // Distinct hashtags counted exactly per chatroom
+        private final Set<String> overflowed = new HashSet<>();
+        private boolean dirty;
+
+        private LocalBucket(long start, CountMinSketch sketch) {
+            this.start = start;
+            this.sketch = sketch;
+        }
+    }
+
+    private record PeerBucket(long start, CountMinSketch sketch, Map<String, Long> exactCounts, Set<String> overflowed) {
+    }
+
+    private record Candidate(String hashtag, long estimate) {
+    }
+
+    /**
+     * The heaviest hashtags of one ranking: a min-heap by estimate, so the lightest is evicted first
+     */
+    private static final class TopK {
+        private final int capacity;
+        private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingLong(Candidate::estimate));
+        private final Map<String, Candidate> byHashtag = new HashMap<>();
+
+        private TopK(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private void offer(String hashtag, long estimate) {
+            Candidate existing = byHashtag.get(hashtag);
+            if (existing != null) {
+                heap.remove(existing);
+            } else if (heap.size() >= capacity && heap.peek().estimate() >= estimate) {
+                return;
+            }
+            Candidate candidate = new Candidate(hashtag, estimate);
+            byHashtag.put(hashtag, candidate);
+            heap.add(candidate);
+            if (heap.size() > capacity) {
+                byHashtag.remove(heap.poll().hashtag());
+            }
+        }
+
+        // Hashtags whose estimate is at or below the noise floor cannot be told apart from collisions
+        // with other keys, which includes those whose uses all left the window, and are dropped; the
+        // floor is 0 for exact counts
+        private void reestimate(ToLongFunction<String> estimate, long noiseFloor) {
+            List<Candidate> candidates = new ArrayList<>(heap);
+            heap.clear();
+            byHashtag.clear();
+            for (Candidate candidate : candidates) {
+                long current = estimate.applyAsLong(candidate.hashtag());
+                if (current > noiseFloor) {
+                    offer(candidate.hashtag(), current);
+                }
+            }
+        }
+
+        private boolean contains(String hashtag) {
+            return byHashtag.containsKey(hashtag);
+        }
+
+        private boolean isEmpty() {
+            return heap.isEmpty();
+        }
+
+        private List<TrendingHashtagDto> ranking(int limit) {
+            return heap.stream()
+                       .sorted(Comparator.comparingLong(Candidate::estimate).reversed())
+                       .limit(limit)
+                       .map(candidate -> new TrendingHashtagDto(candidate.hashtag(), candidate.estimate()))
+                       .toList();
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package io.shrouded.okara.service;
 
 import io.shrouded.okara.exception.OkaraException;
+import io.shrouded.okara.model.Feed;
+import io.shrouded.okara.model.Message;
 import io.shrouded.okara.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
@@ -18,7 +21,11 @@ public class UserDeleteService {
     private final ViewEventRepository viewEventRepository;
     private final MessageRepository messageRepository;
     private final ChatroomRepository chatroomRepository;
+    private final ChatroomMemberRepository chatroomMemberRepository;
+    private final PostReactionRepository postReactionRepository;
+    private final FollowRepository followRepository;
     private final FirebaseAuthService firebaseAuthService;
+    private final CurrentUserService currentUserService;
 
     public Mono<Void> deleteAllUserData(String firebaseUid) {
         log.info("🗑️ Starting complete data deletion for user: {}", firebaseUid);
@@ -42,7 +49,13 @@ public class UserDeleteService {
                             deleteUserMessages(firebaseUid),
                             
                             // Remove user from chatrooms and clean up
-                            removeUserFromChatrooms(firebaseUid)
+                            removeUserFromChatrooms(firebaseUid),
+
+                            // Delete user's reactions to posts
+                            deleteUserReactions(firebaseUid),
+
+                            // Remove follow edges in both directions
+                            deleteUserFollows(firebaseUid)
                     )
                     .then(deleteUserRecord(firebaseUid))
                     .then(deleteFirebaseUser(firebaseUid))
@@ -56,52 +69,59 @@ public class UserDeleteService {
 
     private Mono<Void> deleteUserFeedData(String firebaseUid) {
         log.debug("🗑️ Deleting feed data for user: {}", firebaseUid);
-        return feedRepository.findByAuthorIdAndParentIdIsNull(firebaseUid)
-                .flatMap(feedRepository::delete)
-                .then()
+        return feedRepository.deleteAllById(feedRepository.findByAuthorIdAndParentIdIsNull(firebaseUid)
+                        .map(Feed::getId))
                 .doOnSuccess(v -> log.debug("🗑️ Feed data deleted for user: {}", firebaseUid));
     }
 
     private Mono<Void> deleteUserPersonalFeed(String firebaseUid) {
         log.debug("🗑️ Deleting personal feed for user: {}", firebaseUid);
-        return userFeedRepository.findByUserId(firebaseUid)
-                .flatMap(userFeedRepository::delete)
-                .then()
+        return userFeedRepository.deleteByUserId(firebaseUid)
                 .doOnSuccess(v -> log.debug("🗑️ Personal feed deleted for user: {}", firebaseUid));
     }
 
     private Mono<Void> deleteUserViewEvents(String firebaseUid) {
         log.debug("🗑️ Deleting view events for user: {}", firebaseUid);
-        return viewEventRepository.findByUserId(firebaseUid)
-                .flatMap(viewEventRepository::delete)
-                .then()
+        return viewEventRepository.deleteAll(viewEventRepository.findByUserId(firebaseUid))
                 .doOnSuccess(v -> log.debug("🗑️ View events deleted for user: {}", firebaseUid));
     }
 
+    private Mono<Void> deleteUserReactions(String firebaseUid) {
+        log.debug("🗑️ Deleting reactions for user: {}", firebaseUid);
+        return postReactionRepository.deleteByUserId(firebaseUid)
+                .doOnSuccess(v -> log.debug("🗑️ Reactions deleted for user: {}", firebaseUid));
+    }
+
+    private Mono<Void> deleteUserFollows(String firebaseUid) {
+        log.debug("🗑️ Deleting follow edges for user: {}", firebaseUid);
+        // Unfollow edge by edge so the other users' follower/following counts stay right
+        return Flux.merge(followRepository.findByFollowerId(firebaseUid),
+                          followRepository.findByFolloweeId(firebaseUid))
+                .flatMap(follow -> followRepository.unfollow(follow.getFollowerId(), follow.getFolloweeId())
+                                                   .onErrorResume(e -> {
+                                                       log.warn("🗑️ Failed to remove follow edge {}: {}",
+                                                                follow.getId(), e.getMessage());
+                                                       return Mono.just(false);
+                                                   }), 8)
+                .then()
+                .doOnSuccess(v -> log.debug("🗑️ Follow edges deleted for user: {}", firebaseUid));
+    }
+
     private Mono<Void> deleteUserMessages(String firebaseUid) {
         log.debug("🗑️ Deleting messages for user: {}", firebaseUid);
-        return Mono.when(
-                messageRepository.findBySenderIdOrderBySentAtDesc(firebaseUid)
-                        .flatMap(messageRepository::delete),
+        return messageRepository.deleteAll(Flux.merge(
+                messageRepository.findBySenderIdOrderBySentAtDesc(firebaseUid),
                 messageRepository.findByReceiverIdOrderBySentAtDesc(firebaseUid)
-                        .flatMap(messageRepository::delete)
-        ).doOnSuccess(v -> log.debug("🗑️ Messages deleted for user: {}", firebaseUid));
+        ).distinct(Message::getId)).doOnSuccess(v -> log.debug("🗑️ Messages deleted for user: {}", firebaseUid));
     }
 
     private Mono<Void> removeUserFromChatrooms(String firebaseUid) {
         log.debug("🗑️ Removing user from chatrooms: {}", firebaseUid);
         
+        // Each chatroom is updated transactionally, so joins and leaves meanwhile are kept
         return chatroomRepository.findByParticipantsContaining(firebaseUid)
-                .flatMap(chatroom -> {
-                    // Remove user from participants list
-                    chatroom.getParticipants().remove(firebaseUid);
-                    chatroom.setParticipantCount(chatroom.getParticipants().size());
-                    
-                    // If chatroom becomes empty and it's not a system chatroom, we could delete it
-                    // For now, we'll just update the participant count
-                    return chatroomRepository.save(chatroom);
-                })
-                .then()
+                .flatMap(chatroom -> chatroomRepository.removeParticipant(chatroom.getId(), firebaseUid), 8)
+                .then(chatroomMemberRepository.deleteByUserId(firebaseUid))
                 .doOnSuccess(v -> log.debug("🗑️ User removed from chatrooms: {}", firebaseUid));
     }
 
@@ -109,7 +129,10 @@ public class UserDeleteService {
         log.debug("🗑️ Deleting user record: {}", firebaseUid);
         return userRepository.findById(firebaseUid)
                 .flatMap(userRepository::delete)
-                .doOnSuccess(v -> log.debug("🗑️ User record deleted: {}", firebaseUid));
+                .doOnSuccess(v -> {
+                    currentUserService.forgetUser(firebaseUid);
+                    log.debug("🗑️ User record deleted: {}", firebaseUid);
+                });
     }
 
     private Mono<Void> deleteFirebaseUser(String firebaseUid) {
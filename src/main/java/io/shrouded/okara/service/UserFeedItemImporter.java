@@ -0,0 +1,90 @@
+package io.shrouded.okara.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
+import io.shrouded.okara.model.FeedItem;
+import io.shrouded.okara.model.UserFeed;
+import io.shrouded.okara.repository.UserFeedRepository;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One-off import of the item lists that used to be embedded in user_feeds documents into their
+ * items subcollection. Items are created only where missing, so items fanned out since the
+ * deploy are kept; items from before feed items expired get an expiry counted from when they
+ * were added. A feed's list is only removed once all of its items are written, so a failed feed
+ * is picked up again by the next run. Re-running it is harmless; enable with
+ * feed.import-embedded-items=true.
+ */
+@Component
+@ConditionalOnProperty(name = "feed.import-embedded-items", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class UserFeedItemImporter implements ApplicationRunner {
+
+    private static final String USER_FEEDS_COLLECTION = "user_feeds";
+    private static final List<String> LEGACY_FIELDS = List.of("items");
+
+    private final ReactiveFirestoreService firestoreService;
+    private final UserFeedRepository userFeedRepository;
+
+    /**
+     * Just the legacy item list of a user_feeds document
+     */
+    @Data
+    @NoArgsConstructor
+    @IgnoreExtraProperties
+    public static class LegacyFeedItems {
+        private String id;
+        private List<FeedItem> items;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AtomicLong imported = new AtomicLong();
+        firestoreService.findAll(USER_FEEDS_COLLECTION, LegacyFeedItems.class, LegacyFeedItems::setId)
+                        .filter(legacy -> legacy.getItems() != null)
+                        // The list is only removed once every item of the feed has been written
+                        .concatMap(legacy -> userFeedRepository.appendItems(List.of(batch(legacy)), Map.of())
+                                                               .then(Mono.defer(() -> userFeedRepository.deleteFields(legacy.getId(), LEGACY_FIELDS)))
+                                                               .doOnSuccess(v -> imported.incrementAndGet())
+                                                               .onErrorResume(e -> {
+                                                                   log.error("Failed to import items of feed {}, keeping its list: {}",
+                                                                             legacy.getId(), e.getMessage());
+                                                                   return Mono.empty();
+                                                               }))
+                        .then()
+                        .subscribe(v -> { },
+                                   e -> log.error("Feed item import failed after {} feeds: {}", imported.get(), e.getMessage(), e),
+                                   () -> log.info("Imported embedded items of {} feeds", imported.get()));
+    }
+
+    private UserFeed batch(LegacyFeedItems legacy) {
+        List<FeedItem> items = new ArrayList<>();
+        for (FeedItem item : legacy.getItems()) {
+            if (item == null || item.getPostId() == null) {
+                continue;
+            }
+            if (item.getExpireAt() == null) {
+                Timestamp added = item.getAddedToFeedAt() != null ? item.getAddedToFeedAt() : Timestamp.now();
+                item.setExpireAt(FeedItem.expiryOf(added));
+            }
+            items.add(item);
+        }
+        UserFeed batch = new UserFeed(legacy.getId());
+        batch.setItems(items);
+        return batch;
+    }
+}
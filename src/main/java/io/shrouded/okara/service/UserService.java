@@ -2,27 +2,38 @@ package io.shrouded.okara.service;
 
 import com.google.cloud.Timestamp;
 import com.google.firebase.auth.FirebaseAuthException;
+import io.shrouded.okara.dto.common.CursorPage;
+import io.shrouded.okara.exception.OkaraException;
+import io.shrouded.okara.model.Follow;
+import io.shrouded.okara.model.OutboxEvent;
 import io.shrouded.okara.model.User;
+import io.shrouded.okara.repository.FollowRepository;
 import io.shrouded.okara.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
 
     private final UserRepository userRepository;
+    private final FollowRepository followRepository;
     private final FirebaseAuthService firebaseAuthService;
     private final FeedEventPublisher feedEventPublisher;
     private final PersonalFeedService personalFeedService;
     private final ChatroomService chatroomService;
 
     public Mono<User> getOrCreateUser(String jwtToken, String fcmToken) {
-        return Mono.fromCallable(() -> firebaseAuthService.verifyToken(jwtToken))
+        return firebaseAuthService.verifyToken(jwtToken)
                    .flatMap(decodedToken -> {
                        String firebaseUid = decodedToken.getUid();
                        String picture = (String) decodedToken.getClaims().get("picture");
@@ -37,7 +48,12 @@ public class UserService {
 
                                                 existingUser.setFcmToken(fcmToken);
                                                 existingUser.setUpdatedAt(Timestamp.now());
-                                                return userRepository.save(existingUser);
+                                                // fcmToken may be null, which Map.of does not take
+                                                Map<String, Object> fields = new HashMap<>();
+                                                fields.put("fcmToken", fcmToken);
+                                                fields.put("updatedAt", existingUser.getUpdatedAt());
+                                                return userRepository.updateFields(firebaseUid, fields)
+                                                                     .thenReturn(existingUser);
                                             })
                                             .switchIfEmpty(Mono.defer(() -> {
                                                 // Create new user
@@ -99,113 +115,96 @@ public class UserService {
     }
 
     public Mono<User> followUser(String followerFirebaseUid, String followeeFirebaseUid) {
-        return Mono.zip(
-                           userRepository.findById(followerFirebaseUid)
-                                         .switchIfEmpty(Mono.error(new RuntimeException("Follower not found"))),
-                           userRepository.findById(followeeFirebaseUid)
-                                         .switchIfEmpty(Mono.error(new RuntimeException("User to follow not found")))
-                   )
-                   .flatMap(tuple -> {
-                       User follower = tuple.getT1();
-                       User followee = tuple.getT2();
-
-                       // Add to following/followers lists
-                       if (!follower.getFollowing().contains(followeeFirebaseUid)) {
-                           follower.getFollowing().add(followeeFirebaseUid);
-                           follower.setFollowingCount(follower.getFollowingCount() + 1);
-                           follower.setUpdatedAt(Timestamp.now());
-
-                           followee.getFollowers().add(followerFirebaseUid);
-                           followee.setFollowersCount(followee.getFollowersCount() + 1);
-                           followee.setUpdatedAt(Timestamp.now());
-
-                           return Mono.zip(
-                                              userRepository.save(follower),
-                                              userRepository.save(followee)
-                                      )
-                                      .flatMap(savedUsers -> {
-                                          // Publish follow event for feed fanout
-                                          try {
-                                              feedEventPublisher.publishUserFollowed(followerFirebaseUid, followeeFirebaseUid);
-                                          } catch (Exception e) {
-                                              log.error("Failed to publish user followed event: {}", e.getMessage());
-                                          }
-                                          return Mono.just(savedUsers.getT1());
-                                      });
-                       }
-
-                       return Mono.just(follower);
-                   });
+        if (followerFirebaseUid.equals(followeeFirebaseUid)) {
+            return Mono.error(OkaraException.badRequest("Users cannot follow themselves"));
+        }
+        return userRepository.findById(followeeFirebaseUid)
+                             .switchIfEmpty(Mono.error(new RuntimeException("User to follow not found")))
+                             .then(Mono.defer(() -> {
+                                 // The follow event for feed fanout is committed with the edge
+                                 OutboxEvent followed = feedEventPublisher.userFollowed(followerFirebaseUid, followeeFirebaseUid);
+                                 return followRepository.follow(followerFirebaseUid, followeeFirebaseUid,
+                                                                feedEventPublisher.outboxWrite(followed))
+                                                        .doOnNext(created -> {
+                                                            if (created) {
+                                                                feedEventPublisher.dispatch(followed);
+                                                            }
+                                                        });
+                             }))
+                             .then(userRepository.findById(followerFirebaseUid))
+                             .switchIfEmpty(Mono.error(new RuntimeException("Follower not found")));
     }
 
     public Mono<User> unfollowUser(String followerFirebaseUid, String followeeFirebaseUid) {
-        return Mono.zip(
-                           userRepository.findById(followerFirebaseUid)
-                                         .switchIfEmpty(Mono.error(new RuntimeException("Follower not found"))),
-                           userRepository.findById(followeeFirebaseUid)
-                                         .switchIfEmpty(Mono.error(new RuntimeException("User to unfollow not found")))
-                   )
-                   .flatMap(tuple -> {
-                       User follower = tuple.getT1();
-                       User followee = tuple.getT2();
-
-                       // Remove from following/followers lists
-                       if (follower.getFollowing().contains(followeeFirebaseUid)) {
-                           follower.getFollowing().remove(followeeFirebaseUid);
-                           follower.setFollowingCount(follower.getFollowingCount() - 1);
-                           follower.setUpdatedAt(Timestamp.now());
-
-                           followee.getFollowers().remove(followerFirebaseUid);
-                           followee.setFollowersCount(followee.getFollowersCount() - 1);
-                           followee.setUpdatedAt(Timestamp.now());
-
-                           return Mono.zip(
-                                              userRepository.save(follower),
-                                              userRepository.save(followee)
-                                      )
-                                      .flatMap(savedUsers -> {
-                                          // Publish unfollow event for feed cleanup
-                                          try {
-                                              feedEventPublisher.publishUserUnfollowed(followerFirebaseUid, followeeFirebaseUid);
-                                          } catch (Exception e) {
-                                              log.error("Failed to publish user unfollowed event: {}", e.getMessage());
-                                          }
-                                          return Mono.just(savedUsers.getT1());
-                                      });
-                       }
-
-                       return Mono.just(follower);
-                   });
+        return userRepository.findById(followeeFirebaseUid)
+                             .switchIfEmpty(Mono.error(new RuntimeException("User to unfollow not found")))
+                             .then(Mono.defer(() -> {
+                                 // The unfollow event for feed cleanup is committed with the edge removal
+                                 OutboxEvent unfollowed = feedEventPublisher.userUnfollowed(followerFirebaseUid, followeeFirebaseUid);
+                                 return followRepository.unfollow(followerFirebaseUid, followeeFirebaseUid,
+                                                                  feedEventPublisher.outboxWrite(unfollowed))
+                                                        .doOnNext(removed -> {
+                                                            if (removed) {
+                                                                feedEventPublisher.dispatch(unfollowed);
+                                                            }
+                                                        });
+                             }))
+                             .then(userRepository.findById(followerFirebaseUid))
+                             .switchIfEmpty(Mono.error(new RuntimeException("Follower not found")));
+    }
+
+    public Mono<Boolean> isFollowing(String followerFirebaseUid, String followeeFirebaseUid) {
+        return followRepository.exists(followerFirebaseUid, followeeFirebaseUid);
+    }
+
+    /**
+     * Page of the user's followers, most recent first; the cursor is the nextCursor of the previous page
+     */
+    public Mono<CursorPage<User>> getFollowers(String firebaseUid, int limit, String cursor) {
+        return followRepository.findPageByFolloweeId(firebaseUid, cursor, limit)
+                               .flatMap(page -> loadUsers(page, Follow::getFollowerId));
+    }
+
+    /**
+     * Page of the users the user follows, most recent first; the cursor is the nextCursor of the previous page
+     */
+    public Mono<CursorPage<User>> getFollowing(String firebaseUid, int limit, String cursor) {
+        return followRepository.findPageByFollowerId(firebaseUid, cursor, limit)
+                               .flatMap(page -> loadUsers(page, Follow::getFolloweeId));
     }
 
     public Mono<User> updateProfile(String firebaseUid, String displayName, String bio, String location, String website) {
         return userRepository.findById(firebaseUid)
                              .switchIfEmpty(Mono.error(new RuntimeException("User not found")))
                              .flatMap(user -> {
+                                 // Only the given fields are written, so changes made meanwhile to the
+                                 // rest of the stored user are kept
+                                 Map<String, Object> fields = new HashMap<>();
                                  if (displayName != null) {
-                                     user.setDisplayName(displayName);
+                                     fields.put("displayName", displayName);
                                  }
                                  if (bio != null) {
-                                     user.setBio(bio);
+                                     fields.put("bio", bio);
                                  }
                                  if (location != null) {
-                                     user.setLocation(location);
+                                     fields.put("location", location);
                                  }
                                  if (website != null) {
-                                     user.setWebsite(website);
+                                     fields.put("website", website);
                                  }
-                                 user.setUpdatedAt(Timestamp.now());
+                                 fields.put("updatedAt", Timestamp.now());
 
-                                 return userRepository.save(user);
+                                 return userRepository.updateFields(firebaseUid, fields)
+                                                      .then(Mono.defer(() -> userRepository.findById(firebaseUid)));
                              });
     }
 
     public Mono<User> mergeAccounts(String anonymousUserToken, String newUserToken) {
-        return Mono.fromCallable(() -> firebaseAuthService.verifyToken(anonymousUserToken))
+        return firebaseAuthService.verifyToken(anonymousUserToken)
                    .flatMap(anonymousToken -> {
                        String anonymousFirebaseUid = anonymousToken.getUid();
                        
-                       return Mono.fromCallable(() -> firebaseAuthService.verifyToken(newUserToken))
+                       return firebaseAuthService.verifyToken(newUserToken)
                                   .flatMap(newUserTokenData -> {
                                       String newUserFirebaseUid = newUserTokenData.getUid();
                                       
@@ -240,4 +239,12 @@ public class UserService {
                    });
     }
 
-}
\ No newline at end of file
+    // Users behind one page of follow edges, in edge order; users deleted meanwhile are skipped
+    private Mono<CursorPage<User>> loadUsers(CursorPage<Follow> page, Function<Follow, String> userId) {
+        return Flux.fromIterable(page.items())
+                   .map(userId)
+                   .flatMapSequential(userRepository::findById)
+                   .collectList()
+                   .map(page::withItems);
+    }
+}
@@ -1,7 +1,7 @@
 package io.shrouded.okara.service;
 
+import io.shrouded.okara.enums.FeedCounter;
 import io.shrouded.okara.enums.ViewSource;
-import io.shrouded.okara.model.User;
 import io.shrouded.okara.model.ViewEvent;
 import io.shrouded.okara.repository.UserRepository;
 import io.shrouded.okara.repository.ViewEventRepository;
@@ -17,6 +17,7 @@ public class ViewTrackingService {
 
     private final ViewEventRepository viewEventRepository;
     private final UserRepository userRepository;
+    private final FeedCounterService feedCounterService;
 
     /**
      * Record a feed item view and update user's total view count
@@ -31,10 +32,10 @@ public class ViewTrackingService {
             viewEvent.setViewDurationMs(viewDurationMs);
         }
 
-        // Save view event and increment user's total view count
+        // Save view event and increment the user's total and the post's view counts
         return viewEventRepository.save(viewEvent)
-                                  .flatMap(savedEvent -> incrementUserViewCount(userId))
-                                  .then()
+                                  .then(Mono.when(incrementUserViewCount(userId),
+                                                  feedCounterService.increment(postId, FeedCounter.VIEWS, 1)))
                                   .doOnSuccess(v -> log.debug("Successfully recorded view for user {} on post {}",
                                                               userId,
                                                               postId))
@@ -48,18 +49,11 @@ public class ViewTrackingService {
     }
 
     /**
-     * Increment the user's total view count
+     * Increment the user's total view count server side
      */
-    private Mono<User> incrementUserViewCount(String userId) {
-        return userRepository.findById(userId)
-                             .flatMap(user -> {
-                                 Integer currentCount = user.getTotalViewsCount() != null ? user.getTotalViewsCount() : 0;
-                                 user.setTotalViewsCount(currentCount + 1);
-                                 return userRepository.save(user);
-                             })
-                             .doOnSuccess(user -> log.debug("Incremented view count for user {} to {}",
-                                                            userId,
-                                                            user.getTotalViewsCount()));
+    private Mono<Void> incrementUserViewCount(String userId) {
+        return userRepository.incrementField(userId, "totalViewsCount", 1)
+                             .doOnSuccess(v -> log.debug("Incremented view count for user {}", userId));
     }
 
     /**
@@ -0,0 +1,144 @@
+package io.shrouded.okara.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits post text into hashtags, mentions, links and search terms in a single pass over its
+ * code points.
+ * <p>
+ * Words are runs of Unicode letters, digits, combining marks and '_'. A '#' or '@' directly
+ * followed by a word starts a hashtag or mention unless it comes right after a word, so e-mail
+ * addresses are not mentions. Links start with http:// or https:// and run to the next
+ * whitespace, without trailing punctuation. Search terms are the lower-cased words of at least
+ * two characters, hashtags included, outside links and mentions. Every list keeps the order of
+ * first occurrence and holds no duplicates.
+ */
+public final class ContentTokenizer {
+
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final String HTTP = "http://";
+    private static final String HTTPS = "https://";
+    private static final String LINK_TRAILING_PUNCTUATION = ".,;:!?)]}'\"";
+
+    private ContentTokenizer() {
+    }
+
+    public record Tokens(List<String> hashtags, List<String> mentions, List<String> links, List<String> searchTerms) {
+
+        public static final Tokens EMPTY = new Tokens(List.of(), List.of(), List.of(), List.of());
+    }
+
+    public static Tokens tokenize(String content) {
+        if (content == null || content.isEmpty()) {
+            return Tokens.EMPTY;
+        }
+
+        // Insertion-ordered sets drop repeats in constant time; their table is allocated on the first add only
+        Set<String> hashtags = new LinkedHashSet<>();
+        Set<String> mentions = new LinkedHashSet<>();
+        Set<String> links = new LinkedHashSet<>();
+        Set<String> searchTerms = new LinkedHashSet<>();
+
+        int length = content.length();
+        boolean afterWord = false;
+        int i = 0;
+        while (i < length) {
+            int cp = content.codePointAt(i);
+
+            if (!afterWord && (cp == 'h' || cp == 'H')) {
+                int linkEnd = linkEnd(content, i);
+                if (linkEnd > 0) {
+                    links.add(content.substring(i, linkEnd));
+                    i = whitespaceFrom(content, linkEnd);
+                    continue;
+                }
+            }
+
+            if (isWordChar(cp)) {
+                int end = wordEnd(content, i);
+                addSearchTerm(searchTerms, content, i, end);
+                i = end;
+                afterWord = true;
+                continue;
+            }
+
+            int next = i + Character.charCount(cp);
+            if ((cp == '#' || cp == '@') && !afterWord && next < length && isWordChar(content.codePointAt(next))) {
+                int end = wordEnd(content, next);
+                if (cp == '#') {
+                    hashtags.add(content.substring(next, end));
+                    addSearchTerm(searchTerms, content, next, end);
+                } else {
+                    mentions.add(content.substring(next, end));
+                }
+                i = end;
+                afterWord = true;
+                continue;
+            }
+
+            afterWord = false;
+            i = next;
+        }
+        return new Tokens(new ArrayList<>(hashtags), new ArrayList<>(mentions), new ArrayList<>(links),
+                          new ArrayList<>(searchTerms));
+    }
+
+    private static boolean isWordChar(int cp) {
+        if (cp == '_' || Character.isLetterOrDigit(cp)) {
+            return true;
+        }
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private static int wordEnd(String content, int from) {
+        int i = from;
+        while (i < content.length()) {
+            int cp = content.codePointAt(i);
+            if (!isWordChar(cp)) {
+                break;
+            }
+            i += Character.charCount(cp);
+        }
+        return i;
+    }
+
+    private static int whitespaceFrom(String content, int from) {
+        int i = from;
+        while (i < content.length()) {
+            int cp = content.codePointAt(i);
+            if (Character.isWhitespace(cp)) {
+                break;
+            }
+            i += Character.charCount(cp);
+        }
+        return i;
+    }
+
+    // End of the link starting at from, or -1 when there is none
+    private static int linkEnd(String content, int from) {
+        int schemeLength;
+        if (content.regionMatches(true, from, HTTPS, 0, HTTPS.length())) {
+            schemeLength = HTTPS.length();
+        } else if (content.regionMatches(true, from, HTTP, 0, HTTP.length())) {
+            schemeLength = HTTP.length();
+        } else {
+            return -1;
+        }
+        int end = whitespaceFrom(content, from + schemeLength);
+        while (end > from + schemeLength && LINK_TRAILING_PUNCTUATION.indexOf(content.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return end > from + schemeLength ? end : -1;
+    }
+
+    private static void addSearchTerm(Set<String> searchTerms, String content, int start, int end) {
+        if (content.codePointCount(start, end) >= MIN_TERM_LENGTH) {
+            searchTerms.add(content.substring(start, end).toLowerCase(Locale.ROOT));
+        }
+    }
+}
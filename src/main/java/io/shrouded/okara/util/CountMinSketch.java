@@ -0,0 +1,129 @@
+package io.shrouded.okara.util;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Count-min sketch of string keys: a depth x width grid of counters where every key maps to one
+ * counter per row. Estimates never undercount and overcount by at most about 2 * total / width
+ * with probability 1 - 2^-depth. Sketches of the same shape add up and subtract exactly, so a
+ * sliding window can be kept as the sum of its buckets.
+ * <p>
+ * Not thread-safe.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long[] counts;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("depth and width must be at least 1");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counts = new long[depth * width];
+    }
+
+    public void add(String key, long count) {
+        long hash = hash(key);
+        for (int row = 0; row < depth; row++) {
+            counts[cell(hash, row)] += count;
+        }
+    }
+
+    public long estimate(String key) {
+        return estimateWith(key, null);
+    }
+
+    /**
+     * Estimate of the key in the sum of this sketch and the other one, without building the sum
+     */
+    public long estimateWith(String key, CountMinSketch other) {
+        if (other != null) {
+            checkShape(other);
+        }
+        long hash = hash(key);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(hash, row);
+            min = Math.min(min, counts[cell] + (other != null ? other.counts[cell] : 0));
+        }
+        return min;
+    }
+
+    /**
+     * Sum of all counts added, which every row holds in full
+     */
+    public long total() {
+        long total = 0;
+        for (int column = 0; column < width; column++) {
+            total += counts[column];
+        }
+        return total;
+    }
+
+    public void merge(CountMinSketch other) {
+        checkShape(other);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    public void subtract(CountMinSketch other) {
+        checkShape(other);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] -= other.counts[i];
+        }
+    }
+
+    public boolean sameShape(CountMinSketch other) {
+        return depth == other.depth && width == other.width;
+    }
+
+    /**
+     * Depth, width and the counters as big-endian longs
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + counts.length * Long.BYTES)
+                                      .putInt(depth)
+                                      .putInt(width);
+        for (long count : counts) {
+            buffer.putLong(count);
+        }
+        return buffer.array();
+    }
+
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CountMinSketch sketch = new CountMinSketch(buffer.getInt(), buffer.getInt());
+        if (buffer.remaining() != sketch.counts.length * Long.BYTES) {
+            throw new IllegalArgumentException("Count-min sketch size does not match its shape");
+        }
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = buffer.getLong();
+        }
+        return sketch;
+    }
+
+    private static long hash(String key) {
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+
+    // Row hashes are derived from one 64-bit hash as h1 + row * h2 (Kirsch-Mitzenmacher)
+    private int cell(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int combined = h1 + row * h2;
+        return row * width + (combined & Integer.MAX_VALUE) % width;
+    }
+
+    private void checkShape(CountMinSketch other) {
+        if (!sameShape(other)) {
+            throw new IllegalArgumentException("Count-min sketches have different shapes");
+        }
+    }
+}
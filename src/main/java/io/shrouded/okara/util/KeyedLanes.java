@@ -0,0 +1,104 @@
+package io.shrouded.okara.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A fixed number of serial lanes for keyed asynchronous work. The key picks the lane, so work for
+ * the same key runs one task at a time in submission order while different keys run in parallel;
+ * at most one task per lane is in flight.
+ * <p>
+ * Publishes {name}.queued and {name}.in.flight gauges plus {name}.queue.wait and {name}.processing timers.
+ */
+public final class KeyedLanes {
+
+    private final List<Sinks.Many<Task>> lanes = new ArrayList<>();
+    private final List<Disposable> laneSubscriptions = new ArrayList<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer queueWait;
+    private final Timer processing;
+
+    public KeyedLanes(String name, int laneCount, MeterRegistry meterRegistry) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("laneCount must be at least 1");
+        }
+        meterRegistry.gauge(name + ".queued", queued);
+        meterRegistry.gauge(name + ".in.flight", inFlight);
+        queueWait = meterRegistry.timer(name + ".queue.wait");
+        processing = meterRegistry.timer(name + ".processing");
+
+        for (int i = 0; i < laneCount; i++) {
+            Sinks.Many<Task> lane = Sinks.many().unicast().onBackpressureBuffer();
+            lanes.add(lane);
+            laneSubscriptions.add(lane.asFlux().concatMap(this::run).subscribe());
+        }
+    }
+
+    /**
+     * Queue the work on the key's lane right away; the returned Mono completes with the work
+     */
+    public Mono<Void> submit(String key, Supplier<Mono<Void>> work) {
+        Task task = new Task(work, System.nanoTime());
+        queued.incrementAndGet();
+        Sinks.Many<Task> lane = lanes.get(Math.floorMod(key != null ? key.hashCode() : 0, lanes.size()));
+        lane.emitNext(task, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+        return task.done.asMono();
+    }
+
+    /**
+     * Stop accepting work; tasks already queued still run
+     */
+    public void shutdown() {
+        lanes.forEach(lane -> lane.emitComplete(Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1))));
+    }
+
+    /**
+     * Drop queued work and cancel the running tasks
+     */
+    public void dispose() {
+        laneSubscriptions.forEach(Disposable::dispose);
+    }
+
+    private Mono<Void> run(Task task) {
+        return Mono.defer(() -> {
+                       queued.decrementAndGet();
+                       inFlight.incrementAndGet();
+                       long started = System.nanoTime();
+                       queueWait.record(started - task.enqueuedAt, TimeUnit.NANOSECONDS);
+                       // Deferred so a supplier that throws still ends up in doFinally
+                       return Mono.defer(task.work)
+                                  .doFinally(signal -> {
+                                      inFlight.decrementAndGet();
+                                      processing.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                                  });
+                   })
+                   .doOnSuccess(v -> task.done.tryEmitEmpty())
+                   .onErrorResume(e -> {
+                       // One failed task must not stop its lane
+                       task.done.tryEmitError(e);
+                       return Mono.empty();
+                   });
+    }
+
+    private static final class Task {
+        private final Supplier<Mono<Void>> work;
+        private final long enqueuedAt;
+        private final Sinks.Empty<Void> done = Sinks.empty();
+
+        private Task(Supplier<Mono<Void>> work, long enqueuedAt) {
+            this.work = work;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
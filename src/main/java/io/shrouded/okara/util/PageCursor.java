@@ -0,0 +1,115 @@
+package io.shrouded.okara.util;
+
+import com.google.cloud.Timestamp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor holding the sort values of the last document of a page, ending with its
+ * document ID. Because the cursor carries the values rather than a document reference, a page can
+ * still be continued after the document it ended with was deleted. A missing sort value is kept
+ * as null, which Firestore orders before every other value.
+ */
+public final class PageCursor {
+
+    private static final byte VERSION = 1;
+
+    private static final byte TIMESTAMP = 't';
+    private static final byte LONG = 'l';
+    private static final byte DOUBLE = 'd';
+    private static final byte STRING = 's';
+    private static final byte BOOLEAN = 'b';
+    private static final byte NULL = 'n';
+
+    private PageCursor() {
+        // Utility class - private constructor
+    }
+
+    /**
+     * Encode the sort values as a URL-safe token
+     */
+    public static String encode(Object... values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(values.length);
+            for (Object value : values) {
+                write(out, value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode page cursor", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decode a token into its sort values; fails with IllegalArgumentException when the token is
+     * malformed or does not hold the expected number of values
+     */
+    public static Object[] decode(String token, int expectedValues) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported page cursor version");
+            }
+            int count = in.readUnsignedByte();
+            if (count != expectedValues) {
+                throw new IllegalArgumentException("Page cursor holds " + count + " values, expected " + expectedValues);
+            }
+            Object[] values = new Object[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = read(in);
+            }
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("Trailing bytes in page cursor");
+            }
+            return values;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed page cursor", e);
+        }
+    }
+
+    private static void write(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Timestamp timestamp) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(timestamp.getSeconds());
+            out.writeInt(timestamp.getNanos());
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Integer number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Double number) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(number);
+        } else if (value instanceof String text) {
+            out.writeByte(STRING);
+            out.writeUTF(text);
+        } else if (value instanceof Boolean flag) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(flag);
+        } else {
+            throw new IllegalArgumentException("Unsupported page cursor value: " + value);
+        }
+    }
+
+    private static Object read(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case TIMESTAMP -> Timestamp.ofTimeSecondsAndNanos(in.readLong(), in.readInt());
+            case LONG -> in.readLong();
+            case DOUBLE -> in.readDouble();
+            case STRING -> in.readUTF();
+            case BOOLEAN -> in.readBoolean();
+            case NULL -> null;
+            default -> throw new IllegalArgumentException("Unknown page cursor value type " + type);
+        };
+    }
+}